@@ -3,36 +3,131 @@ package com.municipal;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.municipal.config.AppConfig;
 import com.municipal.exceptions.ApiClientException;
+import com.municipal.exceptions.CircuitOpenException;
+import com.municipal.http.CircuitBreaker;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.CompressedBodyHandlers;
+import com.municipal.http.ConditionalCache;
+import com.municipal.http.RequestMetrics;
+import com.municipal.http.RequestScheduler;
+import com.municipal.http.RetryPolicy;
+import com.municipal.http.SingleFlight;
+import com.municipal.http.TimedInputStream;
+import com.municipal.http.TokenRenewer;
+import com.municipal.http.TransferStats;
+import com.municipal.responses.BinaryFileResponse;
+import com.municipal.utils.BoundedInputStream;
 import com.municipal.utils.JsonUtils;
 import com.municipal.utils.MultipartBodyPublisher;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Lightweight HTTP client used by the JavaFX application to communicate with
  * the Spring Boot backend.
+ * <p>
+ * Every operation is available in a blocking flavour and in an {@code *Async}
+ * flavour that returns a {@link CompletableFuture} backed by
+ * {@link HttpClient#sendAsync}, so callers do not need to park a thread per
+ * request.
+ * <p>
+ * Response bodies are always consumed as streams and decoded directly by
+ * Jackson; list endpoints can additionally be read element by element through
+ * {@link #stream} so large collections are never buffered as text. Bodies
+ * larger than {@code api.max-response-bytes} are rejected.
+ * <p>
+ * GET responses carrying {@code ETag} or {@code Last-Modified} are remembered
+ * in a size-bounded {@link ConditionalCache}; later GETs for the same URL and
+ * token are sent as conditional requests and a {@code 304} reuses the decoded
+ * value.
+ * <p>
+ * Requests advertise {@code Accept-Encoding: gzip, deflate}; compressed bodies
+ * are inflated while streaming and byte counts are kept in {@link TransferStats}.
+ * Concurrent identical GETs are coalesced through a {@link SingleFlight}.
+ * <p>
+ * Every call goes through a {@link RequestScheduler}: calls made from a
+ * background context (auto-refresh loops) are queued behind interactive ones,
+ * run with a concurrency cap, and identical queued GETs are merged.
+ * <p>
+ * {@link RequestMetrics} keeps per-endpoint histograms of time to first byte,
+ * body download time, JSON decode time and payload size.
+ * <p>
+ * When a {@link TokenRenewer} is installed, bearer-token requests that race
+ * with a token renewal wait for it, and a {@code 401} triggers one shared
+ * renewal followed by a single retry with the new token.
  */
 public class ApiClient {
 
+    private static final long DEFAULT_MAX_RESPONSE_BYTES = 64L * 1024 * 1024;
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final Pattern FILENAME_PATTERN = Pattern.compile("filename=\"?([^\";]+)\"?");
+
     private final HttpClient httpClient;
     private final String baseUrl;
+    private final Executor responseExecutor;
+    private final ConditionalCache conditionalCache = new ConditionalCache(
+            AppConfig.getLong("api.conditional-cache.max-bytes", ConditionalCache.DEFAULT_MAX_BYTES));
+    private final TransferStats transferStats = new TransferStats();
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final RequestScheduler scheduler;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.fromConfig();
+    private static volatile TokenRenewer defaultTokenRenewer;
+    private volatile TokenRenewer tokenRenewer;
+    private volatile long maxResponseBytes = AppConfig.getLong("api.max-response-bytes", DEFAULT_MAX_RESPONSE_BYTES);
 
     public ApiClient() {
         this(HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
+                .executor(createExecutor())
                 .build(),
                 AppConfig.require("api.base-url"));
     }
 
     public ApiClient(HttpClient httpClient, String baseUrl) {
+        this(httpClient, baseUrl, CircuitBreakerRegistry.getDefault());
+    }
+
+    public ApiClient(HttpClient httpClient, String baseUrl, CircuitBreakerRegistry circuitBreakers) {
+        this(httpClient, baseUrl, circuitBreakers, RequestScheduler.getDefault());
+    }
+
+    public ApiClient(HttpClient httpClient, String baseUrl, CircuitBreakerRegistry circuitBreakers,
+            RequestScheduler scheduler) {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
         this.baseUrl = Objects.requireNonNull(baseUrl, "baseUrl");
+        this.circuitBreakers = Objects.requireNonNull(circuitBreakers, "circuitBreakers");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+        this.responseExecutor = httpClient.executor().orElse(ForkJoinPool.commonPool());
     }
 
     public HttpRequest.Builder requestBuilder(String path) {
@@ -40,61 +135,209 @@ public class ApiClient {
         return HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + normalizedPath))
                 .timeout(Duration.ofSeconds(15))
-                .header("Accept", "application/json");
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", CompressedBodyHandlers.ACCEPT_ENCODING);
     }
 
     public <T> T post(String path, Object body, Class<T> responseType) {
-        HttpRequest request = requestBuilder(path)
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body)))
-                .build();
-        return send(request, responseType);
+        return send(postRequest(path, body, null), responseType);
     }
 
     public <T> T post(String path, Object body, String bearerToken, Class<T> responseType) {
-        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken)
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body)));
-        return send(builder.build(), responseType);
+        return send(postRequest(path, body, bearerToken), responseType);
     }
 
     public <T> T postMultipart(String path, MultipartBodyPublisher multipartBody, String bearerToken,
             Class<T> responseType) {
-        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken)
-                .header("Content-Type", "multipart/form-data; boundary=" + multipartBody.getBoundary())
-                .POST(multipartBody.build());
-        return send(builder.build(), responseType);
+        return send(multipartRequest(path, multipartBody, bearerToken), responseType);
     }
 
     public <T> T put(String path, Object body, String bearerToken, Class<T> responseType) {
-        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken)
-                .header("Content-Type", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body)));
-        return send(builder.build(), responseType);
+        return send(putRequest(path, body, bearerToken), responseType);
     }
 
     public <T> T patch(String path, Object body, String bearerToken, Class<T> responseType) {
+        return send(patchRequest(path, body, bearerToken), responseType);
+    }
+
+    public void delete(String path, String bearerToken) {
+        send(deleteRequest(path, bearerToken), Void.class);
+    }
+
+    public <T> T get(String path, String bearerToken, Class<T> responseType) {
+        return await(getAsync(path, bearerToken, responseType));
+    }
+
+    public <T> T get(String path, String bearerToken, TypeReference<T> responseType) {
+        return await(getAsync(path, bearerToken, responseType));
+    }
+
+    public <T> List<T> getList(String path, String bearerToken, Class<T> elementType) {
+        return await(getListAsync(path, bearerToken, elementType));
+    }
+
+    /**
+     * Streams the JSON array returned by {@code path}, delivering each element
+     * to {@code consumer} as soon as it has been decoded.
+     *
+     * @return number of elements delivered
+     */
+    public <T> int stream(String path, String bearerToken, Class<T> elementType, Consumer<? super T> consumer) {
+        return await(streamAsync(path, bearerToken, elementType, consumer));
+    }
+
+    /**
+     * Downloads a binary document such as a spreadsheet export. The file name
+     * is taken from {@code Content-Disposition}, falling back to
+     * {@code defaultFileName}.
+     */
+    public BinaryFileResponse download(String path, String bearerToken, String accept, String defaultFileName) {
+        return await(downloadAsync(path, bearerToken, accept, defaultFileName));
+    }
+
+    // ==================== ASYNC ====================
+
+    public <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> responseType) {
+        return sendAsync(postRequest(path, body, null), responseType);
+    }
+
+    public <T> CompletableFuture<T> postAsync(String path, Object body, String bearerToken, Class<T> responseType) {
+        return sendAsync(postRequest(path, body, bearerToken), responseType);
+    }
+
+    public <T> CompletableFuture<T> postMultipartAsync(String path, MultipartBodyPublisher multipartBody,
+            String bearerToken, Class<T> responseType) {
+        return sendAsync(multipartRequest(path, multipartBody, bearerToken), responseType);
+    }
+
+    public <T> CompletableFuture<T> putAsync(String path, Object body, String bearerToken, Class<T> responseType) {
+        return sendAsync(putRequest(path, body, bearerToken), responseType);
+    }
+
+    public <T> CompletableFuture<T> patchAsync(String path, Object body, String bearerToken, Class<T> responseType) {
+        return sendAsync(patchRequest(path, body, bearerToken), responseType);
+    }
+
+    public CompletableFuture<Void> deleteAsync(String path, String bearerToken) {
+        return sendAsync(deleteRequest(path, bearerToken), Void.class);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String path, String bearerToken, Class<T> responseType) {
+        return sharedGetAsync(getRequest(path, bearerToken), responseType.getName(),
+                body -> JsonUtils.fromJson(body, responseType));
+    }
+
+    public <T> CompletableFuture<T> getAsync(String path, String bearerToken, TypeReference<T> responseType) {
+        return sharedGetAsync(getRequest(path, bearerToken), responseType.getType().getTypeName(),
+                body -> JsonUtils.fromJson(body, responseType));
+    }
+
+    public <T> CompletableFuture<List<T>> getListAsync(String path, String bearerToken, Class<T> elementType) {
+        List<T> items = new ArrayList<>();
+        return streamAsync(path, bearerToken, elementType, items::add).thenApply(count -> items);
+    }
+
+    public <T> CompletableFuture<Integer> streamAsync(String path, String bearerToken, Class<T> elementType,
+            Consumer<? super T> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        AtomicBoolean streamed = new AtomicBoolean();
+        BodyReader<List<T>> reader = body -> {
+            streamed.set(true);
+            List<T> retained = new ArrayList<>();
+            JsonUtils.readArray(body, elementType, item -> {
+                retained.add(item);
+                consumer.accept(item);
+            });
+            return Collections.unmodifiableList(retained);
+        };
+        return sharedGetAsync(getRequest(path, bearerToken), "stream:" + elementType.getName(), reader)
+                .thenApply(items -> {
+                    // Joined an in-flight request or got a 304: replay the shared result
+                    if (!streamed.get()) {
+                        items.forEach(consumer);
+                    }
+                    return items.size();
+                });
+    }
+
+    public CompletableFuture<BinaryFileResponse> downloadAsync(String path, String bearerToken, String accept,
+            String defaultFileName) {
+        HttpRequest request = authorizedBuilder(path, bearerToken)
+                .setHeader("Accept", accept)
+                .GET()
+                .build();
+        return schedule(null, () -> executeAsync(request).thenApplyAsync(response -> readBody(response,
+                body -> new BinaryFileResponse(body.readAllBytes(), fileNameOf(response, defaultFileName))),
+                responseExecutor));
+    }
+
+    private static String fileNameOf(HttpResponse<?> response, String defaultFileName) {
+        return response.headers().firstValue("Content-Disposition")
+                .map(FILENAME_PATTERN::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> matcher.group(1))
+                .orElse(defaultFileName);
+    }
+
+    // ==================== REQUEST FACTORIES ====================
+
+    private HttpRequest postRequest(String path, Object body, String bearerToken) {
+        return authorizedBuilder(path, bearerToken)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body)))
+                .build();
+    }
+
+    /**
+     * Builder for a request carrying an already serialized JSON body
+     * ({@code null} sends none), for callers that store requests and send
+     * them later.
+     */
+    public HttpRequest.Builder jsonRequestBuilder(String method, String path, String jsonBody, String bearerToken) {
+        HttpRequest.BodyPublisher publisher = jsonBody != null
+                ? HttpRequest.BodyPublishers.ofString(jsonBody)
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken).method(method, publisher);
+        if (jsonBody != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        return builder;
+    }
+
+    private HttpRequest multipartRequest(String path, MultipartBodyPublisher multipartBody, String bearerToken) {
+        return authorizedBuilder(path, bearerToken)
+                .header("Content-Type", "multipart/form-data; boundary=" + multipartBody.getBoundary())
+                .POST(multipartBody.build())
+                .build();
+    }
+
+    private HttpRequest putRequest(String path, Object body, String bearerToken) {
+        return authorizedBuilder(path, bearerToken)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body)))
+                .build();
+    }
+
+    private HttpRequest patchRequest(String path, Object body, String bearerToken) {
         HttpRequest.BodyPublisher publisher = body != null
                 ? HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(body))
                 : HttpRequest.BodyPublishers.noBody();
-        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken)
+        return authorizedBuilder(path, bearerToken)
                 .header("Content-Type", "application/json")
-                .method("PATCH", publisher);
-        return send(builder.build(), responseType);
+                .method("PATCH", publisher)
+                .build();
     }
 
-    public void delete(String path, String bearerToken) {
-        HttpRequest.Builder builder = authorizedBuilder(path, bearerToken)
-                .DELETE();
-        send(builder.build(), Void.class);
+    private HttpRequest deleteRequest(String path, String bearerToken) {
+        return authorizedBuilder(path, bearerToken)
+                .DELETE()
+                .build();
     }
 
-    public <T> T get(String path, String bearerToken, TypeReference<T> responseType) {
-        HttpRequest.Builder builder = requestBuilder(path).GET();
-        if (bearerToken != null && !bearerToken.isBlank()) {
-            builder.header("Authorization", "Bearer " + bearerToken);
-        }
-        return send(builder.build(), responseType);
+    private HttpRequest getRequest(String path, String bearerToken) {
+        return authorizedBuilder(path, bearerToken)
+                .GET()
+                .build();
     }
 
     private HttpRequest.Builder authorizedBuilder(String path, String bearerToken) {
@@ -105,17 +348,28 @@ public class ApiClient {
         return builder;
     }
 
+    // ==================== EXECUTION ====================
+
     public <T> T send(HttpRequest request, Class<T> responseType) {
-        HttpResponse<String> response = execute(request);
-        if (responseType == Void.class) {
-            return null;
-        }
-        return JsonUtils.fromJson(response.body(), responseType);
+        return await(sendAsync(request, responseType));
     }
 
     public <T> T send(HttpRequest request, TypeReference<T> responseType) {
-        HttpResponse<String> response = execute(request);
-        return JsonUtils.fromJson(response.body(), responseType);
+        return await(sendAsync(request, responseType));
+    }
+
+    public <T> CompletableFuture<T> sendAsync(HttpRequest request, Class<T> responseType) {
+        return schedule(null, () -> executeAsync(request).thenApplyAsync(response -> readBody(response, body -> {
+            if (responseType == Void.class) {
+                return null;
+            }
+            return JsonUtils.fromJson(body, responseType);
+        }), responseExecutor));
+    }
+
+    public <T> CompletableFuture<T> sendAsync(HttpRequest request, TypeReference<T> responseType) {
+        return schedule(null, () -> executeAsync(request).thenApplyAsync(
+                response -> readBody(response, body -> JsonUtils.fromJson(body, responseType)), responseExecutor));
     }
 
     public HttpClient getHttpClient() {
@@ -126,19 +380,368 @@ public class ApiClient {
         return baseUrl;
     }
 
-    private HttpResponse<String> execute(HttpRequest request) {
-        try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            int statusCode = response.statusCode();
-            if (statusCode >= 200 && statusCode < 300) {
-                return response;
+    /**
+     * Sends a hand-built request, typically to an absolute URL outside the
+     * API such as a stored image, advertising gzip/deflate support. The body
+     * is decoded but no status handling is applied.
+     */
+    public HttpResponse<byte[]> exchangeBytes(HttpRequest request) throws IOException, InterruptedException {
+        HttpRequest compressed = withAcceptEncoding(request);
+        return httpClient.send(compressed, CompressedBodyHandlers.ofByteArray(compressed.uri(), transferStats,
+                requestMetrics.forRequest(compressed)));
+    }
+
+    private static HttpRequest withAcceptEncoding(HttpRequest request) {
+        if (request.headers().firstValue("Accept-Encoding").isPresent()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .header("Accept-Encoding", CompressedBodyHandlers.ACCEPT_ENCODING)
+                .build();
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * {@code true} while the breaker for {@code path} rejects calls, letting
+     * pollers skip a tick instead of producing another failure.
+     */
+    public boolean isCircuitOpen(String path) {
+        return circuitBreakers.isAnyOpen(path);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
+    }
+
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Installs the renewer used by every client that has no renewer of its
+     * own, typically once the user has logged in.
+     */
+    public static void setDefaultTokenRenewer(TokenRenewer renewer) {
+        defaultTokenRenewer = renewer;
+    }
+
+    public void setTokenRenewer(TokenRenewer tokenRenewer) {
+        this.tokenRenewer = tokenRenewer;
+    }
+
+    public TokenRenewer getTokenRenewer() {
+        TokenRenewer renewer = tokenRenewer;
+        return renewer != null ? renewer : defaultTokenRenewer;
+    }
+
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+
+    public ConditionalCache getConditionalCache() {
+        return conditionalCache;
+    }
+
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * Overrides the maximum accepted response size. A value of zero or less
+     * disables the limit.
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    /**
+     * Executes a GET revalidating any previously cached response. Concurrent
+     * GETs for the same URL, token and target type share one exchange and one
+     * decoded value, so callers must treat returned values as read-only. On
+     * {@code 304 Not Modified} the cached decoded value is returned without
+     * reading a body.
+     */
+    private <T> CompletableFuture<T> sharedGetAsync(HttpRequest request, String typeKey, BodyReader<T> reader) {
+        String key = ConditionalCache.key(request, typeKey);
+        // In-flight sharing stays per token; only the revalidation entry is shared across renewals
+        String flightKey = key + "|" + ConditionalCache.authorization(request);
+        return schedule(flightKey, () -> singleFlight.execute(flightKey,
+                () -> conditionalGetAsync(key, request, reader)));
+    }
+
+    /**
+     * Hands the whole operation, body decoding included, to the scheduler
+     * using the priority of the calling thread.
+     */
+    private <T> CompletableFuture<T> schedule(String mergeKey, Supplier<CompletableFuture<T>> operation) {
+        return scheduler.submit(RequestScheduler.currentPriority(), mergeKey, operation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> conditionalGetAsync(String key, HttpRequest request, BodyReader<T> reader) {
+        if (!ConditionalCache.isCacheable(request.uri())) {
+            return executeAsync(request).thenApplyAsync(response -> readBody(response, reader), responseExecutor);
+        }
+        String authorization = ConditionalCache.authorization(request);
+        ConditionalCache.Entry cached = conditionalCache.get(key, authorization);
+        HttpRequest effective = cached != null ? cached.applyTo(request) : request;
+        return executeAsync(effective).thenApplyAsync(response -> {
+            if (response.statusCode() == 304) {
+                closeQuietly(response.body());
+                if (cached == null) {
+                    throw new ApiClientException(304, null);
+                }
+                return (T) cached.value();
             }
-            throw new ApiClientException(statusCode, response.body());
+            long[] bytes = new long[1];
+            T value = readBody(response, reader, bytes);
+            conditionalCache.store(key, authorization, response.headers(), value, bytes[0]);
+            return value;
+        }, responseExecutor);
+    }
+
+    /**
+     * Sends the request and completes once the status line and headers are
+     * available. Transient failures of idempotent requests are retried with
+     * {@link RetryPolicy} backoff and every outcome feeds the endpoint's
+     * {@link CircuitBreaker}; while it is open calls fail fast with a
+     * {@link CircuitOpenException}. {@code 304 Not Modified} is passed through for conditional
+     * requests; any other non-2xx response are turned into {@link ApiClientException}s
+     * carrying the (bounded) error body.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> executeAsync(HttpRequest request) {
+        TokenRenewer renewer = getTokenRenewer();
+        String token = bearerToken(request);
+        if (renewer == null || token == null) {
+            return executeAsync(request, circuitBreakers.forUri(request.uri()), 1);
+        }
+        CompletableFuture<String> pending = renewer.pendingRenewal(token);
+        if (pending != null) {
+            return pending.thenCompose(renewed -> executeAsync(withBearerToken(request, renewed),
+                    circuitBreakers.forUri(request.uri()), 1));
+        }
+        return executeAsync(request, circuitBreakers.forUri(request.uri()), 1)
+                .exceptionallyCompose(error -> {
+                    ApiClientException failure = translate(error);
+                    if (failure.getStatusCode() != 401) {
+                        return CompletableFuture.failedFuture(failure);
+                    }
+                    // Renew once and retry; if renewal fails the original 401 stands
+                    return renewer.renew(token)
+                            .handle((renewed, renewalError) -> renewalError == null && renewed != null
+                                    && !renewed.equals(token)
+                                    ? executeAsync(withBearerToken(request, renewed),
+                                            circuitBreakers.forUri(request.uri()), 1)
+                                    : CompletableFuture.<HttpResponse<InputStream>>failedFuture(failure))
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    private static String bearerToken(HttpRequest request) {
+        return request.headers().firstValue("Authorization")
+                .filter(value -> value.startsWith("Bearer "))
+                .map(value -> value.substring("Bearer ".length()))
+                .orElse(null);
+    }
+
+    private static HttpRequest withBearerToken(HttpRequest request, String token) {
+        return HttpRequest.newBuilder(request, (name, value) -> !"Authorization".equalsIgnoreCase(name))
+                .header("Authorization", "Bearer " + token)
+                .build();
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> executeAsync(HttpRequest request, CircuitBreaker breaker,
+            int attempt) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new CircuitOpenException(breaker.getName(), breaker.getRemainingOpenTime()));
+        }
+        RequestMetrics.Endpoint metrics = requestMetrics.forRequest(request);
+        HttpResponse.BodyHandler<InputStream> handler = CompressedBodyHandlers.ofInputStream(request.uri(),
+                transferStats, metrics);
+        long started = System.nanoTime();
+        return httpClient.sendAsync(request, info -> {
+                    // Invoked as soon as the status line and headers have arrived
+                    metrics.recordTimeToFirstByte(System.nanoTime() - started);
+                    return handler.apply(info);
+                })
+                .handleAsync((response, error) -> {
+                    ApiClientException failure;
+                    boolean serverFailure;
+                    if (error != null) {
+                        failure = translate(error);
+                        serverFailure = failure.getCause() instanceof IOException;
+                    } else {
+                        int statusCode = response.statusCode();
+                        if (statusCode == 304 || (statusCode >= 200 && statusCode < 300)) {
+                            breaker.onSuccess();
+                            return checkDeclaredLength(response);
+                        }
+                        failure = new ApiClientException(statusCode, readErrorBody(response));
+                        serverFailure = statusCode >= 500;
+                    }
+                    if (serverFailure) {
+                        breaker.onFailure();
+                    } else {
+                        breaker.onSuccess();
+                    }
+                    if (isRetryable(request, failure) && retryPolicy.canRetry(attempt)) {
+                        Executor delayed = CompletableFuture.delayedExecutor(
+                                retryPolicy.delayMillis(attempt), TimeUnit.MILLISECONDS, responseExecutor);
+                        return CompletableFuture.supplyAsync(() -> request, delayed)
+                                .thenCompose(retry -> executeAsync(retry, breaker, attempt + 1));
+                    }
+                    return CompletableFuture.<HttpResponse<InputStream>>failedFuture(failure);
+                }, responseExecutor)
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> checkDeclaredLength(HttpResponse<InputStream> response) {
+        long declaredLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        long limit = maxResponseBytes;
+        if (limit > 0 && declaredLength > limit) {
+            closeQuietly(response.body());
+            return CompletableFuture.failedFuture(new ApiClientException(500,
+                    "Response body of " + declaredLength + " bytes exceeds the limit of " + limit));
+        }
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Only idempotent requests are retried, and only for transport failures or
+     * gateway-style statuses that usually clear up on their own.
+     */
+    private static boolean isRetryable(HttpRequest request, ApiClientException failure) {
+        if (!IDEMPOTENT_METHODS.contains(request.method())) {
+            return false;
+        }
+        if (failure.getCause() instanceof IOException) {
+            return true;
+        }
+        int statusCode = failure.getStatusCode();
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    private <R> R readBody(HttpResponse<InputStream> response, BodyReader<R> reader) {
+        return readBody(response, reader, new long[1]);
+    }
+
+    /**
+     * Decodes the body with {@code reader}, storing the number of decoded
+     * body bytes read in {@code bytesRead[0]}.
+     */
+    private <R> R readBody(HttpResponse<InputStream> response, BodyReader<R> reader, long[] bytesRead) {
+        if (response.statusCode() == 304) {
+            closeQuietly(response.body());
+            throw new ApiClientException(304, null);
+        }
+        if (response.statusCode() == 204) {
+            closeQuietly(response.body());
+            return null;
+        }
+        BoundedInputStream bounded = new BoundedInputStream(response.body(), maxResponseBytes);
+        long started = System.nanoTime();
+        try (TimedInputStream body = new TimedInputStream(bounded)) {
+            R value = reader.read(body);
+            bytesRead[0] = bounded.getCount();
+            // Time not spent waiting for bytes was spent decoding them
+            long downloadNanos = body.getBlockedNanos();
+            requestMetrics.forRequest(response.request()).recordBody(bounded.getCount(), downloadNanos,
+                    System.nanoTime() - started - downloadNanos);
+            return value;
+        } catch (IOException exception) {
+            throw new ApiClientException(500, "Failed to read response body", exception);
+        }
+    }
+
+    private String readErrorBody(HttpResponse<InputStream> response) {
+        try (InputStream body = new BoundedInputStream(response.body(), maxResponseBytes)) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+            // Nothing else to release
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<R> {
+        R read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Blocks the calling thread until the future completes, unwrapping the
+     * {@link ApiClientException} raised by the asynchronous pipeline.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
         } catch (InterruptedException exception) {
             Thread.currentThread().interrupt();
+            future.cancel(true);
             throw new ApiClientException(500, "Request execution interrupted", exception);
-        } catch (IOException exception) {
-            throw new ApiClientException(500, "Failed to execute request", exception);
+        } catch (ExecutionException exception) {
+            throw translate(exception.getCause());
+        }
+    }
+
+    private static ApiClientException translate(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ApiClientException apiClientException) {
+            return apiClientException;
+        }
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            return new ApiClientException(500, "Request execution interrupted", cause);
+        }
+        if (cause instanceof IOException) {
+            return new ApiClientException(500, "Failed to execute request", cause);
+        }
+        return new ApiClientException(500, "Unexpected error while executing request", cause);
+    }
+
+    /**
+     * Creates the executor used by {@link HttpClient} to run response handlers
+     * and complete futures. Virtual threads are used when the runtime offers
+     * them; otherwise a cached pool of daemon threads is used so pending
+     * requests never keep the JavaFX application alive.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "api-client-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(factory);
         }
     }
 }
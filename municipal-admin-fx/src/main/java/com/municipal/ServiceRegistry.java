@@ -0,0 +1,98 @@
+package com.municipal;
+
+import com.municipal.controllers.AuthController;
+import com.municipal.controllers.NotificationController;
+import com.municipal.controllers.ReservationController;
+import com.municipal.controllers.SpaceController;
+import com.municipal.controllers.SpaceImageController;
+import com.municipal.controllers.UserController;
+import com.municipal.controllers.WeatherController;
+import com.municipal.services.AuthService;
+import com.municipal.services.SpaceImageService;
+import com.municipal.services.SpaceService;
+import com.municipal.services.UserService;
+import com.municipal.services.WeatherService;
+
+import java.util.Objects;
+
+/**
+ * Application-scoped holder of the backend controllers. All of them share one
+ * {@link ApiClient}, and with it one {@link java.net.http.HttpClient}
+ * connection pool, conditional cache and request coalescing, and there is a
+ * single {@link WeatherService} so every view hits the same weather cache.
+ * <p>
+ * The navigation layer hands the registry to views implementing
+ * {@link com.municipal.ui.navigation.ServiceAware}; code outside the views uses
+ * {@link #getDefault()}.
+ */
+public final class ServiceRegistry {
+
+    private static ServiceRegistry defaultRegistry;
+
+    private final ApiClient apiClient;
+    private final AuthController authController;
+    private final NotificationController notificationController;
+    private final ReservationController reservationController;
+    private final SpaceController spaceController;
+    private final SpaceImageController spaceImageController;
+    private final UserController userController;
+    private final WeatherController weatherController;
+
+    public ServiceRegistry(ApiClient apiClient) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient");
+        this.authController = new AuthController(new AuthService(apiClient));
+        this.notificationController = new NotificationController(apiClient);
+        this.reservationController = new ReservationController(apiClient);
+        this.spaceController = new SpaceController(new SpaceService(apiClient));
+        this.spaceImageController = new SpaceImageController(new SpaceImageService(apiClient));
+        this.userController = new UserController(new UserService(apiClient));
+        this.weatherController = new WeatherController(new WeatherService(apiClient));
+    }
+
+    /**
+     * Registry of the application, created on first use with a client for
+     * {@code api.base-url}; the configuration must already be loaded.
+     */
+    public static synchronized ServiceRegistry getDefault() {
+        if (defaultRegistry == null) {
+            defaultRegistry = new ServiceRegistry(new ApiClient());
+        }
+        return defaultRegistry;
+    }
+
+    public static synchronized void setDefault(ServiceRegistry registry) {
+        defaultRegistry = registry;
+    }
+
+    public ApiClient apiClient() {
+        return apiClient;
+    }
+
+    public AuthController authController() {
+        return authController;
+    }
+
+    public NotificationController notificationController() {
+        return notificationController;
+    }
+
+    public ReservationController reservationController() {
+        return reservationController;
+    }
+
+    public SpaceController spaceController() {
+        return spaceController;
+    }
+
+    public SpaceImageController spaceImageController() {
+        return spaceImageController;
+    }
+
+    public UserController userController() {
+        return userController;
+    }
+
+    public WeatherController weatherController() {
+        return weatherController;
+    }
+}
@@ -20,7 +20,7 @@ public class AzureAuthService {
 
     private final PublicClientApplication application;
     private final Set<String> scopes;
-    private IAuthenticationResult lastResult;
+    private volatile IAuthenticationResult lastResult;
 
     public AzureAuthService() {
         try {
@@ -121,7 +121,11 @@ public class AzureAuthService {
         }
         SilentParameters parameters = SilentParameters.builder(scopes, lastResult.account()).build();
         try {
-            return application.acquireTokenSilently(parameters);
+            return application.acquireTokenSilently(parameters)
+                    .thenApply(result -> {
+                        this.lastResult = result;
+                        return result;
+                    });
         } catch (MalformedURLException e) {
             return CompletableFuture.failedFuture(e);
         }
@@ -39,6 +39,23 @@ public final class AppConfig {
         return PROPERTIES.getProperty(key, defaultValue);
     }
 
+    public static long getLong(String key, long defaultValue) {
+        String value = PROPERTIES.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException exception) {
+            return defaultValue;
+        }
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        long value = getLong(key, defaultValue);
+        return value > Integer.MAX_VALUE || value < Integer.MIN_VALUE ? defaultValue : (int) value;
+    }
+
     public static String require(String key) {
         String value = PROPERTIES.getProperty(key);
         if (value == null || value.isBlank()) {
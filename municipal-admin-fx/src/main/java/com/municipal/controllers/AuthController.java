@@ -3,6 +3,8 @@ package com.municipal.controllers;
 import com.municipal.responses.AuthResponse;
 import com.municipal.services.AuthService;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Bridges UI login flows with the backend authentication endpoints.
  */
@@ -21,4 +23,8 @@ public class AuthController {
     public AuthResponse authenticateWithAzure(String accessToken) {
         return authService.loginWithAzureToken(accessToken);
     }
+
+    public CompletableFuture<AuthResponse> authenticateWithAzureAsync(String accessToken) {
+        return authService.loginWithAzureTokenAsync(accessToken);
+    }
 }
@@ -26,6 +26,10 @@ public class SpaceController {
         return spaceService.findAll(bearerToken);
     }
 
+    public SpaceDTO getSpaceById(Long id, String bearerToken) {
+        return spaceService.findById(id, bearerToken);
+    }
+
     public SpaceDTO createSpace(SpaceInputDTO input, String bearerToken) {
         return spaceService.create(input, bearerToken);
     }
@@ -25,6 +25,10 @@ public class UserController {
         return userService.findAll(bearerToken);
     }
 
+    public UserDTO getUserById(Long id, String bearerToken) {
+        return userService.findById(id, bearerToken);
+    }
+
     public UserDTO createUser(UserInputDTO input, String bearerToken) {
         return userService.create(input, bearerToken);
     }
@@ -0,0 +1,9 @@
+package com.municipal.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CustomEmailRequest(
+        @JsonProperty("reservationId") Long reservationId,
+        @JsonProperty("subject") String subject,
+        @JsonProperty("message") String message) {
+}
@@ -0,0 +1,7 @@
+package com.municipal.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ReservationApprovalRequest(
+        @JsonProperty("approverUserId") Long approverUserId) {
+}
@@ -0,0 +1,9 @@
+package com.municipal.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReservationCancellationRequest(
+        @JsonProperty("reason") String reason) {
+}
@@ -0,0 +1,27 @@
+package com.municipal.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Raised without contacting the backend when the circuit breaker guarding an
+ * endpoint is open.
+ */
+public class CircuitOpenException extends ApiClientException {
+
+    private final String endpoint;
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String endpoint, Duration retryAfter) {
+        super(503, "Circuit breaker open for " + endpoint);
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,25 @@
+package com.municipal.exceptions;
+
+/**
+ * Raised when a mutation could not reach the backend and was stored in the
+ * offline outbox instead; it will be sent once connectivity returns.
+ */
+public class MutationQueuedException extends ApiClientException {
+
+    private final String mutationId;
+    private final String description;
+
+    public MutationQueuedException(String mutationId, String description, Throwable cause) {
+        super(202, "Queued for delivery: " + description, cause);
+        this.mutationId = mutationId;
+        this.description = description;
+    }
+
+    public String getMutationId() {
+        return mutationId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
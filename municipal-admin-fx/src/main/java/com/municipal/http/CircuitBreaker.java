@@ -0,0 +1,137 @@
+package com.municipal.http;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Per-endpoint circuit breaker. After {@code failureThreshold} consecutive
+ * failures the breaker opens and rejects calls for {@code openDuration}; it
+ * then lets a single probe through (half-open) and closes again if the probe
+ * succeeds.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final Consumer<CircuitBreaker> stateListener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long probeStartedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration,
+            Consumer<CircuitBreaker> stateListener) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = Objects.requireNonNull(openDuration, "openDuration").toNanos();
+        this.stateListener = stateListener;
+    }
+
+    /**
+     * Returns {@code true} when a call may proceed. While half-open only one
+     * probe is admitted at a time; a probe that never reports back is
+     * abandoned after another open period.
+     */
+    public boolean tryAcquire() {
+        boolean changed;
+        synchronized (this) {
+            long now = System.nanoTime();
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now - openedAt < openDurationNanos) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    changed = true;
+                    break;
+                default:
+                    if (probeInFlight && now - probeStartedAt < openDurationNanos) {
+                        return false;
+                    }
+                    changed = false;
+                    break;
+            }
+            probeInFlight = true;
+            probeStartedAt = now;
+        }
+        if (changed) {
+            notifyListener();
+        }
+        return true;
+    }
+
+    public void onSuccess() {
+        boolean changed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            changed = state != State.CLOSED;
+            state = State.CLOSED;
+        }
+        if (changed) {
+            notifyListener();
+        }
+    }
+
+    public void onFailure() {
+        boolean changed = false;
+        synchronized (this) {
+            probeInFlight = false;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                changed = true;
+            }
+        }
+        if (changed) {
+            notifyListener();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * {@code true} while calls are being rejected, i.e. the breaker is open and
+     * its open period has not elapsed yet.
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAt < openDurationNanos;
+    }
+
+    public synchronized Duration getRemainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        long remaining = openDurationNanos - (System.nanoTime() - openedAt);
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    private void notifyListener() {
+        if (stateListener != null) {
+            stateListener.accept(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.municipal.http;
+
+import com.municipal.config.AppConfig;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Holds one {@link CircuitBreaker} per endpoint template. The default
+ * registry is process-wide so every {@code ApiClient} talking to the backend
+ * sees the same breaker state, and UI code can check it before polling.
+ */
+public final class CircuitBreakerRegistry {
+
+    private static final CircuitBreakerRegistry DEFAULT = new CircuitBreakerRegistry(
+            AppConfig.getInt("api.circuit.failure-threshold", 5),
+            Duration.ofMillis(AppConfig.getLong("api.circuit.open-duration-ms", 30000)));
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final List<Consumer<CircuitBreaker>> listeners = new CopyOnWriteArrayList<>();
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    public CircuitBreakerRegistry(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public static CircuitBreakerRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public CircuitBreaker forUri(URI uri) {
+        return forTemplate(EndpointTemplate.of(uri));
+    }
+
+    /**
+     * Returns the breaker for {@code path}, which may be a concrete path or a
+     * template; both resolve to the same breaker.
+     */
+    public CircuitBreaker forPath(String path) {
+        return forTemplate(EndpointTemplate.of(path));
+    }
+
+    private CircuitBreaker forTemplate(String template) {
+        return breakers.computeIfAbsent(template,
+                key -> new CircuitBreaker(key, failureThreshold, openDuration, this::fireStateChange));
+    }
+
+    /**
+     * {@code true} if any of the given endpoints is currently rejecting calls.
+     * Does not create breakers for endpoints that were never called.
+     */
+    public boolean isAnyOpen(String... paths) {
+        for (String path : paths) {
+            CircuitBreaker breaker = breakers.get(EndpointTemplate.of(path));
+            if (breaker != null && breaker.isOpen()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, CircuitBreaker.State> snapshot() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        breakers.forEach((template, breaker) -> states.put(template, breaker.getState()));
+        return states;
+    }
+
+    public void addListener(Consumer<CircuitBreaker> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<CircuitBreaker> listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireStateChange(CircuitBreaker breaker) {
+        for (Consumer<CircuitBreaker> listener : listeners) {
+            listener.accept(breaker);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.municipal.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * {@link BodyHandler}s that transparently undo {@code gzip} and
+ * {@code deflate} content encodings, which {@link java.net.http.HttpClient}
+ * does not do on its own. Wire and decoded byte counts of every body are
+ * reported to a {@link TransferStats} and, per request, to the
+ * {@link RequestMetrics.Endpoint} it was sent to.
+ */
+public final class CompressedBodyHandlers {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private CompressedBodyHandlers() {
+        // Utility class
+    }
+
+    /**
+     * Streams the decoded body. Decompression happens lazily on the thread
+     * that reads the stream, never on the HttpClient selector thread.
+     */
+    public static BodyHandler<InputStream> ofInputStream(URI uri, TransferStats stats,
+            RequestMetrics.Endpoint endpoint) {
+        return info -> {
+            String encoding = contentEncoding(info);
+            return BodySubscribers.mapping(BodySubscribers.ofInputStream(),
+                    raw -> new DecodingInputStream(raw, encoding, uri, stats, endpoint));
+        };
+    }
+
+    public static BodyHandler<byte[]> ofByteArray(URI uri, TransferStats stats, RequestMetrics.Endpoint endpoint) {
+        return info -> {
+            String encoding = contentEncoding(info);
+            return BodySubscribers.mapping(BodySubscribers.ofByteArray(),
+                    bytes -> decodeFully(bytes, encoding, uri, stats, endpoint));
+        };
+    }
+
+    private static String contentEncoding(HttpResponse.ResponseInfo info) {
+        return info.headers().firstValue("Content-Encoding")
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .orElse(null);
+    }
+
+    private static byte[] decodeFully(byte[] bytes, String encoding, URI uri, TransferStats stats,
+            RequestMetrics.Endpoint endpoint) {
+        try (InputStream decoded = new DecodingInputStream(new ByteArrayInputStream(bytes), encoding, uri, stats,
+                endpoint)) {
+            return decoded.readAllBytes();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    static InputStream decoder(InputStream raw, String encoding) throws IOException {
+        if (encoding == null || encoding.isEmpty() || "identity".equals(encoding)) {
+            return raw;
+        }
+        PushbackInputStream input = new PushbackInputStream(raw, 2);
+        byte[] header = input.readNBytes(2);
+        if (header.length == 0) {
+            return InputStream.nullInputStream();
+        }
+        input.unread(header);
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(input, BUFFER_SIZE);
+            case "deflate":
+                // RFC 9110 deflate is zlib-wrapped, but some servers send raw DEFLATE
+                boolean zlib = header.length == 2
+                        && (header[0] & 0x0F) == 8
+                        && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+                Inflater inflater = new Inflater(!zlib);
+                return new InflaterInputStream(input, inflater, BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            default:
+                throw new IOException("Unsupported Content-Encoding: " + encoding);
+        }
+    }
+
+    /**
+     * Counts bytes below and above the decoder and records a
+     * {@link TransferStats.Sample} when closed.
+     */
+    private static final class DecodingInputStream extends InputStream {
+
+        private final CountingInputStream wire;
+        private final String encoding;
+        private final URI uri;
+        private final TransferStats stats;
+        private final RequestMetrics.Endpoint endpoint;
+        private InputStream decoded;
+        private long decodedBytes;
+        private boolean closed;
+
+        DecodingInputStream(InputStream raw, String encoding, URI uri, TransferStats stats,
+                RequestMetrics.Endpoint endpoint) {
+            this.wire = new CountingInputStream(raw);
+            this.encoding = encoding;
+            this.uri = uri;
+            this.stats = stats;
+            this.endpoint = endpoint;
+        }
+
+        private InputStream delegate() throws IOException {
+            if (decoded == null) {
+                decoded = decoder(wire, encoding);
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = delegate().read();
+            if (value != -1) {
+                decodedBytes++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate().read(buffer, offset, length);
+            if (read > 0) {
+                decodedBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded != null ? decoded.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (decoded != null) {
+                    decoded.close();
+                } else {
+                    wire.close();
+                }
+            } finally {
+                if (endpoint != null) {
+                    endpoint.recordTransfer(wire.getCount(), decodedBytes);
+                }
+                if (stats != null) {
+                    stats.record(new TransferStats.Sample(uri, encoding, wire.getCount(), decodedBytes));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.municipal.http;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Remembers the validators ({@code ETag}, {@code Last-Modified}) and the
+ * already decoded value of previous GET responses so repeat requests can be
+ * sent as conditional requests and a {@code 304 Not Modified} answer can be
+ * served without parsing the body again.
+ * <p>
+ * Entries are keyed by URL and target type and remember the
+ * {@code Authorization} they were stored under; a lookup with a different
+ * authorization misses and drops the entry, so sessions never share a value
+ * and a token renewal replaces entries instead of piling up new ones.
+ * <p>
+ * The cache is bounded by the decoded body size of its entries: the least
+ * recently used ones are dropped once the total exceeds {@code maxBytes}, and
+ * responses larger than that are never kept. Watermark URLs
+ * ({@code ?since=...}) are unique per call and are not cached at all.
+ */
+public final class ConditionalCache {
+
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final Set<String> UNCACHED_QUERY_PARAMETERS = Set.of("since");
+
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ConditionalCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public ConditionalCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static String key(HttpRequest request, String typeKey) {
+        return request.uri() + "|" + typeKey;
+    }
+
+    public static String authorization(HttpRequest request) {
+        return request.headers().firstValue("Authorization").orElse("");
+    }
+
+    /**
+     * Whether responses for {@code uri} are worth revalidating later.
+     */
+    public static boolean isCacheable(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return true;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals >= 0 ? parameter.substring(0, equals) : parameter;
+            if (UNCACHED_QUERY_PARAMETERS.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the entry stored for {@code key} under {@code authorization};
+     * an entry stored under another authorization is removed.
+     */
+    public synchronized Entry get(String key, String authorization) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.authorization().equals(authorization)) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores {@code value}, whose decoded body was {@code bytes} long, if the
+     * response carried at least one validator and fits the cache; otherwise
+     * forgets any previous entry for the key.
+     */
+    public synchronized void store(String key, String authorization, HttpHeaders headers, Object value,
+            long bytes) {
+        Optional<String> etag = headers.firstValue("ETag");
+        Optional<String> lastModified = headers.firstValue("Last-Modified");
+        remove(key);
+        if ((etag.isEmpty() && lastModified.isEmpty()) || bytes > maxBytes) {
+            return;
+        }
+        entries.put(key, new Entry(Objects.requireNonNull(authorization, "authorization"), etag.orElse(null),
+                lastModified.orElse(null), value, bytes));
+        totalBytes += bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes();
+        }
+    }
+
+    public record Entry(String authorization, String etag, String lastModified, Object value, long bytes) {
+
+        /**
+         * Copies {@code request} adding {@code If-None-Match} and
+         * {@code If-Modified-Since} headers for the stored validators.
+         */
+        public HttpRequest applyTo(HttpRequest request) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, header) -> true);
+            if (etag != null) {
+                builder.setHeader("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                builder.setHeader("If-Modified-Since", lastModified);
+            }
+            return builder.build();
+        }
+    }
+}
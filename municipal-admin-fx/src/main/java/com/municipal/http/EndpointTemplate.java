@@ -0,0 +1,44 @@
+package com.municipal.http;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces concrete request paths to templates such as
+ * {@code /api/spaces/{id}} so per-endpoint state (circuit breakers, metrics)
+ * is not fragmented by identifiers or query strings.
+ */
+public final class EndpointTemplate {
+
+    private static final Pattern IDENTIFIER = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private EndpointTemplate() {
+        // Utility class
+    }
+
+    public static String of(URI uri) {
+        return of(uri.getRawPath());
+    }
+
+    public static String of(String path) {
+        if (path == null || path.isBlank()) {
+            return "/";
+        }
+        String withoutQuery = path;
+        int queryStart = withoutQuery.indexOf('?');
+        if (queryStart >= 0) {
+            withoutQuery = withoutQuery.substring(0, queryStart);
+        }
+        String[] segments = withoutQuery.split("/");
+        StringBuilder template = new StringBuilder();
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            template.append(IDENTIFIER.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+}
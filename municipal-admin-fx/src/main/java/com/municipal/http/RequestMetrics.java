@@ -0,0 +1,156 @@
+package com.municipal.http;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency breakdown of backend calls, keyed by method and endpoint template
+ * (for example {@code GET /api/spaces/{id}}). For each endpoint it keeps
+ * histograms of time to first byte, body download time, JSON decode time,
+ * payload size and bytes received on the wire versus after content decoding,
+ * which is enough to tell whether a slow screen is waiting on
+ * the network, the server or the parser.
+ */
+public final class RequestMetrics {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public Endpoint forRequest(HttpRequest request) {
+        return forEndpoint(request.method() + " " + EndpointTemplate.of(request.uri()));
+    }
+
+    public Endpoint forEndpoint(String name) {
+        return endpoints.computeIfAbsent(name, Endpoint::new);
+    }
+
+    public Map<String, Endpoint.Snapshot> snapshot() {
+        Map<String, Endpoint.Snapshot> snapshots = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> snapshots.put(name, endpoint.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        endpoints.values().forEach(Endpoint::reset);
+    }
+
+    /**
+     * One line per endpoint with p50/p95/p99/max of every phase, in
+     * milliseconds and kilobytes.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        snapshot().forEach((name, snapshot) -> report.append(snapshot).append(System.lineSeparator()));
+        return report.toString();
+    }
+
+    /**
+     * Histograms of a single endpoint. Times are recorded in nanoseconds,
+     * payload sizes in bytes.
+     */
+    public static final class Endpoint {
+
+        private final String name;
+        private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+        private final LatencyHistogram download = new LatencyHistogram();
+        private final LatencyHistogram decode = new LatencyHistogram();
+        private final LatencyHistogram payloadBytes = new LatencyHistogram();
+        private final LatencyHistogram wireBytes = new LatencyHistogram();
+        private final LatencyHistogram decodedBytes = new LatencyHistogram();
+
+        private Endpoint(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void recordTimeToFirstByte(long nanos) {
+            timeToFirstByte.record(nanos);
+        }
+
+        /**
+         * Records a consumed body: {@code downloadNanos} is the time spent
+         * waiting for bytes, {@code decodeNanos} the remaining time spent
+         * decoding them.
+         */
+        public void recordBody(long bytes, long downloadNanos, long decodeNanos) {
+            payloadBytes.record(bytes);
+            download.record(downloadNanos);
+            decode.record(decodeNanos);
+        }
+
+        /**
+         * Records the size of one response body as received on the wire and
+         * after undoing its content encoding.
+         */
+        public void recordTransfer(long wire, long decoded) {
+            wireBytes.record(wire);
+            decodedBytes.record(decoded);
+        }
+
+        public LatencyHistogram getTimeToFirstByte() {
+            return timeToFirstByte;
+        }
+
+        public LatencyHistogram getDownload() {
+            return download;
+        }
+
+        public LatencyHistogram getDecode() {
+            return decode;
+        }
+
+        public LatencyHistogram getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        public LatencyHistogram getWireBytes() {
+            return wireBytes;
+        }
+
+        public LatencyHistogram getDecodedBytes() {
+            return decodedBytes;
+        }
+
+        public Snapshot snapshot() {
+            return new Snapshot(name, timeToFirstByte.snapshot(), download.snapshot(), decode.snapshot(),
+                    payloadBytes.snapshot(), wireBytes.snapshot(), decodedBytes.snapshot());
+        }
+
+        private void reset() {
+            timeToFirstByte.reset();
+            download.reset();
+            decode.reset();
+            payloadBytes.reset();
+            wireBytes.reset();
+            decodedBytes.reset();
+        }
+
+        public record Snapshot(String endpoint, LatencyHistogram.Snapshot timeToFirstByte,
+                LatencyHistogram.Snapshot download, LatencyHistogram.Snapshot decode,
+                LatencyHistogram.Snapshot payloadBytes, LatencyHistogram.Snapshot wireBytes,
+                LatencyHistogram.Snapshot decodedBytes) {
+
+            @Override
+            public String toString() {
+                return String.format("%s n=%d ttfb[%s] download[%s] decode[%s] size[%s] wire[%s] decoded[%s]",
+                        endpoint, timeToFirstByte.count(), millis(timeToFirstByte), millis(download),
+                        millis(decode), kilobytes(payloadBytes), kilobytes(wireBytes), kilobytes(decodedBytes));
+            }
+
+            private static String millis(LatencyHistogram.Snapshot snapshot) {
+                return String.format("p50=%.1f p95=%.1f p99=%.1f max=%.1f ms",
+                        snapshot.p50() / 1e6, snapshot.p95() / 1e6, snapshot.p99() / 1e6, snapshot.max() / 1e6);
+            }
+
+            private static String kilobytes(LatencyHistogram.Snapshot snapshot) {
+                return String.format("p50=%.1f p95=%.1f p99=%.1f max=%.1f KB",
+                        snapshot.p50() / 1024.0, snapshot.p95() / 1024.0, snapshot.p99() / 1024.0,
+                        snapshot.max() / 1024.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.municipal.http;
+
+import com.municipal.config.AppConfig;
+import com.municipal.exceptions.ApiClientException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Orders backend calls by priority. Interactive calls (the default) start
+ * immediately; background calls issued by auto-refresh loops are queued and at
+ * most {@code api.scheduler.max-background} of them run at once, dropping to a
+ * single one while interactive calls are in flight.
+ * <p>
+ * Queued background calls sharing a merge key are merged: the newer call takes
+ * the place of the older one and both callers receive its result. When the
+ * queue exceeds {@code api.scheduler.max-queued-background} the oldest call is
+ * dropped and fails with a {@code 503} {@link ApiClientException}.
+ * <p>
+ * The priority of a call is taken from the calling thread; see
+ * {@link #runInBackground} and {@link #propagate}.
+ */
+public final class RequestScheduler {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final ThreadLocal<Priority> CURRENT = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private static final RequestScheduler DEFAULT = new RequestScheduler(
+            AppConfig.getInt("api.scheduler.max-background", 2),
+            AppConfig.getInt("api.scheduler.max-queued-background", 32));
+
+    private final int maxBackground;
+    private final int maxQueued;
+    private final Map<Object, Pending<?>> queue = new LinkedHashMap<>();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private int activeInteractive;
+    private int activeBackground;
+
+    public RequestScheduler(int maxBackground, int maxQueued) {
+        this.maxBackground = Math.max(1, maxBackground);
+        this.maxQueued = Math.max(1, maxQueued);
+    }
+
+    public static RequestScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    public static Priority currentPriority() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code action} on the current thread with background priority, so
+     * the calls it issues (or hands to {@link #propagate}d tasks) are queued
+     * behind interactive work.
+     */
+    public static void runInBackground(Runnable action) {
+        runWith(Priority.BACKGROUND, action);
+    }
+
+    /**
+     * Captures the caller's priority and wraps {@code action} so it runs with
+     * that priority on whichever thread eventually executes it.
+     */
+    public static Runnable propagate(Runnable action) {
+        Priority captured = currentPriority();
+        return () -> runWith(captured, action);
+    }
+
+    public static <T> Supplier<T> propagate(Supplier<T> action) {
+        Priority captured = currentPriority();
+        return () -> {
+            Priority previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return action.get();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    private static void runWith(Priority priority, Runnable action) {
+        Priority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Schedules {@code call}. A {@code null} merge key means the call is never
+     * merged with another one.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, String mergeKey,
+            Supplier<CompletableFuture<T>> call) {
+        if (priority != Priority.BACKGROUND) {
+            synchronized (this) {
+                activeInteractive++;
+            }
+            return start(call).whenComplete((value, error) -> {
+                synchronized (this) {
+                    activeInteractive--;
+                }
+                drain();
+            });
+        }
+
+        Pending<T> pending = new Pending<>(call);
+        Object key = mergeKey != null ? mergeKey : pending;
+        Pending<?> evicted = null;
+        synchronized (this) {
+            Pending<?> previous = queue.put(key, pending);
+            if (previous != null) {
+                merged.increment();
+                previous.followResultOf(pending);
+            } else if (queue.size() > maxQueued) {
+                Iterator<Pending<?>> eldest = queue.values().iterator();
+                evicted = eldest.next();
+                eldest.remove();
+                dropped.increment();
+            }
+        }
+        if (evicted != null) {
+            evicted.result.completeExceptionally(
+                    new ApiClientException(503, "Background request dropped: queue is full"));
+        }
+        pending.result.whenComplete((value, error) -> {
+            if (pending.result.isCancelled()) {
+                synchronized (this) {
+                    queue.remove(key, pending);
+                }
+            }
+        });
+        drain();
+        return pending.result;
+    }
+
+    private void drain() {
+        List<Pending<?>> ready = new ArrayList<>();
+        synchronized (this) {
+            int limit = activeInteractive > 0 ? 1 : maxBackground;
+            Iterator<Pending<?>> iterator = queue.values().iterator();
+            while (iterator.hasNext() && activeBackground < limit) {
+                ready.add(iterator.next());
+                iterator.remove();
+                activeBackground++;
+            }
+        }
+        for (Pending<?> pending : ready) {
+            run(pending);
+        }
+    }
+
+    private <T> void run(Pending<T> pending) {
+        start(pending.call).whenComplete((value, error) -> {
+            synchronized (this) {
+                activeBackground--;
+            }
+            drain();
+            if (error != null) {
+                pending.result.completeExceptionally(error);
+            } else {
+                pending.result.complete(value);
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public synchronized int getActiveBackgroundCount() {
+        return activeBackground;
+    }
+
+    public synchronized int getActiveInteractiveCount() {
+        return activeInteractive;
+    }
+
+    public long getMerged() {
+        return merged.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private static final class Pending<T> {
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Pending(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+
+        /** Completes this superseded call with whatever {@code newer} yields. */
+        @SuppressWarnings("unchecked")
+        private void followResultOf(Pending<?> newer) {
+            ((CompletableFuture<T>) newer.result).whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.municipal.http;
+
+import com.municipal.config.AppConfig;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for transient failures of idempotent
+ * requests. Attempt numbers start at 1; {@code maxAttempts} includes the
+ * first try.
+ */
+public record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    public RetryPolicy {
+        Objects.requireNonNull(baseDelay, "baseDelay");
+        Objects.requireNonNull(maxDelay, "maxDelay");
+        if (maxAttempts < 1) {
+            maxAttempts = 1;
+        }
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+    }
+
+    public static RetryPolicy fromConfig() {
+        return new RetryPolicy(
+                AppConfig.getInt("api.retry.max-attempts", 3),
+                Duration.ofMillis(AppConfig.getLong("api.retry.base-delay-ms", 250)),
+                Duration.ofMillis(AppConfig.getLong("api.retry.max-delay-ms", 4000)));
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * Delay before the attempt following {@code attempt}: half of the capped
+     * exponential delay plus a random share of the other half, so clients that
+     * failed together do not retry in lockstep.
+     */
+    public long delayMillis(int attempt) {
+        long base = Math.max(0, baseDelay.toMillis());
+        long cap = Math.max(base, maxDelay.toMillis());
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long exponential = Math.min(cap, base << shift);
+        long half = exponential / 2;
+        return half + ThreadLocalRandom.current().nextLong(exponential - half + 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.municipal.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream wrapper that accumulates the time spent blocked inside the
+ * underlying stream. Subtracting it from the total time a reader took tells
+ * network (and inflation) time apart from parsing time.
+ */
+public final class TimedInputStream extends FilterInputStream {
+
+    private long blockedNanos;
+
+    public TimedInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long started = System.nanoTime();
+        try {
+            return super.read();
+        } finally {
+            blockedNanos += System.nanoTime() - started;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        long started = System.nanoTime();
+        try {
+            return super.read(buffer, offset, length);
+        } finally {
+            blockedNanos += System.nanoTime() - started;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long started = System.nanoTime();
+        try {
+            return super.skip(n);
+        } finally {
+            blockedNanos += System.nanoTime() - started;
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getBlockedNanos() {
+        return blockedNanos;
+    }
+}
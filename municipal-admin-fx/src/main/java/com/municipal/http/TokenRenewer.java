@@ -0,0 +1,24 @@
+package com.municipal.http;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hook through which {@code ApiClient} coordinates with whatever keeps the
+ * session's bearer token fresh.
+ */
+public interface TokenRenewer {
+
+    /**
+     * Returns a future of the token to use instead of {@code token} when a
+     * renewal is in progress or has already replaced it, or {@code null} when
+     * {@code token} can be sent as is.
+     */
+    CompletableFuture<String> pendingRenewal(String token);
+
+    /**
+     * Called after the backend rejected {@code rejectedToken} with a 401.
+     * Concurrent callers share a single renewal; the future completes with the
+     * new token.
+     */
+    CompletableFuture<String> renew(String rejectedToken);
+}
@@ -0,0 +1,81 @@
+package com.municipal.http;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters of bytes received on the wire versus bytes delivered
+ * after content decoding. One {@link Sample} is recorded per response body.
+ */
+public final class TransferStats {
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+    private final AtomicReference<Sample> lastSample = new AtomicReference<>();
+
+    public void record(Sample sample) {
+        responses.increment();
+        if (sample.compressed()) {
+            compressedResponses.increment();
+        }
+        wireBytes.add(sample.wireBytes());
+        decodedBytes.add(sample.decodedBytes());
+        lastSample.set(sample);
+    }
+
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getWireBytes() {
+        return wireBytes.sum();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.sum();
+    }
+
+    /**
+     * Ratio between decoded and wire bytes; {@code 1.0} when nothing was compressed.
+     */
+    public double getCompressionRatio() {
+        long wire = getWireBytes();
+        return wire == 0 ? 1.0 : (double) getDecodedBytes() / wire;
+    }
+
+    public Sample getLastSample() {
+        return lastSample.get();
+    }
+
+    public void reset() {
+        responses.reset();
+        compressedResponses.reset();
+        wireBytes.reset();
+        decodedBytes.reset();
+        lastSample.set(null);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransferStats[responses=%d, compressed=%d, wire=%d B, decoded=%d B, ratio=%.1fx]",
+                getResponses(), getCompressedResponses(), getWireBytes(), getDecodedBytes(), getCompressionRatio());
+    }
+
+    /**
+     * Byte counts of a single response body.
+     */
+    public record Sample(URI uri, String contentEncoding, long wireBytes, long decodedBytes) {
+
+        public boolean compressed() {
+            return contentEncoding != null && !contentEncoding.isBlank()
+                    && !"identity".equalsIgnoreCase(contentEncoding);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.municipal.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a paginated collection, in the shape Spring Data serializes
+ * {@code Page} objects ({@code content}, {@code number}, {@code size},
+ * {@code totalElements}, {@code totalPages}).
+ */
+public record PageResponse<T>(
+        @JsonProperty("content") List<T> content,
+        @JsonProperty("number") int number,
+        @JsonProperty("size") int size,
+        @JsonProperty("totalElements") long totalElements,
+        @JsonProperty("totalPages") int totalPages) {
+
+    public PageResponse {
+        content = content != null ? List.copyOf(content) : List.of();
+    }
+
+    /**
+     * Cuts page {@code page} of {@code size} rows out of an already filtered
+     * and sorted list.
+     */
+    public static <T> PageResponse<T> slice(List<T> items, int page, int size) {
+        int effectiveSize = Math.max(1, size);
+        int totalPages = (items.size() + effectiveSize - 1) / effectiveSize;
+        int from = Math.min(Math.max(0, page) * effectiveSize, items.size());
+        int to = Math.min(from + effectiveSize, items.size());
+        return new PageResponse<>(items.subList(from, to), page, effectiveSize, items.size(), totalPages);
+    }
+
+    public boolean hasNext() {
+        return number + 1 < totalPages;
+    }
+}
@@ -4,6 +4,8 @@ import com.municipal.ApiClient;
 import com.municipal.requests.AzureLoginRequest;
 import com.municipal.responses.AuthResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service responsible for delegating authentication calls to the backend API.
  */
@@ -23,4 +25,9 @@ public class AuthService {
         AzureLoginRequest request = new AzureLoginRequest(accessToken);
         return apiClient.post("/api/auth/azure-login", request, AuthResponse.class);
     }
+
+    public CompletableFuture<AuthResponse> loginWithAzureTokenAsync(String accessToken) {
+        AzureLoginRequest request = new AzureLoginRequest(accessToken);
+        return apiClient.postAsync("/api/auth/azure-login", request, AuthResponse.class);
+    }
 }
@@ -1,20 +1,17 @@
 package com.municipal.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.municipal.ApiClient;
 import com.municipal.dtos.ReservationDTO;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service used by the JavaFX application to request reservation data from the backend.
  */
 public class ReservationService {
 
-    private static final TypeReference<List<ReservationDTO>> RESERVATION_LIST_TYPE = new TypeReference<>() {
-    };
-
     private final ApiClient apiClient;
 
     public ReservationService() {
@@ -26,6 +23,10 @@ public class ReservationService {
     }
 
     public List<ReservationDTO> findAll(String bearerToken) {
-        return apiClient.get("/api/reservations", bearerToken, RESERVATION_LIST_TYPE);
+        return apiClient.getList("/api/reservations", bearerToken, ReservationDTO.class);
+    }
+
+    public CompletableFuture<List<ReservationDTO>> findAllAsync(String bearerToken) {
+        return apiClient.getListAsync("/api/reservations", bearerToken, ReservationDTO.class);
     }
 }
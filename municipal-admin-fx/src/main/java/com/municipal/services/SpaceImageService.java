@@ -7,7 +7,6 @@ import com.municipal.exceptions.ApiClientException;
 import com.municipal.utils.MultipartBodyPublisher;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
@@ -75,10 +74,7 @@ public class SpaceImageService {
                 requestBuilder.header("Authorization", "Bearer " + bearerToken);
             }
 
-            HttpResponse<byte[]> response = apiClient.getHttpClient().send(
-                    requestBuilder.build(),
-                    HttpResponse.BodyHandlers.ofByteArray()
-            );
+            HttpResponse<byte[]> response = apiClient.exchangeBytes(requestBuilder.build());
 
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 return response.body();
@@ -4,9 +4,11 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.municipal.ApiClient;
 import com.municipal.dtos.SpaceDTO;
 import com.municipal.dtos.SpaceInputDTO;
+import com.municipal.sync.MutationOutbox;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service that wraps calls to the space management endpoints exposed by the
@@ -28,35 +30,76 @@ public class SpaceService {
     }
 
     public List<SpaceDTO> findAll(String bearerToken) {
-        return apiClient.get("/api/spaces", bearerToken, SPACE_LIST_TYPE);
+        return apiClient.getList("/api/spaces", bearerToken, SpaceDTO.class);
+    }
+
+    public SpaceDTO findById(Long id, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        return apiClient.get("/api/spaces/" + id, bearerToken, SpaceDTO.class);
     }
 
     public SpaceDTO create(SpaceInputDTO input, String bearerToken) {
         Objects.requireNonNull(input, "input");
-        return apiClient.post("/api/spaces", input, bearerToken, SpaceDTO.class);
+        return MutationOutbox.send(apiClient, "POST", "/api/spaces", input, bearerToken, SpaceDTO.class,
+                "Crear espacio");
     }
 
     public SpaceDTO update(Long id, SpaceInputDTO input, String bearerToken) {
         Objects.requireNonNull(id, "id");
         Objects.requireNonNull(input, "input");
-        return apiClient.put("/api/spaces/" + id, input, bearerToken, SpaceDTO.class);
+        return MutationOutbox.send(apiClient, "PUT", "/api/spaces/" + id, input, bearerToken, SpaceDTO.class,
+                "Actualizar espacio #" + id);
     }
 
     public SpaceDTO changeStatus(Long id, boolean active, String bearerToken) {
         Objects.requireNonNull(id, "id");
         String path = "/api/spaces/" + id + "/status?active=" + active;
-        return apiClient.patch(path, null, bearerToken, SpaceDTO.class);
+        return MutationOutbox.send(apiClient, "PATCH", path, null, bearerToken, SpaceDTO.class,
+                (active ? "Activar" : "Desactivar") + " espacio #" + id);
     }
 
     public void delete(Long id, String bearerToken) {
         Objects.requireNonNull(id, "id");
-        apiClient.delete("/api/spaces/" + id, bearerToken);
+        MutationOutbox.send(apiClient, "DELETE", "/api/spaces/" + id, null, bearerToken, Void.class,
+                "Eliminar espacio #" + id);
     }
 
     public List<SpaceDTO> findAvailableSpaces(String startTime, String endTime, String bearerToken) {
         String path = "/api/spaces/available?startTime=" + startTime + "&endTime=" + endTime;
         return apiClient.get(path, bearerToken, SPACE_LIST_TYPE);
     }
+
+    public CompletableFuture<List<SpaceDTO>> findAllAsync(String bearerToken) {
+        return apiClient.getListAsync("/api/spaces", bearerToken, SpaceDTO.class);
+    }
+
+    public CompletableFuture<SpaceDTO> createAsync(SpaceInputDTO input, String bearerToken) {
+        Objects.requireNonNull(input, "input");
+        return apiClient.postAsync("/api/spaces", input, bearerToken, SpaceDTO.class);
+    }
+
+    public CompletableFuture<SpaceDTO> updateAsync(Long id, SpaceInputDTO input, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(input, "input");
+        return apiClient.putAsync("/api/spaces/" + id, input, bearerToken, SpaceDTO.class);
+    }
+
+    public CompletableFuture<SpaceDTO> changeStatusAsync(Long id, boolean active, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        String path = "/api/spaces/" + id + "/status?active=" + active;
+        return apiClient.patchAsync(path, null, bearerToken, SpaceDTO.class);
+    }
+
+    public CompletableFuture<Void> deleteAsync(Long id, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        return apiClient.deleteAsync("/api/spaces/" + id, bearerToken);
+    }
+
+    public CompletableFuture<List<SpaceDTO>> findAvailableSpacesAsync(String startTime, String endTime,
+            String bearerToken) {
+        String path = "/api/spaces/available?startTime=" + startTime + "&endTime=" + endTime;
+        return apiClient.getAsync(path, bearerToken, SPACE_LIST_TYPE);
+    }
     
     /**
      * Busca espacios con filtros avanzados usando el endpoint /api/spaces/search.
@@ -4,9 +4,11 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.municipal.ApiClient;
 import com.municipal.dtos.UserDTO;
 import com.municipal.dtos.UserInputDTO;
+import com.municipal.sync.MutationOutbox;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service that retrieves user data from the backend API.
@@ -27,22 +29,50 @@ public class UserService {
     }
 
     public List<UserDTO> findAll(String bearerToken) {
-        return apiClient.get("/api/users", bearerToken, USER_LIST_TYPE);
+        return apiClient.getList("/api/users", bearerToken, UserDTO.class);
+    }
+
+    public UserDTO findById(Long id, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        return apiClient.get("/api/users/" + id, bearerToken, UserDTO.class);
     }
 
     public UserDTO create(UserInputDTO input, String bearerToken) {
         Objects.requireNonNull(input, "input");
-        return apiClient.post("/api/users", input, bearerToken, UserDTO.class);
+        return MutationOutbox.send(apiClient, "POST", "/api/users", input, bearerToken, UserDTO.class,
+                "Crear usuario");
     }
 
     public UserDTO update(Long id, UserInputDTO input, String bearerToken) {
         Objects.requireNonNull(id, "id");
         Objects.requireNonNull(input, "input");
-        return apiClient.put("/api/users/" + id, input, bearerToken, UserDTO.class);
+        return MutationOutbox.send(apiClient, "PUT", "/api/users/" + id, input, bearerToken, UserDTO.class,
+                "Actualizar usuario #" + id);
     }
 
     public void delete(Long id, String bearerToken) {
         Objects.requireNonNull(id, "id");
-        apiClient.delete("/api/users/" + id, bearerToken);
+        MutationOutbox.send(apiClient, "DELETE", "/api/users/" + id, null, bearerToken, Void.class,
+                "Eliminar usuario #" + id);
+    }
+
+    public CompletableFuture<List<UserDTO>> findAllAsync(String bearerToken) {
+        return apiClient.getListAsync("/api/users", bearerToken, UserDTO.class);
+    }
+
+    public CompletableFuture<UserDTO> createAsync(UserInputDTO input, String bearerToken) {
+        Objects.requireNonNull(input, "input");
+        return apiClient.postAsync("/api/users", input, bearerToken, UserDTO.class);
+    }
+
+    public CompletableFuture<UserDTO> updateAsync(Long id, UserInputDTO input, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(input, "input");
+        return apiClient.putAsync("/api/users/" + id, input, bearerToken, UserDTO.class);
+    }
+
+    public CompletableFuture<Void> deleteAsync(Long id, String bearerToken) {
+        Objects.requireNonNull(id, "id");
+        return apiClient.deleteAsync("/api/users/" + id, bearerToken);
     }
 }
@@ -2,64 +2,98 @@ package com.municipal.session;
 
 import com.municipal.responses.AuthResponse;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Stores session details retrieved from the backend so different JavaFX
  * controllers can access authentication context.
+ * <p>
+ * The session is held in a single {@link AtomicReference}, so a token renewal
+ * running on a background thread swaps the credentials atomically and readers
+ * never see a token paired with another token's expiry.
  */
 public final class SessionManager {
 
-    private AuthResponse authResponse;
+    private final AtomicReference<AuthResponse> authResponse = new AtomicReference<>();
 
     public void clear() {
-        authResponse = null;
+        authResponse.set(null);
     }
 
     public void storeAuthResponse(AuthResponse response) {
-        this.authResponse = response;
+        authResponse.set(response);
+    }
+
+    /**
+     * Replaces the token, token type and expiry with those of a renewed
+     * response while keeping the profile details of the current session.
+     *
+     * @return {@code false} if there is no session any more (the user logged
+     *         out while the renewal was in flight)
+     */
+    public boolean renewCredentials(AuthResponse renewed) {
+        AuthResponse updated = authResponse.updateAndGet(current -> current == null ? null : new AuthResponse(
+                renewed.token(),
+                renewed.tokenType(),
+                renewed.expiresAt(),
+                current.userId(),
+                current.role(),
+                current.email(),
+                current.name(),
+                current.profileComplete(),
+                current.newUser()));
+        return updated != null;
     }
 
     public Optional<AuthResponse> getAuthResponse() {
-        return Optional.ofNullable(authResponse);
+        return Optional.ofNullable(authResponse.get());
     }
 
     public String getAccessToken() {
-        return authResponse != null ? authResponse.token() : null;
+        AuthResponse current = authResponse.get();
+        return current != null ? current.token() : null;
+    }
+
+    public Instant getTokenExpiresAt() {
+        AuthResponse current = authResponse.get();
+        return current != null ? current.expiresAt() : null;
     }
 
     public String getUserDisplayName() {
-        return authResponse != null ? authResponse.name() : null;
+        AuthResponse current = authResponse.get();
+        return current != null ? current.name() : null;
     }
 
     public String getUserEmail() {
-        return authResponse != null ? authResponse.email() : null;
+        AuthResponse current = authResponse.get();
+        return current != null ? current.email() : null;
     }
 
     public String getUserRole() {
-        if (authResponse == null || authResponse.role() == null || authResponse.role().isBlank()) {
+        AuthResponse current = authResponse.get();
+        if (current == null || current.role() == null || current.role().isBlank()) {
             return "USER";
         }
-        return authResponse.role();
+        return current.role();
     }
 
     public Long getUserId() {
-        return authResponse != null ? authResponse.userId() : null;
+        AuthResponse current = authResponse.get();
+        return current != null ? current.userId() : null;
     }
 
     public void updateProfileInfo(String name, String email) {
-        if (authResponse == null) {
-            return;
-        }
-        authResponse = new AuthResponse(
-                authResponse.token(),
-                authResponse.tokenType(),
-                authResponse.expiresAt(),
-                authResponse.userId(),
-                authResponse.role(),
-                email != null && !email.isBlank() ? email : authResponse.email(),
-                name != null && !name.isBlank() ? name : authResponse.name(),
-                authResponse.profileComplete(),
-                authResponse.newUser());
+        authResponse.updateAndGet(current -> current == null ? null : new AuthResponse(
+                current.token(),
+                current.tokenType(),
+                current.expiresAt(),
+                current.userId(),
+                current.role(),
+                email != null && !email.isBlank() ? email : current.email(),
+                name != null && !name.isBlank() ? name : current.name(),
+                current.profileComplete(),
+                current.newUser()));
     }
 }
@@ -0,0 +1,264 @@
+package com.municipal.session;
+
+import com.municipal.ApiClient;
+import com.municipal.auth.AzureAuthService;
+import com.municipal.config.AppConfig;
+import com.municipal.controllers.AuthController;
+import com.municipal.http.TokenRenewer;
+import com.municipal.responses.AuthResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the backend token stored in {@link SessionManager} fresh. A renewal
+ * is scheduled {@code auth.refresh.lead-seconds} before
+ * {@link AuthResponse#expiresAt()}: the Azure token is acquired silently and
+ * exchanged for a new backend token, which is swapped into the session
+ * atomically.
+ * <p>
+ * Only one renewal runs at a time. Requests that race with it (or that were
+ * rejected with a 401) wait on that same renewal through the
+ * {@link TokenRenewer} contract instead of failing.
+ * <p>
+ * A refresher belongs to the session that was active when it was started. It
+ * never renews for another user: once that session is cleared or replaced it
+ * stops, and a renewal that completes after the switch is discarded. The
+ * application-wide refresher is managed with {@link #install} and
+ * {@link #uninstall}; a stopped refresher cannot be restarted.
+ */
+public final class TokenRefresher implements TokenRenewer {
+
+    private static TokenRefresher defaultRefresher;
+
+    private final SessionManager sessionManager;
+    private final Supplier<CompletableFuture<AuthResponse>> renewal;
+    private final Duration leadTime;
+    private final Duration retryDelay;
+    private final ScheduledThreadPoolExecutor timer;
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+    private volatile String replacedToken;
+    private volatile boolean running;
+    private volatile String owner;
+    private ScheduledFuture<?> scheduled;
+
+    public TokenRefresher(SessionManager sessionManager, AzureAuthService azureAuthService,
+            AuthController authController) {
+        this(sessionManager,
+                () -> azureAuthService.signInSilently()
+                        .thenCompose(result -> authController.authenticateWithAzureAsync(result.accessToken())),
+                Duration.ofSeconds(AppConfig.getLong("auth.refresh.lead-seconds", 120)),
+                Duration.ofSeconds(AppConfig.getLong("auth.refresh.retry-seconds", 30)));
+    }
+
+    public TokenRefresher(SessionManager sessionManager, Supplier<CompletableFuture<AuthResponse>> renewal,
+            Duration leadTime, Duration retryDelay) {
+        this.sessionManager = Objects.requireNonNull(sessionManager, "sessionManager");
+        this.renewal = Objects.requireNonNull(renewal, "renewal");
+        this.leadTime = Objects.requireNonNull(leadTime, "leadTime");
+        this.retryDelay = Objects.requireNonNull(retryDelay, "retryDelay");
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Stops the current application-wide refresher, if any, and installs and
+     * starts {@code refresher} for the session now stored in its
+     * {@link SessionManager}.
+     */
+    public static synchronized void install(TokenRefresher refresher) {
+        Objects.requireNonNull(refresher, "refresher");
+        if (defaultRefresher != null && defaultRefresher != refresher) {
+            defaultRefresher.stop();
+        }
+        defaultRefresher = refresher;
+        ApiClient.setDefaultTokenRenewer(refresher);
+        refresher.start();
+    }
+
+    /**
+     * Stops the application-wide refresher and removes it from
+     * {@link ApiClient}, e.g. on logout.
+     */
+    public static synchronized void uninstall() {
+        if (defaultRefresher != null) {
+            defaultRefresher.stop();
+            defaultRefresher = null;
+        }
+        ApiClient.setDefaultTokenRenewer(null);
+    }
+
+    /**
+     * Binds the refresher to the session currently stored and schedules its
+     * first renewal.
+     *
+     * @throws IllegalStateException if the refresher was stopped
+     */
+    public synchronized void start() {
+        if (timer.isShutdown()) {
+            throw new IllegalStateException("Token refresher already stopped");
+        }
+        owner = identityOf(sessionManager);
+        running = true;
+        scheduleNext();
+    }
+
+    /**
+     * Cancels the scheduled renewal and releases the timer thread. Renewals
+     * still in flight are not applied to the session.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        timer.shutdown();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Renews the token now, or joins the renewal already in progress.
+     */
+    public CompletableFuture<String> refreshNow() {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing.copy();
+        }
+        if (!running || !isOwnSession()) {
+            inFlight.set(null);
+            created.completeExceptionally(new IllegalStateException("Session no longer owned by this refresher"));
+            return created.copy();
+        }
+        String previousToken = sessionManager.getAccessToken();
+        System.out.println("🔑 Renovando token de acceso en segundo plano...");
+
+        CompletableFuture<AuthResponse> attempt;
+        try {
+            attempt = renewal.get();
+        } catch (RuntimeException exception) {
+            attempt = CompletableFuture.failedFuture(exception);
+        }
+        attempt.whenComplete((response, error) -> {
+            // The user may have logged out, or in as someone else, meanwhile
+            if (error == null && response != null && response.token() != null && running && isOwnSession()
+                    && (response.userId() == null || Objects.equals(response.userId(), sessionManager.getUserId()))
+                    && sessionManager.renewCredentials(response)) {
+                // Publish the new token before releasing the waiters
+                replacedToken = previousToken;
+                inFlight.set(null);
+                created.complete(response.token());
+                System.out.println("✅ Token renovado (expira " + response.expiresAt() + ")");
+                scheduleNext();
+            } else {
+                inFlight.set(null);
+                created.completeExceptionally(error != null
+                        ? error
+                        : new IllegalStateException("Token renewal did not produce a session"));
+                System.err.println("⚠️ No se pudo renovar el token: "
+                        + (error != null ? error.getMessage() : "sesión no disponible"));
+                scheduleRetry();
+            }
+        });
+        return created.copy();
+    }
+
+    @Override
+    public CompletableFuture<String> pendingRenewal(String token) {
+        CompletableFuture<String> current = inFlight.get();
+        if (current != null) {
+            return current.copy();
+        }
+        String sessionToken = sessionManager.getAccessToken();
+        if (sessionToken == null || token == null) {
+            return null;
+        }
+        if (token.equals(replacedToken) && !token.equals(sessionToken)) {
+            return CompletableFuture.completedFuture(sessionToken);
+        }
+        Instant expiresAt = sessionManager.getTokenExpiresAt();
+        if (token.equals(sessionToken) && expiresAt != null && !Instant.now().isBefore(expiresAt)) {
+            // Already expired (e.g. the machine was asleep): renew before sending
+            return refreshNow();
+        }
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<String> renew(String rejectedToken) {
+        String sessionToken = sessionManager.getAccessToken();
+        if (sessionToken == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No active session"));
+        }
+        if (!sessionToken.equals(rejectedToken) && inFlight.get() == null) {
+            // Someone else renewed it while this request was on the wire
+            return CompletableFuture.completedFuture(sessionToken);
+        }
+        return refreshNow();
+    }
+
+    private void scheduleNext() {
+        Instant expiresAt = sessionManager.getTokenExpiresAt();
+        if (expiresAt == null) {
+            return;
+        }
+        schedule(Duration.between(Instant.now(), expiresAt.minus(leadTime)));
+    }
+
+    private void scheduleRetry() {
+        Instant expiresAt = sessionManager.getTokenExpiresAt();
+        if (expiresAt == null || !Instant.now().plus(retryDelay).isBefore(expiresAt)) {
+            // Past expiry renewals are driven by 401s instead of the timer
+            return;
+        }
+        schedule(retryDelay);
+    }
+
+    private synchronized void schedule(Duration delay) {
+        if (!running) {
+            return;
+        }
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        scheduled = timer.schedule(this::renewIfSessionActive, Math.max(0, delay.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void renewIfSessionActive() {
+        if (sessionManager.getAccessToken() == null || !isOwnSession()) {
+            stop();
+            return;
+        }
+        refreshNow();
+    }
+
+    private boolean isOwnSession() {
+        String current = identityOf(sessionManager);
+        return current != null && current.equals(owner);
+    }
+
+    private static String identityOf(SessionManager session) {
+        Long userId = session.getUserId();
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        String email = session.getUserEmail();
+        return email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+}
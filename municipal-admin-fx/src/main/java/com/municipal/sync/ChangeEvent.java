@@ -0,0 +1,22 @@
+package com.municipal.sync;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Change notification pushed by the backend: which entity changed and the
+ * version it has now. Entity types are {@code RESERVATION}, {@code SPACE} and
+ * {@code USER}.
+ */
+public record ChangeEvent(
+        @JsonProperty("entityType") String entityType,
+        @JsonProperty("id") Long id,
+        @JsonProperty("version") Long version) {
+
+    public static final String RESERVATION = "RESERVATION";
+    public static final String SPACE = "SPACE";
+    public static final String USER = "USER";
+
+    public boolean isAbout(String type) {
+        return type.equalsIgnoreCase(entityType);
+    }
+}
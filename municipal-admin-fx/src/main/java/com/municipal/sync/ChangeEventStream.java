@@ -0,0 +1,342 @@
+package com.municipal.sync;
+
+import com.municipal.ApiClient;
+import com.municipal.config.AppConfig;
+import com.municipal.http.RetryPolicy;
+import com.municipal.utils.JsonUtils;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events client for the backend change feed
+ * ({@code api.events.path}). Each event carries a JSON {@link ChangeEvent};
+ * events arriving close together are delivered to listeners as one batch so a
+ * burst of changes causes a single refresh.
+ * <p>
+ * The stream reconnects on its own, resuming with {@code Last-Event-ID} and
+ * backing off exponentially (honouring the server's {@code retry:} hint) while
+ * the feed is unavailable. A connection that stays silent for longer than
+ * {@code api.events.idle-timeout-ms} is considered dead and replaced. Callers
+ * keep their polling loops for the periods in which {@link #isConnected()} is
+ * {@code false}.
+ */
+public final class ChangeEventStream implements AutoCloseable {
+
+    private static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(3);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(60);
+
+    private final ApiClient apiClient;
+    private final Supplier<String> tokenSupplier;
+    private final String path;
+    private final Duration batchWindow;
+    private final Duration idleTimeout;
+    private final List<Consumer<List<ChangeEvent>>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Boolean>> connectionListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final List<ChangeEvent> pending = new ArrayList<>();
+    private ScheduledFuture<?> flush;
+    private ScheduledFuture<?> reconnect;
+    private ScheduledFuture<?> watchdog;
+    private Connection connection;
+    private Duration reconnectDelay = DEFAULT_RECONNECT_DELAY;
+    private int consecutiveFailures;
+    private volatile String lastEventId;
+    private volatile boolean connected;
+    private boolean running;
+
+    public ChangeEventStream(ApiClient apiClient, Supplier<String> tokenSupplier) {
+        this(apiClient, tokenSupplier,
+                AppConfig.get("api.events.path") != null ? AppConfig.get("api.events.path") : "/api/events/stream",
+                Duration.ofMillis(AppConfig.getLong("api.events.batch-window-ms", 250)),
+                Duration.ofMillis(AppConfig.getLong("api.events.idle-timeout-ms", 60000)));
+    }
+
+    public ChangeEventStream(ApiClient apiClient, Supplier<String> tokenSupplier, String path,
+            Duration batchWindow, Duration idleTimeout) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient");
+        this.tokenSupplier = Objects.requireNonNull(tokenSupplier, "tokenSupplier");
+        this.path = Objects.requireNonNull(path, "path");
+        this.batchWindow = Objects.requireNonNull(batchWindow, "batchWindow");
+        this.idleTimeout = Objects.requireNonNull(idleTimeout, "idleTimeout");
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "change-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public void addListener(Consumer<List<ChangeEvent>> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<List<ChangeEvent>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notified with {@code true} when the stream connects and {@code false}
+     * when it drops, so callers can pause or resume polling.
+     */
+    public void addConnectionListener(Consumer<Boolean> listener) {
+        connectionListeners.add(listener);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        long checkEvery = Math.max(1000, idleTimeout.toMillis() / 2);
+        watchdog = timer.scheduleWithFixedDelay(this::checkIdle, checkEvery, checkEvery, TimeUnit.MILLISECONDS);
+        connect();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        cancel(reconnect);
+        cancel(watchdog);
+        cancel(flush);
+        if (connection != null) {
+            connection.cancel();
+            connection = null;
+        }
+        setConnected(false);
+        timer.shutdownNow();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    private synchronized void connect() {
+        if (!running) {
+            return;
+        }
+        String token = tokenSupplier.get();
+        if (token == null || token.isBlank()) {
+            scheduleReconnect();
+            return;
+        }
+        HttpRequest.Builder builder = apiClient.requestBuilder(path)
+                .setHeader("Accept", "text/event-stream")
+                .setHeader("Accept-Encoding", "identity")
+                .header("Cache-Control", "no-cache")
+                .header("Authorization", "Bearer " + token)
+                .GET();
+        String resumeFrom = lastEventId;
+        if (resumeFrom != null && !resumeFrom.isEmpty()) {
+            builder.header("Last-Event-ID", resumeFrom);
+        }
+        Connection current = new Connection();
+        connection = current;
+        CompletableFuture<HttpResponse<Void>> response = apiClient.getHttpClient().sendAsync(builder.build(), info -> {
+            if (info.statusCode() != 200) {
+                return HttpResponse.BodySubscribers.replacing(null);
+            }
+            current.opened();
+            return HttpResponse.BodySubscribers.fromLineSubscriber(current, subscriber -> (Void) null,
+                    StandardCharsets.UTF_8, null);
+        });
+        current.response = response;
+        response.whenComplete((ignored, error) -> onClosed(current));
+    }
+
+    private synchronized void onClosed(Connection closed) {
+        if (connection != closed) {
+            return;
+        }
+        connection = null;
+        if (!closed.wasOpen) {
+            consecutiveFailures++;
+        }
+        setConnected(false);
+        scheduleReconnect();
+    }
+
+    private synchronized void scheduleReconnect() {
+        if (!running) {
+            return;
+        }
+        cancel(reconnect);
+        long delay = consecutiveFailures == 0
+                ? reconnectDelay.toMillis()
+                : new RetryPolicy(Integer.MAX_VALUE, reconnectDelay, MAX_RECONNECT_DELAY).delayMillis(consecutiveFailures);
+        reconnect = timer.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void checkIdle() {
+        Connection current = connection;
+        if (current != null && current.wasOpen && System.nanoTime() - current.lastActivity > idleTimeout.toNanos()) {
+            System.out.println("⚠️ Canal de eventos inactivo, reconectando...");
+            current.cancel();
+            onClosed(current);
+        }
+    }
+
+    private void setConnected(boolean value) {
+        if (connected == value) {
+            return;
+        }
+        connected = value;
+        System.out.println(value ? "📡 Canal de eventos conectado" : "📴 Canal de eventos desconectado");
+        for (Consumer<Boolean> listener : connectionListeners) {
+            listener.accept(value);
+        }
+    }
+
+    private synchronized void dispatch(String id, String data) {
+        if (id != null) {
+            lastEventId = id;
+        }
+        if (data == null || data.isBlank()) {
+            return;
+        }
+        ChangeEvent event;
+        try {
+            event = JsonUtils.fromJson(data, ChangeEvent.class);
+        } catch (RuntimeException exception) {
+            System.err.println("⚠️ Evento de cambio inválido: " + data);
+            return;
+        }
+        pending.add(event);
+        if (flush == null) {
+            flush = timer.schedule(this::flush, batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        List<ChangeEvent> batch;
+        synchronized (this) {
+            flush = null;
+            batch = List.copyOf(pending);
+            pending.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<ChangeEvent>> listener : listeners) {
+            listener.accept(batch);
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * One HTTP exchange of the stream; parses the {@code text/event-stream}
+     * lines as they arrive without parking a thread.
+     */
+    private final class Connection implements Flow.Subscriber<String> {
+
+        private Flow.Subscription subscription;
+        private CompletableFuture<HttpResponse<Void>> response;
+        private volatile boolean wasOpen;
+        private volatile long lastActivity = System.nanoTime();
+        private String eventId;
+        private StringBuilder data;
+
+        private void opened() {
+            wasOpen = true;
+            synchronized (ChangeEventStream.this) {
+                consecutiveFailures = 0;
+                if (connection == this) {
+                    setConnected(true);
+                }
+            }
+        }
+
+        private void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            if (response != null) {
+                response.cancel(true);
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            lastActivity = System.nanoTime();
+            if (line.isEmpty()) {
+                dispatch(eventId, data != null ? data.toString() : null);
+                eventId = null;
+                data = null;
+                return;
+            }
+            if (line.startsWith(":")) {
+                return; // Comment / heartbeat
+            }
+            int colon = line.indexOf(':');
+            String field = colon >= 0 ? line.substring(0, colon) : line;
+            String value = colon >= 0 ? line.substring(colon + 1) : "";
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "id" -> {
+                    if (value.indexOf('\0') < 0) {
+                        eventId = value;
+                    }
+                }
+                case "data" -> {
+                    if (data == null) {
+                        data = new StringBuilder(value);
+                    } else {
+                        data.append('\n').append(value);
+                    }
+                }
+                case "retry" -> {
+                    if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                        synchronized (ChangeEventStream.this) {
+                            reconnectDelay = Duration.ofMillis(Long.parseLong(value));
+                        }
+                    }
+                }
+                default -> {
+                    // "event" and unknown fields carry nothing we need
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Reported through the response future
+        }
+
+        @Override
+        public void onComplete() {
+            // Reported through the response future
+        }
+    }
+}
@@ -0,0 +1,814 @@
+package com.municipal.sync;
+
+import com.municipal.ServiceRegistry;
+import com.municipal.config.AppConfig;
+import com.municipal.controllers.ReservationController;
+import com.municipal.controllers.SpaceController;
+import com.municipal.controllers.UserController;
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.dtos.SpaceDTO;
+import com.municipal.dtos.UserDTO;
+import com.municipal.exceptions.ApiClientException;
+import com.municipal.http.RequestScheduler;
+import com.municipal.session.SessionManager;
+import com.municipal.utils.DataCache;
+import com.municipal.utils.EntityLists;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Single owner of the spaces, users and reservations shown by the dashboards.
+ * It fetches each source from the backend, coalesces concurrent requests for
+ * the same source into one call and publishes the result as an immutable
+ * {@link Snapshot} to every subscriber, so one fetch per refresh feeds every
+ * table, card and metric of the session.
+ * <p>
+ * Sources are fetched in parallel and each one is published as soon as it
+ * lands. A refresh waits for each source only up to its deadline
+ * ({@code api.sync.<source>.deadline-ms}); a source still running then is
+ * reported as loading and keeps going in the background, to be published
+ * when it arrives.
+ * <p>
+ * Which sources are tracked, and whether reservations are the whole collection
+ * or only the user's own, depends on the {@link Profile}. A source that fails
+ * keeps its last data and the error is reported in the snapshot.
+ * <p>
+ * Entities returned by this client's own mutations are applied with
+ * {@code upsert*}/{@code remove*}: they are written through to
+ * {@link DataCache} and published at once, so an edit never waits for, or
+ * triggers, a reload of its collection. Changes pushed by the backend are
+ * applied the same way with {@link #applyChanges}: only the changed entity is
+ * fetched.
+ * <p>
+ * One engine is kept per logged-in user; see {@link #forSession}.
+ */
+public final class DataSyncEngine implements AutoCloseable {
+
+    public enum Source {
+        SPACES,
+        USERS,
+        RESERVATIONS
+    }
+
+    /**
+     * What a dashboard reads: administrators see everything, supervisors all
+     * spaces and reservations, and regular users the spaces and their own
+     * reservations.
+     */
+    public enum Profile {
+        ADMIN,
+        SUPERVISOR,
+        USER;
+
+        public static Profile forRole(String role) {
+            String normalized = role != null ? role.trim().toUpperCase(Locale.ROOT) : "";
+            return switch (normalized) {
+                case "ADMIN", "SUPER_ADMIN", "MANAGER" -> ADMIN;
+                case "SUPERVISOR" -> SUPERVISOR;
+                default -> USER;
+            };
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> load(String token) throws Exception;
+    }
+
+    /**
+     * Fetches one entity by id; {@code null} means it no longer exists or
+     * does not belong to this engine's data.
+     */
+    @FunctionalInterface
+    public interface EntityLoader<T> {
+        T load(Long id, String token) throws Exception;
+    }
+
+    /**
+     * Handle returned by {@link #subscribe}; closing it stops the deliveries.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ExecutorService FETCHERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "data-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Fetches repeated because of local mutations before the last result is taken as is
+    private static final int MAX_FETCH_ATTEMPTS = 3;
+
+    private static volatile DataSyncEngine defaultEngine;
+
+    private final String owner;
+    private final Supplier<String> tokenSupplier;
+    private final Map<Source, Loader<?>> loaders = new EnumMap<>(Source.class);
+    private final Map<Source, Duration> deadlines = new EnumMap<>(Source.class);
+    private final Map<Source, EntityLoader<?>> entityLoaders = new EnumMap<>(Source.class);
+    // Change events are applied one at a time so a slower fetch never overwrites a newer one
+    private final Object changeLock = new Object();
+    private final ReservationDeltaSync reservationSync;
+    private final List<Registration> subscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final Map<Source, CompletableFuture<Boolean>> inFlight = new EnumMap<>(Source.class);
+    private final Map<Source, List<?>> data = new EnumMap<>(Source.class);
+    private final Map<Source, Throwable> failures = new EnumMap<>(Source.class);
+    private final Set<Source> pendingChanges = EnumSet.noneOf(Source.class);
+    // Local mutations applied per source; fetches started before one are discarded
+    private final Map<Source, Long> localEdits = new EnumMap<>(Source.class);
+    // Version of the last change event applied per entity, keyed by "TYPE:id"
+    private final Map<String, Long> appliedVersions = new HashMap<>();
+    private Snapshot current = Snapshot.EMPTY;
+    private EntityDirectory directory = EntityDirectory.EMPTY;
+    private boolean dirty;
+    private boolean provisional;
+    private boolean closed;
+
+    /**
+     * @param reservationSync delta store behind {@code reservations}, if any;
+     *        it is seeded by {@link #seed} and trimmed by
+     *        {@link #forgetReservation}
+     */
+    public DataSyncEngine(String owner, Supplier<String> tokenSupplier, Loader<SpaceDTO> spaces,
+            Loader<UserDTO> users, Loader<ReservationDTO> reservations, ReservationDeltaSync reservationSync) {
+        this.owner = Objects.requireNonNull(owner, "owner");
+        this.tokenSupplier = Objects.requireNonNull(tokenSupplier, "tokenSupplier");
+        if (spaces != null) {
+            loaders.put(Source.SPACES, spaces);
+        }
+        if (users != null) {
+            loaders.put(Source.USERS, users);
+        }
+        if (reservations != null) {
+            loaders.put(Source.RESERVATIONS, reservations);
+        }
+        this.reservationSync = reservationSync;
+        for (Source source : Source.values()) {
+            long defaultMillis = source == Source.RESERVATIONS ? 5000 : 2000;
+            deadlines.put(source, Duration.ofMillis(AppConfig.getLong(
+                    "api.sync." + source.name().toLowerCase(Locale.ROOT) + ".deadline-ms", defaultMillis)));
+        }
+    }
+
+    /**
+     * Engine of the user logged in {@code session} with the given profile.
+     * The current default engine is reused when it belongs to the same user
+     * and profile; otherwise it is closed and replaced.
+     */
+    public static DataSyncEngine forSession(SessionManager session, Profile profile) {
+        return forSession(session, profile, ServiceRegistry.getDefault());
+    }
+
+    /**
+     * Same as {@link #forSession(SessionManager, Profile)}; a new engine
+     * fetches through the controllers of {@code services}.
+     */
+    public static synchronized DataSyncEngine forSession(SessionManager session, Profile profile,
+            ServiceRegistry services) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(services, "services");
+        Objects.requireNonNull(profile, "profile");
+        Long userId = session.getUserId();
+        String email = session.getUserEmail();
+        String user = userId != null ? "user:" + userId
+                : email != null ? email.toLowerCase(Locale.ROOT) : "anonymous";
+        String owner = profile + "/" + user;
+        // Cached collections never leak between backends or users
+        DataCache.setScope(services.apiClient().getBaseUrl() + "|" + user);
+
+        DataSyncEngine existing = defaultEngine;
+        if (existing != null && existing.owner.equals(owner) && !existing.isClosed()) {
+            return existing;
+        }
+        if (existing != null) {
+            existing.close();
+        }
+        DataSyncEngine engine = create(owner, session, profile, services);
+        defaultEngine = engine;
+        return engine;
+    }
+
+    public static DataSyncEngine getDefault() {
+        return defaultEngine;
+    }
+
+    private static DataSyncEngine create(String owner, SessionManager session, Profile profile,
+            ServiceRegistry services) {
+        SpaceController spaceController = services.spaceController();
+        ReservationController reservationController = services.reservationController();
+        Loader<SpaceDTO> spaces = token -> DataCache.getSpaces(
+                () -> withoutNulls(spaceController.loadSpaces(token)));
+
+        if (profile == Profile.USER) {
+            Loader<ReservationDTO> own = token -> {
+                Long userId = session.getUserId();
+                if (userId == null) {
+                    throw new IllegalStateException("No user id in session");
+                }
+                return withoutNulls(reservationController.getReservationsByUserId(userId, token));
+            };
+            DataSyncEngine engine = new DataSyncEngine(owner, session::getAccessToken, spaces, null, own, null);
+            engine.entityLoaders.put(Source.SPACES, spaceController::getSpaceById);
+            engine.entityLoaders.put(Source.RESERVATIONS, (EntityLoader<ReservationDTO>) (id, token) -> {
+                ReservationDTO reservation = reservationController.getReservationById(id, token);
+                // Someone else's reservation is not part of this user's data
+                return reservation != null && Objects.equals(reservation.userId(), session.getUserId())
+                        ? reservation : null;
+            });
+            return engine;
+        }
+
+        // After the first load only reservations changed since the watermark are downloaded
+        ReservationDeltaSync reservationSync = new ReservationDeltaSync(reservationController);
+        Loader<ReservationDTO> all = token -> DataCache.getReservations(
+                () -> reservationSync.sync(token).reservations());
+        Loader<UserDTO> users = null;
+        if (profile == Profile.ADMIN) {
+            UserController userController = services.userController();
+            users = token -> DataCache.getUsers(() -> withoutNulls(userController.loadUsers(token)));
+        }
+        DataSyncEngine engine = new DataSyncEngine(owner, session::getAccessToken, spaces, users, all,
+                reservationSync);
+        engine.entityLoaders.put(Source.SPACES, spaceController::getSpaceById);
+        engine.entityLoaders.put(Source.RESERVATIONS, reservationController::getReservationById);
+        if (profile == Profile.ADMIN) {
+            engine.entityLoaders.put(Source.USERS, services.userController()::getUserById);
+        }
+        return engine;
+    }
+
+    /**
+     * Delivers every published snapshot to {@code listener} through
+     * {@code executor}, in version order. If data is already available, the
+     * current snapshot is delivered right away with every loaded source
+     * marked as changed.
+     * <p>
+     * Deliveries are handed to the executor while the engine is locked, so it
+     * should queue the work (e.g. {@code Platform::runLater}) rather than run
+     * the listener inline.
+     */
+    public synchronized Subscription subscribe(Consumer<Snapshot> listener, Executor executor) {
+        Registration registration = new Registration(listener, executor);
+        subscribers.add(registration);
+        if (current.version() > 0) {
+            registration.deliver(current.withState(current.loaded(), current.loading()));
+        }
+        return () -> subscribers.remove(registration);
+    }
+
+    /**
+     * Refreshes every source of this engine.
+     */
+    public CompletableFuture<Snapshot> refresh() {
+        return refresh(getSources());
+    }
+
+    /**
+     * Fetches {@code sources} (those this engine tracks). Each source is
+     * published as it lands; a source already being fetched is not requested
+     * again and the refresh waits for the running fetch instead.
+     * <p>
+     * The returned future completes once every source has landed or passed
+     * its deadline. Its snapshot lists in {@link Snapshot#changed()} what this
+     * refresh changed, and in {@link Snapshot#loading()} the sources still
+     * running in the background.
+     */
+    public CompletableFuture<Snapshot> refresh(Set<Source> sources) {
+        if (isClosed()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Data sync engine closed"));
+        }
+        Map<Source, CompletableFuture<Boolean>> bounded = new EnumMap<>(Source.class);
+        synchronized (this) {
+            for (Source source : sources) {
+                if (!loaders.containsKey(source)) {
+                    continue;
+                }
+                // The copy gives up at the deadline without affecting the shared fetch
+                bounded.put(source, fetch(source).copy()
+                        .completeOnTimeout(null, deadlines.get(source).toMillis(), TimeUnit.MILLISECONDS));
+                if (!data.containsKey(source) && !current.isLoading(source)) {
+                    // First load: let the views show this source as loading
+                    dirty = true;
+                }
+            }
+        }
+        publish();
+        return CompletableFuture.allOf(bounded.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    Snapshot published = publish();
+                    // A fetch shared with another refresh may have been published by it
+                    Set<Source> changed = EnumSet.noneOf(Source.class);
+                    changed.addAll(published.changed());
+                    bounded.forEach((source, fetch) -> {
+                        if (Boolean.TRUE.equals(fetch.getNow(null))) {
+                            changed.add(source);
+                        }
+                    });
+                    return published.withState(changed, loadingSources());
+                });
+    }
+
+    /**
+     * Installs data restored from a local snapshot and publishes it as
+     * provisional until the backend confirms it. Ignored once any source
+     * holds data.
+     */
+    public void seed(List<SpaceDTO> spaces, List<UserDTO> users, List<ReservationDTO> reservations) {
+        synchronized (this) {
+            if (!data.isEmpty()) {
+                return;
+            }
+            seedSource(Source.SPACES, spaces);
+            seedSource(Source.USERS, users);
+            seedSource(Source.RESERVATIONS, reservations);
+            provisional = true;
+        }
+        if (reservationSync != null && reservations != null) {
+            reservationSync.seed(reservations);
+        }
+        publish();
+    }
+
+    /**
+     * Applies a space created or changed by this client, as returned by the
+     * backend.
+     */
+    public void upsertSpace(SpaceDTO space) {
+        DataCache.upsertSpace(space);
+        this.<SpaceDTO>patch(Source.SPACES, items -> EntityLists.upsert(items, space, SpaceDTO::id));
+    }
+
+    /**
+     * Drops a space this client deleted. Its reservations are left to the
+     * next refresh, which no longer finds them in the cache.
+     */
+    public void removeSpace(Long spaceId) {
+        DataCache.removeSpace(spaceId);
+        DataCache.invalidateReservations();
+        this.<SpaceDTO>patch(Source.SPACES, items -> EntityLists.remove(items, spaceId, SpaceDTO::id));
+    }
+
+    public void upsertUser(UserDTO user) {
+        DataCache.upsertUser(user);
+        this.<UserDTO>patch(Source.USERS, items -> EntityLists.upsert(items, user, UserDTO::id));
+    }
+
+    /** Drops a user this client deleted; like {@link #removeSpace}. */
+    public void removeUser(Long userId) {
+        DataCache.removeUser(userId);
+        DataCache.invalidateReservations();
+        this.<UserDTO>patch(Source.USERS, items -> EntityLists.remove(items, userId, UserDTO::id));
+    }
+
+    /**
+     * Applies a reservation created, approved, cancelled or checked in by
+     * this client, as returned by the backend.
+     */
+    public void upsertReservation(ReservationDTO reservation) {
+        if (reservationSync != null) {
+            // Only the complete collection is cached; own reservations are not
+            reservationSync.remember(reservation);
+            DataCache.upsertReservation(reservation);
+        }
+        this.<ReservationDTO>patch(Source.RESERVATIONS,
+                items -> EntityLists.upsert(items, reservation, ReservationDTO::id));
+    }
+
+    /**
+     * Drops a reservation this client deleted permanently, so it disappears
+     * without waiting for the next full resync.
+     */
+    public void forgetReservation(Long reservationId) {
+        if (reservationSync != null) {
+            reservationSync.forget(reservationId);
+            DataCache.removeReservation(reservationId);
+        }
+        this.<ReservationDTO>patch(Source.RESERVATIONS,
+                items -> EntityLists.remove(items, reservationId, ReservationDTO::id));
+    }
+
+    /**
+     * Applies change events pushed by the backend. Each changed entity is
+     * fetched by id and patched in like a local mutation, or dropped when it
+     * no longer exists (a reservation tombstone counts as gone). Events whose
+     * version is not newer than the last one applied for the same entity are
+     * skipped. An event without an id, or for a source whose entities cannot
+     * be fetched one by one, refreshes the whole source.
+     */
+    public CompletableFuture<Void> applyChanges(List<ChangeEvent> events) {
+        if (isClosed()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Data sync engine closed"));
+        }
+        Map<String, ChangeEvent> latest = new LinkedHashMap<>();
+        Set<Source> whole = EnumSet.noneOf(Source.class);
+        for (ChangeEvent event : events) {
+            Source source = sourceOf(event);
+            if (source == null || !loaders.containsKey(source)) {
+                continue;
+            }
+            if (event.id() == null || !entityLoaders.containsKey(source)) {
+                whole.add(source);
+                continue;
+            }
+            latest.merge(source + ":" + event.id(), event,
+                    (seen, next) -> isNewer(next.version(), seen.version()) ? next : seen);
+        }
+        CompletableFuture<?> refreshed = whole.isEmpty() ? CompletableFuture.completedFuture(null)
+                : refresh(whole);
+        if (latest.isEmpty()) {
+            return refreshed.thenApply(ignored -> null);
+        }
+        CompletableFuture<Void> patched = CompletableFuture.runAsync(RequestScheduler.propagate(() -> {
+            synchronized (changeLock) {
+                latest.forEach(this::applyChange);
+            }
+        }), FETCHERS);
+        return CompletableFuture.allOf(refreshed, patched);
+    }
+
+    public Snapshot getSnapshot() {
+        synchronized (this) {
+            return current;
+        }
+    }
+
+    public Set<Source> getSources() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(loaders.keySet()));
+    }
+
+    public synchronized boolean isRefreshing() {
+        return !inFlight.isEmpty();
+    }
+
+    public synchronized boolean isRefreshing(Source source) {
+        return inFlight.containsKey(source);
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops publishing and discards the data, e.g. on logout.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            data.clear();
+            failures.clear();
+            appliedVersions.clear();
+            current = Snapshot.EMPTY;
+        }
+        subscribers.clear();
+        if (reservationSync != null) {
+            reservationSync.reset();
+        }
+        synchronized (DataSyncEngine.class) {
+            if (defaultEngine == this) {
+                defaultEngine = null;
+            }
+        }
+    }
+
+    /**
+     * Fetch of {@code source}, completing with whether its data changed.
+     */
+    private synchronized CompletableFuture<Boolean> fetch(Source source) {
+        CompletableFuture<Boolean> running = inFlight.get(source);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<Boolean> fetch = CompletableFuture.supplyAsync(
+                RequestScheduler.propagate(() -> load(source)), FETCHERS);
+        inFlight.put(source, fetch);
+        fetch.whenComplete((ignored, error) -> {
+            synchronized (this) {
+                inFlight.remove(source, fetch);
+                if (current.isLoading(source)) {
+                    dirty = true;
+                }
+            }
+            publish();
+        });
+        return fetch;
+    }
+
+    private boolean load(Source source) {
+        try {
+            String token = tokenSupplier.get();
+            if (token == null || token.isBlank()) {
+                throw new IllegalStateException("No access token in session");
+            }
+            Loader<?> loader = loaders.get(source);
+            for (int attempt = 1; ; attempt++) {
+                long edits = localEdits(source);
+                List<?> items = List.copyOf(loader.load(token));
+                if (localEdits(source) == edits || attempt == MAX_FETCH_ATTEMPTS) {
+                    return apply(source, items, edits);
+                }
+                // A local mutation landed while fetching: fetch again so the result includes it
+            }
+        } catch (Exception exception) {
+            fail(source, exception);
+            return false;
+        }
+    }
+
+    private synchronized boolean apply(Source source, List<?> items, long edits) {
+        if (closed || (localEdits(source) != edits && data.containsKey(source))) {
+            // Fetched before a local mutation: the data in hand is newer
+            return false;
+        }
+        boolean recovered = failures.remove(source) != null;
+        List<?> current = data.get(source);
+        // Cached collections are immutable snapshots: the same instance means no change
+        boolean changed = current == null || (items != current && !items.equals(current));
+        if (changed) {
+            data.put(source, items);
+            pendingChanges.add(source);
+            dirty = true;
+        }
+        if (recovered || provisional) {
+            provisional = false;
+            dirty = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Replaces the data of {@code source}, when it is loaded, with the result
+     * of {@code change} and publishes it. Either way a fetch of the source
+     * already running is repeated, since it may predate the change.
+     */
+    private <T> void patch(Source source, UnaryOperator<List<T>> change) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            // Counted even before the first load, so a fetch already running is repeated
+            localEdits.merge(source, 1L, Long::sum);
+            if (!data.containsKey(source)) {
+                return;
+            }
+            List<T> items = list(source);
+            List<T> updated = change.apply(items);
+            if (updated != items) {
+                data.put(source, updated);
+                pendingChanges.add(source);
+                dirty = true;
+            }
+        }
+        publish();
+    }
+
+    private void applyChange(String key, ChangeEvent event) {
+        synchronized (this) {
+            if (closed || !isNewer(event.version(), appliedVersions.get(key))) {
+                return;
+            }
+        }
+        Source source = sourceOf(event);
+        Long id = event.id();
+        try {
+            String token = tokenSupplier.get();
+            if (token == null || token.isBlank()) {
+                throw new IllegalStateException("No access token in session");
+            }
+            Object entity = findById(source, id, token);
+            switch (source) {
+                case SPACES -> {
+                    if (entity instanceof SpaceDTO space) {
+                        upsertSpace(space);
+                    } else {
+                        removeSpace(id);
+                    }
+                }
+                case USERS -> {
+                    if (entity instanceof UserDTO user) {
+                        upsertUser(user);
+                    } else {
+                        removeUser(id);
+                    }
+                }
+                case RESERVATIONS -> {
+                    if (entity instanceof ReservationDTO reservation
+                            && !ReservationDeltaSync.TOMBSTONE_STATUS.equalsIgnoreCase(reservation.status())) {
+                        upsertReservation(reservation);
+                    } else {
+                        forgetReservation(id);
+                    }
+                }
+            }
+            if (event.version() != null) {
+                synchronized (this) {
+                    appliedVersions.merge(key, event.version(), Math::max);
+                }
+            }
+        } catch (Exception exception) {
+            // The next event or refresh of the source brings it up to date
+            System.err.println("⚠️ No se pudo aplicar el cambio " + key + ": " + exception.getMessage());
+        }
+    }
+
+    private Object findById(Source source, Long id, String token) throws Exception {
+        try {
+            return entityLoaders.get(source).load(id, token);
+        } catch (ApiClientException exception) {
+            int status = exception.getStatusCode();
+            if (status == 403 || status == 404 || status == 410) {
+                return null;
+            }
+            throw exception;
+        }
+    }
+
+    private static Source sourceOf(ChangeEvent event) {
+        if (event.isAbout(ChangeEvent.SPACE)) {
+            return Source.SPACES;
+        }
+        if (event.isAbout(ChangeEvent.USER)) {
+            return Source.USERS;
+        }
+        return event.isAbout(ChangeEvent.RESERVATION) ? Source.RESERVATIONS : null;
+    }
+
+    /** Whether {@code version} is newer than {@code seen}; an unknown version always is. */
+    private static boolean isNewer(Long version, Long seen) {
+        return version == null || seen == null || version > seen;
+    }
+
+    private synchronized long localEdits(Source source) {
+        return localEdits.getOrDefault(source, 0L);
+    }
+
+    private synchronized void fail(Source source, Throwable error) {
+        if (closed) {
+            return;
+        }
+        System.err.println("⚠️ No se pudo sincronizar " + source + ": " + error.getMessage());
+        failures.put(source, error);
+        dirty = true;
+    }
+
+    private void seedSource(Source source, List<?> items) {
+        if (items != null && loaders.containsKey(source)) {
+            data.put(source, List.copyOf(items));
+            pendingChanges.add(source);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Publishes what changed since the last snapshot, or returns the current
+     * snapshot with no changes when nothing did.
+     */
+    private synchronized Snapshot publish() {
+        if (closed) {
+            return current;
+        }
+        if (!dirty) {
+            return current.withState(Set.of(), loadingSources());
+        }
+        directory = directory.update(pendingChanges, list(Source.SPACES), list(Source.USERS),
+                list(Source.RESERVATIONS));
+        Snapshot snapshot = new Snapshot(current.version() + 1, list(Source.SPACES), list(Source.USERS),
+                list(Source.RESERVATIONS), data.keySet(), loadingSources(), pendingChanges, failures,
+                provisional, Instant.now(), directory);
+        current = snapshot;
+        pendingChanges.clear();
+        dirty = false;
+        for (Registration registration : subscribers) {
+            registration.deliver(snapshot);
+        }
+        return snapshot;
+    }
+
+    private synchronized Set<Source> loadingSources() {
+        return inFlight.isEmpty() ? Set.of() : EnumSet.copyOf(inFlight.keySet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> list(Source source) {
+        List<?> items = data.get(source);
+        return items != null ? (List<T>) items : List.of();
+    }
+
+    private static <T> List<T> withoutNulls(List<T> items) {
+        if (items == null) {
+            return List.of();
+        }
+        return items.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static final class Registration {
+
+        private final Consumer<Snapshot> listener;
+        private final Executor executor;
+        private final AtomicLong delivered = new AtomicLong();
+
+        private Registration(Consumer<Snapshot> listener, Executor executor) {
+            this.listener = Objects.requireNonNull(listener, "listener");
+            this.executor = Objects.requireNonNull(executor, "executor");
+        }
+
+        private void deliver(Snapshot snapshot) {
+            executor.execute(() -> {
+                // Guards against an executor that does not keep submission order
+                long seen = delivered.get();
+                if (snapshot.version() > seen && delivered.compareAndSet(seen, snapshot.version())) {
+                    listener.accept(snapshot);
+                }
+            });
+        }
+    }
+
+    /**
+     * Immutable view of the session data at one point in time. The entity
+     * lists are kept as given and must not be modifiable; the engine only
+     * publishes lists it copied when they entered it.
+     *
+     * @param version     increases with every publication
+     * @param loaded      sources that hold data
+     * @param loading     sources being fetched when the snapshot was taken
+     * @param changed     sources whose data changed since the previous version
+     * @param failures    sources whose last fetch failed, with the error; their
+     *                    data is the last one fetched successfully
+     * @param provisional whether the data still comes from a local snapshot
+     *                    the backend has not confirmed
+     * @param directory   id index of the three lists
+     */
+    public record Snapshot(long version, List<SpaceDTO> spaces, List<UserDTO> users,
+            List<ReservationDTO> reservations, Set<Source> loaded, Set<Source> loading, Set<Source> changed,
+            Map<Source, Throwable> failures, boolean provisional, Instant publishedAt,
+            EntityDirectory directory) {
+
+        static final Snapshot EMPTY = new Snapshot(0, List.of(), List.of(), List.of(), Set.of(), Set.of(),
+                Set.of(), Map.of(), false, Instant.EPOCH, EntityDirectory.EMPTY);
+
+        public Snapshot {
+            // The lists are immutable already: copied once when fetched, seeded or patched
+            Objects.requireNonNull(spaces, "spaces");
+            Objects.requireNonNull(users, "users");
+            Objects.requireNonNull(reservations, "reservations");
+            loaded = immutableSet(loaded);
+            loading = immutableSet(loading);
+            changed = immutableSet(changed);
+            failures = failures.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(failures));
+        }
+
+        public boolean isLoaded(Source source) {
+            return loaded.contains(source);
+        }
+
+        public boolean isLoading(Source source) {
+            return loading.contains(source);
+        }
+
+        public boolean hasChanged(Source source) {
+            return changed.contains(source);
+        }
+
+        public boolean hasChanges() {
+            return !changed.isEmpty();
+        }
+
+        Snapshot withState(Set<Source> changedSources, Set<Source> loadingSources) {
+            return changed.equals(changedSources) && loading.equals(loadingSources) ? this
+                    : new Snapshot(version, spaces, users, reservations, loaded, loadingSources, changedSources,
+                            failures, provisional, publishedAt, directory);
+        }
+
+        private static Set<Source> immutableSet(Collection<Source> sources) {
+            return sources.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(sources));
+        }
+    }
+}
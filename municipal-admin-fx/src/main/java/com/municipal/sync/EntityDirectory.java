@@ -0,0 +1,109 @@
+package com.municipal.sync;
+
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.dtos.SpaceDTO;
+import com.municipal.dtos.UserDTO;
+import com.municipal.utils.LongObjectMap;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable id index of the users, spaces and reservations of one
+ * {@link DataSyncEngine.Snapshot}, so views resolve names in constant time
+ * instead of scanning the lists for every rendered cell.
+ * <p>
+ * Each snapshot carries its own directory. Only the sources that changed are
+ * re-indexed; the others share the previous index. Views that patch their
+ * lists after a local edit derive a new directory with
+ * {@link #withUser(UserDTO)} or {@link #withSpace(SpaceDTO)}.
+ */
+public final class EntityDirectory {
+
+    public static final EntityDirectory EMPTY = new EntityDirectory(
+            new LongObjectMap<>(), new LongObjectMap<>(), new LongObjectMap<>());
+
+    private final LongObjectMap<UserDTO> users;
+    private final LongObjectMap<SpaceDTO> spaces;
+    private final LongObjectMap<ReservationDTO> reservations;
+
+    private EntityDirectory(LongObjectMap<UserDTO> users, LongObjectMap<SpaceDTO> spaces,
+            LongObjectMap<ReservationDTO> reservations) {
+        this.users = users;
+        this.spaces = spaces;
+        this.reservations = reservations;
+    }
+
+    public UserDTO user(Long id) {
+        return id != null ? users.get(id) : null;
+    }
+
+    public SpaceDTO space(Long id) {
+        return id != null ? spaces.get(id) : null;
+    }
+
+    public ReservationDTO reservation(Long id) {
+        return id != null ? reservations.get(id) : null;
+    }
+
+    public String userName(Long id, String fallback) {
+        UserDTO user = user(id);
+        return user != null && user.name() != null ? user.name() : fallback;
+    }
+
+    public String spaceName(Long id, String fallback) {
+        SpaceDTO space = space(id);
+        return space != null && space.name() != null ? space.name() : fallback;
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public int spaceCount() {
+        return spaces.size();
+    }
+
+    public int reservationCount() {
+        return reservations.size();
+    }
+
+    public EntityDirectory withUser(UserDTO user) {
+        if (user == null || user.id() == null) {
+            return this;
+        }
+        LongObjectMap<UserDTO> updated = users.copy();
+        updated.put(user.id(), user);
+        return new EntityDirectory(updated, spaces, reservations);
+    }
+
+    public EntityDirectory withSpace(SpaceDTO space) {
+        if (space == null || space.id() == null) {
+            return this;
+        }
+        LongObjectMap<SpaceDTO> updated = spaces.copy();
+        updated.put(space.id(), space);
+        return new EntityDirectory(users, updated, reservations);
+    }
+
+    /** Directory over the given lists. */
+    public static EntityDirectory of(List<UserDTO> users, List<SpaceDTO> spaces,
+            List<ReservationDTO> reservations) {
+        return new EntityDirectory(LongObjectMap.index(users, UserDTO::id),
+                LongObjectMap.index(spaces, SpaceDTO::id),
+                LongObjectMap.index(reservations, ReservationDTO::id));
+    }
+
+    /** Re-indexes only the {@code changed} sources. */
+    EntityDirectory update(Set<DataSyncEngine.Source> changed, List<SpaceDTO> newSpaces,
+            List<UserDTO> newUsers, List<ReservationDTO> newReservations) {
+        if (changed.isEmpty()) {
+            return this;
+        }
+        return new EntityDirectory(
+                changed.contains(DataSyncEngine.Source.USERS) ? LongObjectMap.index(newUsers, UserDTO::id) : users,
+                changed.contains(DataSyncEngine.Source.SPACES) ? LongObjectMap.index(newSpaces, SpaceDTO::id) : spaces,
+                changed.contains(DataSyncEngine.Source.RESERVATIONS)
+                        ? LongObjectMap.index(newReservations, ReservationDTO::id) : reservations);
+    }
+}
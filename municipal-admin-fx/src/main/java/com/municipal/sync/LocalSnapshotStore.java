@@ -0,0 +1,258 @@
+package com.municipal.sync;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.municipal.config.AppConfig;
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.dtos.SpaceDTO;
+import com.municipal.dtos.UserDTO;
+import com.municipal.utils.JsonUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists the last known spaces, users and reservations of one user against
+ * one backend, so dashboards can render them immediately on the next login
+ * and reconcile with the server in the background.
+ * <p>
+ * The file starts with a magic number and a format version followed by the
+ * backend URL, the owner and the save time. Each collection is stored as a
+ * section holding its gzipped JSON array and a CRC32 of it. A file with an
+ * unknown version, written for another owner or backend, or with any section
+ * failing its checksum is ignored; writes go to a temporary file that is then
+ * moved over the previous snapshot. Lengths read from the file are checked
+ * against the file size and {@link #MAX_SECTION_BYTES} before anything is
+ * allocated, so a corrupt file is discarded instead of exhausting memory.
+ */
+public final class LocalSnapshotStore {
+
+    public static final int FORMAT_VERSION = 1;
+
+    /** Largest section accepted, compressed or decoded; the same bound ApiClient puts on a response. */
+    public static final int MAX_SECTION_BYTES = 64 * 1024 * 1024;
+
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    private static final String SPACES = "spaces";
+    private static final String USERS = "users";
+    private static final String RESERVATIONS = "reservations";
+    private static final TypeReference<List<SpaceDTO>> SPACE_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<UserDTO>> USER_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ReservationDTO>> RESERVATION_LIST = new TypeReference<>() {
+    };
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final String backendUrl;
+    private final String owner;
+    private final AtomicReference<Snapshot> pendingSave = new AtomicReference<>();
+
+    public LocalSnapshotStore(Path file, String backendUrl, String owner) {
+        this.file = Objects.requireNonNull(file, "file");
+        this.backendUrl = Objects.requireNonNull(backendUrl, "backendUrl");
+        this.owner = Objects.requireNonNull(owner, "owner");
+    }
+
+    /**
+     * Store for {@code owner} (user id or e-mail) against the configured
+     * backend, kept under {@code app.snapshot.dir}.
+     */
+    public static LocalSnapshotStore forOwner(String owner) {
+        String backendUrl = AppConfig.require("api.base-url");
+        Path directory = Paths.get(AppConfig.getOrDefault("app.snapshot.dir",
+                Paths.get(System.getProperty("user.home"), ".municipal-admin", "snapshots").toString()));
+        return new LocalSnapshotStore(directory.resolve(fileNameFor(backendUrl, owner)), backendUrl, owner);
+    }
+
+    /**
+     * Reads the snapshot, or returns empty when there is none or it cannot be
+     * trusted.
+     */
+    public Optional<Snapshot> load() {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            long fileSize = Files.size(file);
+            if (input.readInt() != MAGIC || input.readUnsignedShort() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            Instant savedAt = Instant.ofEpochMilli(input.readLong());
+            if (!backendUrl.equals(input.readUTF()) || !owner.equals(input.readUTF())) {
+                return Optional.empty();
+            }
+            List<SpaceDTO> spaces = readSection(input, fileSize, SPACES, SPACE_LIST);
+            List<UserDTO> users = readSection(input, fileSize, USERS, USER_LIST);
+            List<ReservationDTO> reservations = readSection(input, fileSize, RESERVATIONS, RESERVATION_LIST);
+            return Optional.of(new Snapshot(spaces, users, reservations, savedAt));
+        } catch (IOException | RuntimeException exception) {
+            System.err.println("⚠️ Snapshot local descartado (" + file.getFileName() + "): " + exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(Snapshot snapshot) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(FORMAT_VERSION);
+            output.writeLong(snapshot.savedAt().toEpochMilli());
+            output.writeUTF(backendUrl);
+            output.writeUTF(owner);
+            writeSection(output, SPACES, snapshot.spaces());
+            writeSection(output, USERS, snapshot.users());
+            writeSection(output, RESERVATIONS, snapshot.reservations());
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Saves on the shared writer thread. Saves requested while another one is
+     * waiting replace it, so only the newest snapshot is written.
+     */
+    public void saveInBackground(Snapshot snapshot) {
+        if (pendingSave.getAndSet(snapshot) != null) {
+            return;
+        }
+        WRITER.execute(() -> {
+            Snapshot latest = pendingSave.getAndSet(null);
+            if (latest == null) {
+                return;
+            }
+            try {
+                save(latest);
+            } catch (IOException | RuntimeException exception) {
+                System.err.println("⚠️ No se pudo guardar el snapshot local: " + exception.getMessage());
+            }
+        });
+    }
+
+    public void delete() throws IOException {
+        pendingSave.set(null);
+        Files.deleteIfExists(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static void writeSection(DataOutputStream output, String name, List<?> items) throws IOException {
+        byte[] json = JsonUtils.toJson(items).getBytes(StandardCharsets.UTF_8);
+        if (json.length > MAX_SECTION_BYTES) {
+            // It would be rejected when read back
+            throw new IOException("Section " + name + " is larger than " + MAX_SECTION_BYTES + " bytes");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        }
+        byte[] payload = buffer.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        output.writeUTF(name);
+        output.writeInt(items.size());
+        output.writeLong(crc.getValue());
+        output.writeInt(payload.length);
+        output.write(payload);
+    }
+
+    private static <T> List<T> readSection(DataInputStream input, long fileSize, String expectedName,
+            TypeReference<List<T>> type) throws IOException {
+        String name = input.readUTF();
+        if (!expectedName.equals(name)) {
+            throw new IOException("Unexpected section " + name);
+        }
+        int count = input.readInt();
+        long expectedCrc = input.readLong();
+        int length = input.readInt();
+        if (count < 0 || length < 0 || length > fileSize || length > MAX_SECTION_BYTES) {
+            throw new IOException("Corrupt length in section " + name);
+        }
+        byte[] payload = new byte[length];
+        input.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Checksum mismatch in section " + name);
+        }
+        List<T> items;
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            byte[] json = gzip.readNBytes(MAX_SECTION_BYTES);
+            if (gzip.read() != -1) {
+                throw new IOException("Section " + name + " is larger than " + MAX_SECTION_BYTES + " bytes");
+            }
+            items = JsonUtils.fromJson(new String(json, StandardCharsets.UTF_8), type);
+        }
+        if (items == null || items.size() != count) {
+            throw new IOException("Truncated section " + name);
+        }
+        return List.copyOf(items);
+    }
+
+    private static String fileNameFor(String backendUrl, String owner) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((backendUrl + '\n' + owner).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12) + ".snapshot";
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+
+    /**
+     * Collections as last seen from the backend.
+     */
+    public record Snapshot(List<SpaceDTO> spaces, List<UserDTO> users, List<ReservationDTO> reservations,
+            Instant savedAt) {
+
+        public Snapshot {
+            spaces = List.copyOf(spaces);
+            users = List.copyOf(users);
+            reservations = List.copyOf(reservations);
+            Objects.requireNonNull(savedAt, "savedAt");
+        }
+
+        public Snapshot(List<SpaceDTO> spaces, List<UserDTO> users, List<ReservationDTO> reservations) {
+            this(spaces, users, reservations, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.municipal.sync;
+
+import com.municipal.ServiceRegistry;
+import com.municipal.controllers.WeatherController;
+import com.municipal.dtos.weather.CurrentWeatherDTO;
+import com.municipal.http.RequestScheduler;
+import com.municipal.session.SessionManager;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Starts the data loads of a dashboard as soon as the backend has accepted the
+ * login, so they run while the dashboard's FXML is loaded and its scene built
+ * instead of after it.
+ * <p>
+ * Spaces, users and reservations are requested through the session's
+ * {@link DataSyncEngine}: the dashboard obtains the same engine and its first
+ * refresh joins the fetches still in flight or receives what already landed.
+ * The weather of the user dashboard has no engine, so its in-flight result is
+ * handed over once with {@link #takeWeather(SessionManager)}.
+ */
+public final class LoginPrefetch {
+
+    /** Location shown by the weather widgets (Pérez Zeledón, Costa Rica). */
+    public static final double WEATHER_LATITUDE = 9.3640;
+    public static final double WEATHER_LONGITUDE = -83.7139;
+
+    private static LoginPrefetch current;
+
+    private final SessionManager session;
+    private CompletableFuture<CurrentWeatherDTO> weather;
+
+    private LoginPrefetch(SessionManager session) {
+        this.session = session;
+    }
+
+    /**
+     * Starts the loads needed by the dashboard of {@code role}. Must be called
+     * after the auth response has been stored in {@code session}.
+     */
+    public static void start(SessionManager session, ServiceRegistry services, String role) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(services, "services");
+        DataSyncEngine.Profile profile = DataSyncEngine.Profile.forRole(role);
+        LoginPrefetch prefetch = new LoginPrefetch(session);
+
+        DataSyncEngine engine = DataSyncEngine.forSession(session, profile, services);
+        engine.refresh().whenComplete((snapshot, error) -> {
+            if (error != null) {
+                System.err.println("⚠️ Precarga de datos falló: " + error.getMessage());
+            } else {
+                System.out.println("⚡ Precarga de datos lista: " + snapshot.loaded());
+            }
+        });
+
+        if (profile == DataSyncEngine.Profile.USER) {
+            WeatherController weatherController = services.weatherController();
+            prefetch.weather = CompletableFuture.supplyAsync(RequestScheduler.propagate(
+                    () -> weatherController.loadCurrentWeather(WEATHER_LATITUDE, WEATHER_LONGITUDE,
+                            session.getAccessToken())));
+        }
+
+        synchronized (LoginPrefetch.class) {
+            current = prefetch;
+        }
+    }
+
+    /**
+     * Returns the weather request started at login for {@code session}, or
+     * {@code null} when there is none. It is handed over only once; later
+     * refreshes go to the backend as usual.
+     */
+    public static synchronized CompletableFuture<CurrentWeatherDTO> takeWeather(SessionManager session) {
+        LoginPrefetch prefetch = current;
+        if (prefetch == null || prefetch.session != session || prefetch.weather == null) {
+            return null;
+        }
+        CompletableFuture<CurrentWeatherDTO> weather = prefetch.weather;
+        prefetch.weather = null;
+        return weather;
+    }
+}
@@ -0,0 +1,473 @@
+package com.municipal.sync;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.municipal.ApiClient;
+import com.municipal.config.AppConfig;
+import com.municipal.exceptions.ApiClientException;
+import com.municipal.exceptions.CircuitOpenException;
+import com.municipal.exceptions.MutationQueuedException;
+import com.municipal.http.RequestScheduler;
+import com.municipal.http.RetryPolicy;
+import com.municipal.utils.JsonUtils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Durable queue of mutations that could not reach the backend. Mutations are
+ * first sent directly; when that fails because the request provably never
+ * reached the backend (see {@link #isUnreachable}) they are appended to a
+ * journal file and the caller gets a {@link MutationQueuedException}. Failures
+ * after which the backend may have applied the mutation (read timeouts,
+ * undecodable responses) are reported to the caller and never queued, so
+ * nothing is applied twice.
+ * <p>
+ * While anything is queued, new mutations are queued behind it without
+ * waiting for the replay in progress, and direct sends and replays never
+ * overlap, so the backend always sees mutations in the order they were made.
+ * <p>
+ * Queued mutations are replayed in order with background priority, backing off
+ * between attempts while the backend stays unreachable. A mutation the backend
+ * rejects (e.g. {@code 409} because someone else changed the reservation), or
+ * whose replay fails in a way that may have reached the backend, is dropped
+ * from the queue and reported to the listeners as a conflict. Every request
+ * carries an {@code Idempotency-Key}, but it is not relied upon: non-idempotent
+ * mutations ({@code POST}, {@code PATCH}) are only sent again when the
+ * previous attempt never left the client.
+ * <p>
+ * The journal is append-only JSON lines ({@code enqueue}, {@code done} and
+ * {@code conflict} records) and is compacted when the outbox is opened and
+ * whenever it drains.
+ */
+public final class MutationOutbox implements AutoCloseable {
+
+    private static volatile MutationOutbox defaultOutbox;
+
+    /** Methods whose repetition leaves the backend in the same state. */
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("PUT", "DELETE");
+
+    private final ApiClient apiClient;
+    private final Supplier<String> tokenSupplier;
+    private final Path journal;
+    private final RetryPolicy backoff;
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor;
+    // Held while a mutation is on the wire; mutations queued behind pending ones never take it
+    private final ReentrantLock sending = new ReentrantLock(true);
+    private ScheduledFuture<?> scheduledReplay;
+    private int failures;
+    private boolean closed;
+
+    public MutationOutbox(ApiClient apiClient, Supplier<String> tokenSupplier, Path journal) {
+        this(apiClient, tokenSupplier, journal, new RetryPolicy(Integer.MAX_VALUE,
+                Duration.ofMillis(AppConfig.getLong("api.outbox.base-delay-ms", 1000)),
+                Duration.ofMillis(AppConfig.getLong("api.outbox.max-delay-ms", 60000))));
+    }
+
+    public MutationOutbox(ApiClient apiClient, Supplier<String> tokenSupplier, Path journal, RetryPolicy backoff) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient");
+        this.tokenSupplier = Objects.requireNonNull(tokenSupplier, "tokenSupplier");
+        this.journal = Objects.requireNonNull(journal, "journal");
+        this.backoff = Objects.requireNonNull(backoff, "backoff");
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "mutation-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.executor = scheduler;
+        recover();
+    }
+
+    /**
+     * Outbox of {@code owner} (user id or e-mail) against the configured
+     * backend, journaled under {@code app.outbox.dir}.
+     */
+    public static MutationOutbox forOwner(String owner, ApiClient apiClient, Supplier<String> tokenSupplier) {
+        String backendUrl = AppConfig.require("api.base-url");
+        Path directory = Paths.get(AppConfig.getOrDefault("app.outbox.dir",
+                Paths.get(System.getProperty("user.home"), ".municipal-admin", "outbox").toString()));
+        return new MutationOutbox(apiClient, tokenSupplier, directory.resolve(fileNameFor(backendUrl, owner)));
+    }
+
+    public static MutationOutbox getDefault() {
+        return defaultOutbox;
+    }
+
+    /**
+     * Installs the outbox used by {@link #send}; {@code null} (e.g. on
+     * logout) makes mutations go straight to the backend again.
+     */
+    public static void setDefault(MutationOutbox outbox) {
+        defaultOutbox = outbox;
+    }
+
+    /**
+     * Sends a mutation through the default outbox, or directly when none is
+     * installed.
+     *
+     * @throws MutationQueuedException when the mutation was queued instead
+     */
+    public static <T> T send(ApiClient apiClient, String method, String path, Object body, String bearerToken,
+            Class<T> responseType, String description) {
+        MutationOutbox outbox = defaultOutbox;
+        if (outbox == null) {
+            String json = body != null ? JsonUtils.toJson(body) : null;
+            return apiClient.send(apiClient.jsonRequestBuilder(method, path, json, bearerToken).build(),
+                    responseType);
+        }
+        return outbox.submit(apiClient, method, path, body, bearerToken, responseType, description);
+    }
+
+    /**
+     * Sends the mutation with {@code apiClient} unless earlier mutations are
+     * still queued, queueing it when the backend cannot be reached. Queueing
+     * behind earlier mutations never waits for a replay in progress.
+     */
+    public <T> T submit(ApiClient client, String method, String path, Object body, String bearerToken,
+            Class<T> responseType, String description) {
+        Entry entry = new Entry(UUID.randomUUID().toString(), method, path,
+                body != null ? JsonUtils.toJson(body) : null, description, System.currentTimeMillis());
+        queueIfBehind(entry);
+        sending.lock();
+        try {
+            // An earlier direct send may have been queued while this one waited
+            queueIfBehind(entry);
+            try {
+                return client.send(request(client, entry, bearerToken), responseType);
+            } catch (ApiClientException exception) {
+                if (!isUnreachable(exception, method)) {
+                    throw exception;
+                }
+                synchronized (this) {
+                    enqueue(entry);
+                }
+                throw new MutationQueuedException(entry.id(), description, exception);
+            }
+        } finally {
+            sending.unlock();
+        }
+    }
+
+    /**
+     * Queues {@code entry} when earlier mutations are still pending, so it is
+     * replayed after them. The head of the queue stays pending while it is
+     * being replayed.
+     *
+     * @throws MutationQueuedException when the entry was queued
+     */
+    private synchronized void queueIfBehind(Entry entry) {
+        if (closed) {
+            throw new ApiClientException(503, "Mutation outbox closed");
+        }
+        if (!pending.isEmpty()) {
+            enqueue(entry);
+            throw new MutationQueuedException(entry.id(), entry.description(), null);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized List<Entry> getPending() {
+        return List.copyOf(pending);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Replays right away instead of waiting for the current backoff. */
+    public synchronized void retryNow() {
+        failures = 0;
+        scheduleReplay(0);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduledReplay != null) {
+            scheduledReplay.cancel(false);
+        }
+        executor.shutdownNow();
+        if (defaultOutbox == this) {
+            defaultOutbox = null;
+        }
+    }
+
+    private void replay() {
+        while (true) {
+            Entry head;
+            synchronized (this) {
+                scheduledReplay = null;
+                if (closed) {
+                    return;
+                }
+                head = pending.peekFirst();
+                if (head == null) {
+                    failures = 0;
+                    compact();
+                    return;
+                }
+            }
+            String token = tokenSupplier.get();
+            if (token == null || token.isBlank()) {
+                retryLater();
+                return;
+            }
+            sending.lock();
+            try {
+                synchronized (this) {
+                    if (closed || pending.peekFirst() != head) {
+                        continue;
+                    }
+                }
+                RequestScheduler.runInBackground(() -> apiClient.send(request(apiClient, head, token), Void.class));
+                complete(head, new Record("done", head.id()));
+                listeners.forEach(listener -> listener.onApplied(head));
+            } catch (ApiClientException exception) {
+                // An expired token is renewed once connectivity returns
+                if (isUnreachable(exception, head.method()) || exception.getStatusCode() == 401) {
+                    retryLater();
+                    return;
+                }
+                Record conflict = new Record("conflict", head.id());
+                conflict.status = exception.getStatusCode();
+                conflict.message = exception.getResponseBody();
+                complete(head, conflict);
+                Conflict reported = new Conflict(head, exception.getStatusCode(), exception.getResponseBody());
+                listeners.forEach(listener -> listener.onConflict(reported));
+            } finally {
+                sending.unlock();
+            }
+        }
+    }
+
+    private synchronized void complete(Entry entry, Record outcome) {
+        append(outcome);
+        pending.remove(entry);
+        failures = 0;
+    }
+
+    private synchronized void retryLater() {
+        failures++;
+        scheduleReplay(backoff.delayMillis(failures));
+    }
+
+    private void enqueue(Entry entry) {
+        Record record = new Record("enqueue", entry.id());
+        record.method = entry.method();
+        record.path = entry.path();
+        record.body = entry.body();
+        record.description = entry.description();
+        record.createdAt = entry.createdAt();
+        append(record);
+        pending.addLast(entry);
+        listeners.forEach(listener -> listener.onQueued(entry));
+        if (pending.size() == 1) {
+            scheduleReplay(backoff.delayMillis(1));
+        }
+    }
+
+    private void scheduleReplay(long delayMillis) {
+        if (closed || (scheduledReplay != null && scheduledReplay.getDelay(TimeUnit.MILLISECONDS) <= delayMillis)) {
+            return;
+        }
+        if (scheduledReplay != null) {
+            scheduledReplay.cancel(false);
+        }
+        scheduledReplay = executor.schedule(this::replay, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static HttpRequest request(ApiClient client, Entry entry, String token) {
+        return client.jsonRequestBuilder(entry.method(), entry.path(), entry.body(), token)
+                .header("Idempotency-Key", entry.id())
+                .build();
+    }
+
+    /** Reads the journal back and rewrites it with only the pending mutations. */
+    private synchronized void recover() {
+        if (!Files.isRegularFile(journal)) {
+            return;
+        }
+        Map<String, Entry> queued = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                Record record;
+                try {
+                    record = JsonUtils.fromJson(line, Record.class);
+                } catch (RuntimeException exception) {
+                    // A line cut short by a crash while appending
+                    continue;
+                }
+                if (record == null || record.id == null) {
+                    continue;
+                }
+                if ("enqueue".equals(record.op)) {
+                    queued.put(record.id, new Entry(record.id, record.method, record.path, record.body,
+                            record.description, record.createdAt));
+                } else {
+                    queued.remove(record.id);
+                }
+            }
+        } catch (IOException exception) {
+            System.err.println("⚠️ No se pudo leer la bandeja de salida: " + exception.getMessage());
+            return;
+        }
+        pending.addAll(queued.values());
+        compact();
+        if (!pending.isEmpty()) {
+            System.out.println("📤 " + pending.size() + " cambios pendientes de enviar al servidor");
+            scheduleReplay(0);
+        }
+    }
+
+    private void compact() {
+        try {
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(journal);
+                return;
+            }
+            Path temporary = journal.resolveSibling(journal.getFileName() + ".tmp");
+            List<String> lines = new ArrayList<>();
+            for (Entry entry : pending) {
+                Record record = new Record("enqueue", entry.id());
+                record.method = entry.method();
+                record.path = entry.path();
+                record.body = entry.body();
+                record.description = entry.description();
+                record.createdAt = entry.createdAt();
+                lines.add(JsonUtils.toJson(record));
+            }
+            Files.write(temporary, lines, StandardCharsets.UTF_8);
+            Files.move(temporary, journal, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            System.err.println("⚠️ No se pudo compactar la bandeja de salida: " + exception.getMessage());
+        }
+    }
+
+    private void append(Record record) {
+        try {
+            Files.createDirectories(journal.getParent());
+            Files.write(journal, (JsonUtils.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException exception) {
+            throw new ApiClientException(500, "Unable to write the outbox journal", exception);
+        }
+    }
+
+    /**
+     * Whether a {@code method} request that failed with {@code exception} can
+     * safely be sent again later: the connection could not be opened or the
+     * circuit breaker kept the request from leaving. A gateway error
+     * ({@code 502}, {@code 503}, {@code 504}) also qualifies for idempotent
+     * methods. Any other failure, such as a read timeout or a response that
+     * could not be decoded, may come after the backend applied the mutation.
+     */
+    static boolean isUnreachable(ApiClientException exception, String method) {
+        if (exception instanceof CircuitOpenException) {
+            return true;
+        }
+        for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof UnknownHostException || cause instanceof UnresolvedAddressException) {
+                return true;
+            }
+        }
+        int status = exception.getStatusCode();
+        return (status == 502 || status == 503 || status == 504)
+                && method != null && IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT));
+    }
+
+    private static String fileNameFor(String backendUrl, String owner) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((backendUrl + '\n' + owner).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12) + ".outbox";
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+
+    /**
+     * A mutation waiting to be delivered. {@code body} is the serialized JSON
+     * request body, or {@code null}.
+     */
+    public record Entry(String id, String method, String path, String body, String description, long createdAt) {
+    }
+
+    /** A queued mutation the backend refused when it was replayed. */
+    public record Conflict(Entry entry, int statusCode, String responseBody) {
+    }
+
+    public interface Listener {
+        default void onQueued(Entry entry) {
+        }
+
+        default void onApplied(Entry entry) {
+        }
+
+        default void onConflict(Conflict conflict) {
+        }
+    }
+
+    /** One journal line. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static final class Record {
+        @JsonProperty("op") String op;
+        @JsonProperty("id") String id;
+        @JsonProperty("method") String method;
+        @JsonProperty("path") String path;
+        @JsonProperty("body") String body;
+        @JsonProperty("description") String description;
+        @JsonProperty("createdAt") long createdAt;
+        @JsonProperty("status") Integer status;
+        @JsonProperty("message") String message;
+
+        Record() {
+        }
+
+        Record(String op, String id) {
+            this.op = op;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.municipal.sync;
+
+import com.municipal.controllers.ReservationController;
+import com.municipal.dtos.ReservationDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps an id-keyed copy of the reservations and refreshes it incrementally.
+ * The first sync downloads the full collection; later syncs only ask the
+ * backend for reservations whose {@code updatedAt} is newer than the highest
+ * one seen so far ({@code GET /api/reservations?since=...}) and merge them in
+ * place. Rows with status {@value #TOMBSTONE_STATUS} are tombstones and remove
+ * the reservation from the store. The watermark only ever comes from the
+ * backend's own timestamps; while none is known every sync is a full one.
+ * <p>
+ * Reservations that are physically deleted never show up in a delta, so a
+ * full resync is done every {@code fullResyncInterval} to drop them.
+ * <p>
+ * The returned list is rebuilt only when the store changed; a sync that
+ * changed nothing returns the same list instance as the previous one.
+ */
+public final class ReservationDeltaSync {
+
+    public static final String TOMBSTONE_STATUS = "DELETED";
+
+    /**
+     * Re-reads a little before the watermark so rows committed with the same
+     * timestamp as the last one seen are not skipped; merging is idempotent.
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofSeconds(1);
+    private static final Duration DEFAULT_FULL_RESYNC_INTERVAL = Duration.ofMinutes(10);
+
+    private final ReservationController reservationController;
+    private final Duration fullResyncInterval;
+    private final Map<Long, ReservationDTO> reservations = new LinkedHashMap<>();
+    private LocalDateTime watermark;
+    // Immutable copy of the store's values, null once the store changed
+    private List<ReservationDTO> snapshot;
+    private long lastFullSyncNanos;
+    private boolean initialized;
+
+    public ReservationDeltaSync(ReservationController reservationController) {
+        this(reservationController, DEFAULT_FULL_RESYNC_INTERVAL);
+    }
+
+    public ReservationDeltaSync(ReservationController reservationController, Duration fullResyncInterval) {
+        this.reservationController = Objects.requireNonNull(reservationController, "reservationController");
+        this.fullResyncInterval = Objects.requireNonNull(fullResyncInterval, "fullResyncInterval");
+    }
+
+    /**
+     * Brings the store up to date and returns its contents. Calls are
+     * serialized so two refreshes never merge against the same watermark.
+     */
+    public synchronized SyncResult sync(String token) throws Exception {
+        // Without a watermark from the backend's data there is nothing to ask changes against
+        if (!initialized || watermark == null
+                || System.nanoTime() - lastFullSyncNanos >= fullResyncInterval.toNanos()) {
+            return fullSync(token);
+        }
+        List<ReservationDTO> changes = reservationController.getReservationsChangedSince(
+                watermark.minus(WATERMARK_OVERLAP), token);
+        int updated = 0;
+        int removed = 0;
+        for (ReservationDTO change : changes) {
+            if (change == null || change.id() == null) {
+                continue;
+            }
+            advanceWatermark(change);
+            if (TOMBSTONE_STATUS.equalsIgnoreCase(change.status())) {
+                if (reservations.remove(change.id()) != null) {
+                    removed++;
+                }
+            } else if (!change.equals(reservations.put(change.id(), change))) {
+                updated++;
+            }
+        }
+        if (updated > 0 || removed > 0) {
+            snapshot = null;
+        }
+        return new SyncResult(snapshot(), updated, removed, false);
+    }
+
+    /**
+     * Starts from reservations loaded elsewhere (a local snapshot) instead of
+     * a full download: the next sync only asks for what changed after them.
+     * Ignored once the store holds data.
+     */
+    public synchronized void seed(Collection<ReservationDTO> known) {
+        if (initialized || known.isEmpty()) {
+            return;
+        }
+        snapshot = null;
+        for (ReservationDTO reservation : known) {
+            if (reservation != null && reservation.id() != null) {
+                reservations.put(reservation.id(), reservation);
+                advanceWatermark(reservation);
+            }
+        }
+        if (watermark == null) {
+            reservations.clear();
+            return;
+        }
+        initialized = true;
+        lastFullSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Discards the store so the next sync downloads everything again, e.g.
+     * after logout or when the backend changes.
+     */
+    public synchronized void reset() {
+        reservations.clear();
+        snapshot = null;
+        watermark = null;
+        initialized = false;
+    }
+
+    /**
+     * Drops a reservation this client deleted permanently; physical deletes
+     * never come back as tombstones.
+     */
+    public synchronized void forget(Long reservationId) {
+        if (reservations.remove(reservationId) != null) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Stores a reservation this client just created or changed, as returned
+     * by the backend. The watermark is left alone so changes made by others
+     * in the meantime are still downloaded.
+     */
+    public synchronized void remember(ReservationDTO reservation) {
+        if (initialized && reservation != null && reservation.id() != null
+                && !reservation.equals(reservations.put(reservation.id(), reservation))) {
+            snapshot = null;
+        }
+    }
+
+    public synchronized LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public synchronized int size() {
+        return reservations.size();
+    }
+
+    private SyncResult fullSync(String token) throws Exception {
+        List<ReservationDTO> all = reservationController.getAllReservations(token);
+        reservations.clear();
+        snapshot = null;
+        watermark = null;
+        for (ReservationDTO reservation : all) {
+            if (reservation == null || reservation.id() == null
+                    || TOMBSTONE_STATUS.equalsIgnoreCase(reservation.status())) {
+                continue;
+            }
+            reservations.put(reservation.id(), reservation);
+            advanceWatermark(reservation);
+        }
+        // An empty collection leaves the watermark unset: the client clock says
+        // nothing about the backend's, so the next sync is full again
+        initialized = true;
+        lastFullSyncNanos = System.nanoTime();
+        return new SyncResult(snapshot(), reservations.size(), 0, true);
+    }
+
+    private void advanceWatermark(ReservationDTO reservation) {
+        LocalDateTime changedAt = reservation.updatedAt() != null ? reservation.updatedAt() : reservation.createdAt();
+        if (changedAt != null && (watermark == null || changedAt.isAfter(watermark))) {
+            watermark = changedAt;
+        }
+    }
+
+    private List<ReservationDTO> snapshot() {
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableList(new ArrayList<>(reservations.values()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Outcome of a sync: the full current collection plus how many rows the
+     * sync added or changed and how many tombstones it applied.
+     */
+    public record SyncResult(List<ReservationDTO> reservations, int updated, int removed, boolean full) {
+
+        public boolean hasChanges() {
+            return full || updated > 0 || removed > 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.municipal.sync;
+
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.utils.DateTimeUtils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Filters, ordering and page size of the paginated reservation listing.
+ * {@code from} and {@code to} are inclusive local (Costa Rica) dates and are
+ * sent to the backend as a half-open UTC range over {@code startTime}.
+ *
+ * @param status backend status code ({@code PENDING}, ...) or {@code null} for all
+ * @param search free text matched by the backend against ids, users and spaces
+ * @param sort   Spring style sort expression, e.g. {@code startTime,desc}
+ */
+public record ReservationPageQuery(String status, LocalDate from, LocalDate to, String search, String sort,
+        int size) {
+
+    public static final String DEFAULT_SORT = "startTime,desc";
+
+    public ReservationPageQuery {
+        status = blankToNull(status);
+        search = blankToNull(search);
+        sort = blankToNull(sort) != null ? sort : DEFAULT_SORT;
+        size = Math.max(1, size);
+    }
+
+    /** Query string (without the leading {@code ?}) requesting page {@code page}. */
+    public String toQueryString(int page) {
+        StringBuilder path = new StringBuilder("page=").append(page)
+                .append("&size=").append(size)
+                .append("&sort=").append(encode(sort));
+        if (status != null) {
+            path.append("&status=").append(encode(status));
+        }
+        if (from != null) {
+            path.append("&from=").append(encode(toUtc(from.atStartOfDay())));
+        }
+        if (to != null) {
+            path.append("&to=").append(encode(toUtc(to.plusDays(1).atStartOfDay())));
+        }
+        if (search != null) {
+            path.append("&q=").append(encode(search));
+        }
+        return path.toString();
+    }
+
+    /** Status and date filters, as the backend applies them. */
+    public boolean matches(ReservationDTO reservation) {
+        if (status != null && !status.equalsIgnoreCase(reservation.status())) {
+            return false;
+        }
+        if (from == null && to == null) {
+            return true;
+        }
+        LocalDate day = reservation.startTime() != null ? reservation.startTime().toLocalDate() : null;
+        if (day == null) {
+            return false;
+        }
+        return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+
+    /** Ordering described by {@link #sort()}; unknown fields fall back to the id. */
+    public Comparator<ReservationDTO> comparator() {
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        boolean descending = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+        Comparator<ReservationDTO> comparator = switch (field) {
+            case "startTime" -> Comparator.comparing(ReservationDTO::startTime,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "status" -> Comparator.comparing(
+                    reservation -> reservation.status() != null ? reservation.status().toUpperCase(Locale.ROOT) : "");
+            default -> Comparator.comparing(ReservationDTO::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    private static String toUtc(LocalDateTime localDateTime) {
+        return DateTimeUtils.costaRicaToUtc(localDateTime).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
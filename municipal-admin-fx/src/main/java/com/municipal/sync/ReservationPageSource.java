@@ -0,0 +1,162 @@
+package com.municipal.sync;
+
+import com.municipal.config.AppConfig;
+import com.municipal.controllers.ReservationController;
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.exceptions.ApiClientException;
+import com.municipal.http.RequestScheduler;
+import com.municipal.responses.PageResponse;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Paged data source for the reservations table. Pages are requested from the
+ * backend with the filters of a {@link ReservationPageQuery}, kept in a small
+ * LRU ({@code api.reservations.page-cache-size}) and the page following the
+ * one requested is prefetched with background priority, so paging forward is
+ * usually served from memory.
+ * <p>
+ * When the backend has no paginated endpoint ({@code 404}, {@code 405} or
+ * {@code 501}) the source switches to the local stand-in it was given, which
+ * pages an in-memory list with the same semantics.
+ */
+public final class ReservationPageSource {
+
+    @FunctionalInterface
+    public interface PageLoader {
+        CompletableFuture<PageResponse<ReservationDTO>> load(ReservationPageQuery query, int page, String token);
+    }
+
+    private final PageLoader remote;
+    private final PageLoader standIn;
+    private final int maxPages;
+    private final Map<PageKey, CompletableFuture<PageResponse<ReservationDTO>>> pages;
+    private volatile boolean remoteUnsupported;
+
+    public ReservationPageSource(ReservationController reservationController, PageLoader standIn) {
+        this(reservationController::getReservationPageAsync, standIn,
+                AppConfig.getInt("api.reservations.page-cache-size", 8));
+    }
+
+    public ReservationPageSource(PageLoader remote, PageLoader standIn, int maxPages) {
+        this.remote = Objects.requireNonNull(remote, "remote");
+        this.standIn = standIn;
+        this.maxPages = Math.max(2, maxPages);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<PageKey, CompletableFuture<PageResponse<ReservationDTO>>> eldest) {
+                return size() > ReservationPageSource.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * Stand-in that pages {@code reservations} locally: status and date
+     * filters and ordering come from the query, free text is matched with
+     * {@code searchMatcher}. The supplier may be called from any thread.
+     */
+    public static PageLoader localStandIn(Supplier<? extends Collection<ReservationDTO>> reservations,
+            BiPredicate<ReservationDTO, String> searchMatcher) {
+        return (query, page, token) -> {
+            List<ReservationDTO> matching = reservations.get().stream()
+                    .filter(query::matches)
+                    .filter(reservation -> query.search() == null
+                            || searchMatcher.test(reservation, query.search()))
+                    .sorted(query.comparator())
+                    .toList();
+            return CompletableFuture.completedFuture(PageResponse.slice(matching, page, query.size()));
+        };
+    }
+
+    /**
+     * Returns page {@code page} for {@code query}, from the cache when
+     * possible, and starts prefetching the next one once it is known to exist.
+     */
+    public CompletableFuture<PageResponse<ReservationDTO>> getPage(ReservationPageQuery query, int page,
+            String token) {
+        CompletableFuture<PageResponse<ReservationDTO>> result = fetch(query, page, token);
+        result.thenAccept(loaded -> {
+            // Local pages are cheap to cut, only remote ones are worth prefetching
+            if (loaded.hasNext() && !remoteUnsupported) {
+                RequestScheduler.runInBackground(() -> fetch(query, page + 1, token));
+            }
+        });
+        return result.copy();
+    }
+
+    /** Drops every cached page, e.g. after reservations were modified. */
+    public synchronized void invalidate() {
+        pages.clear();
+    }
+
+    /** Drops the cache and gives the backend endpoint another chance. */
+    public synchronized void reset() {
+        pages.clear();
+        remoteUnsupported = false;
+    }
+
+    public boolean isUsingStandIn() {
+        return remoteUnsupported;
+    }
+
+    public synchronized int getCachedPageCount() {
+        return pages.size();
+    }
+
+    private synchronized CompletableFuture<PageResponse<ReservationDTO>> fetch(ReservationPageQuery query, int page,
+            String token) {
+        PageKey key = new PageKey(query, page);
+        CompletableFuture<PageResponse<ReservationDTO>> cached = pages.get(key);
+        if (cached != null && !cached.isCompletedExceptionally()) {
+            return cached;
+        }
+        CompletableFuture<PageResponse<ReservationDTO>> loading = load(query, page, token);
+        pages.put(key, loading);
+        loading.whenComplete((loaded, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    pages.remove(key, loading);
+                }
+            }
+        });
+        return loading;
+    }
+
+    private CompletableFuture<PageResponse<ReservationDTO>> load(ReservationPageQuery query, int page,
+            String token) {
+        if (remoteUnsupported && standIn != null) {
+            return standIn.load(query, page, token);
+        }
+        return remote.load(query, page, token).exceptionallyCompose(error -> {
+            if (standIn != null && isUnsupported(error)) {
+                remoteUnsupported = true;
+                return standIn.load(query, page, token);
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private static boolean isUnsupported(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (!(cause instanceof ApiClientException apiClientException)) {
+            return false;
+        }
+        int status = apiClientException.getStatusCode();
+        return status == 404 || status == 405 || status == 501;
+    }
+
+    private record PageKey(ReservationPageQuery query, int page) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.municipal.ui;
 
+import com.municipal.ServiceRegistry;
 import com.municipal.config.AppConfig;
 import com.municipal.session.SessionManager;
 import com.municipal.ui.navigation.FlowController;
@@ -21,7 +22,8 @@ public class App extends Application {
         AppConfig.load();
 
         SessionManager sessionManager = new SessionManager();
-        FlowController flowController = new FlowController(stage, sessionManager);
+        ServiceRegistry services = ServiceRegistry.getDefault();
+        FlowController flowController = new FlowController(stage, sessionManager, services);
 
         flowController.registerView(LOGIN_VIEW, new ViewConfig(
                 "/com/municipal/reservationsfx/ui/login-view.fxml",
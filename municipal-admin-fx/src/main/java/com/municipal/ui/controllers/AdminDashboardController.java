@@ -1,5 +1,6 @@
 package com.municipal.ui.controllers;
 
+import com.municipal.ServiceRegistry;
 import com.municipal.config.AppConfig;
 import com.municipal.controllers.ReservationController;
 import com.municipal.controllers.SpaceController;
@@ -14,16 +15,32 @@ import com.municipal.dtos.UserDTO;
 import com.municipal.dtos.UserInputDTO;
 import com.municipal.dtos.weather.CurrentWeatherDTO;
 import com.municipal.exceptions.ApiClientException;
+import com.municipal.exceptions.MutationQueuedException;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
 import com.municipal.responses.BinaryFileResponse;
 import com.municipal.session.SessionManager;
+import com.municipal.sync.ChangeEvent;
+import com.municipal.sync.ChangeEventStream;
+import com.municipal.sync.DataSyncEngine;
+import com.municipal.sync.EntityDirectory;
+import com.municipal.sync.LocalSnapshotStore;
+import com.municipal.sync.ReservationPageQuery;
+import com.municipal.sync.ReservationPageSource;
 import com.municipal.ui.components.ImageCarousel;
 import com.municipal.ui.navigation.FlowAware;
 import com.municipal.ui.navigation.FlowController;
+import com.municipal.ui.navigation.ServiceAware;
 import com.municipal.ui.navigation.SessionAware;
+import com.municipal.ui.navigation.StageAware;
 import com.municipal.ui.navigation.ViewLifecycle;
+import com.municipal.ui.utils.AdaptiveRefreshScheduler;
 import com.municipal.ui.utils.ImageCache;
+import com.municipal.utils.CacheMetrics;
+import com.municipal.utils.CacheMetricsRegistry;
 import com.municipal.utils.DataCache;
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
@@ -50,6 +67,7 @@ import javafx.scene.layout.*;
 import javafx.util.Duration;
 import javafx.scene.control.Alert.AlertType;
 import javafx.stage.FileChooser;
+import javafx.stage.Stage;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -76,10 +94,9 @@ import java.util.Set;
 import java.util.ResourceBundle;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -89,7 +106,7 @@ import java.util.concurrent.TimeoutException;
  * @author Tu Nombre
  * @version 1.0
  */
-public class AdminDashboardController implements Initializable, SessionAware, FlowAware, ViewLifecycle {
+public class AdminDashboardController implements Initializable, ServiceAware, SessionAware, FlowAware, StageAware, ViewLifecycle {
     
     // ==================== COMPONENTES PRINCIPALES ====================
     
@@ -233,15 +250,29 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     @FXML private CheckBox chkRequiere2FA;
     @FXML private CheckBox chkSesionExpirar;
     @FXML private CheckBox chkLogActividad;
+    @FXML private TableView<CacheMetrics.Stats> tablaDiagnosticoCache;
     
     // ==================== DATOS Y ESTADO ====================
 
-    private final SpaceController spaceController = new SpaceController();
-    private final SpaceImageController spaceImageController = new SpaceImageController();
-    private final UserController userController = new UserController();
-    private final ReservationController reservationController = new ReservationController();
-    private final WeatherController weatherController = new WeatherController();
-    private final com.municipal.controllers.NotificationController notificationController = new com.municipal.controllers.NotificationController(new com.municipal.ApiClient());
+    private ServiceRegistry services;
+    private SpaceController spaceController;
+    private SpaceImageController spaceImageController;
+    private UserController userController;
+    private ReservationController reservationController;
+    // Copias inmutables para la paginación local, legibles desde cualquier hilo
+    private volatile List<ReservationDTO> reservasParaPaginar = List.of();
+    private volatile Map<Long, String> nombresUsuariosReserva = Map.of();
+    private volatile Map<Long, String> nombresEspaciosReserva = Map.of();
+    // Usuarios y espacios por id para resolver nombres sin recorrer las listas
+    private volatile EntityDirectory directorio = EntityDirectory.EMPTY;
+    private ReservationPageSource paginasReservas;
+    private LocalSnapshotStore snapshotLocal;
+    private int paginaActualReservas;
+    private int totalPaginasReservas = 1;
+    private long totalReservasFiltradas;
+    private long solicitudPaginaReservas;
+    private WeatherController weatherController;
+    private com.municipal.controllers.NotificationController notificationController;
 
     private SessionManager sessionManager;
     private FlowController flowController;
@@ -255,19 +286,25 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     private ObservableList<ReservationDTO> listaReservasFiltradas;
     private CurrentWeatherDTO climaActual;
     private Timeline climaTimeline;
-    private Timeline autoRefreshTimeline;
+    private PauseTransition busquedaReservasPausa;
+    private AdaptiveRefreshScheduler refrescoAutomatico;
+    private Stage stage;
     private boolean panelNotificacionesVisible;
     private boolean panelPerfilVisible;
-    private boolean datosCargando;
-    private boolean datosInicialesCargados;
+    private DataSyncEngine motorDatos;
+    private DataSyncEngine.Subscription suscripcionDatos;
     private boolean autoRefreshEnabled = true;
+    private ChangeEventStream canalEventos;
     private ProgressIndicator smallLoadingIndicator;
     
     private static final String LOGIN_VIEW_ID = "login";
     private static final double PANEL_SLIDE_OFFSET = 360;
     private static final Duration PANEL_ANIMATION_DURATION = Duration.millis(260);
     private static final Duration CLIMA_REFRESH_INTERVAL = Duration.minutes(10); // Actualización del clima cada 10 minutos
-    private static final Duration AUTO_REFRESH_INTERVAL = Duration.seconds(5); // Auto-refresh cada 5 segundos
+    private static final Duration AUTO_REFRESH_MIN_INTERVAL = Duration.seconds(5); // Auto-refresh: como máximo cada 5 segundos
+    private static final Duration AUTO_REFRESH_MAX_INTERVAL = Duration.minutes(2); // y como mínimo cada 2 minutos
+    private static final Duration BUSQUEDA_RESERVAS_PAUSA = Duration.millis(300); // Espera tras la última tecla antes de buscar
+    private static final String[] ENDPOINTS_AUTO_REFRESH = {"/api/spaces", "/api/users", "/api/reservations"};
     private static final List<String> TIPOS_ESPACIO = List.of(
             "SALA",
             "CANCHA",
@@ -308,6 +345,19 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         System.out.println("Panel de Administración inicializado correctamente");
     }
 
+    @Override
+    public void setServiceRegistry(ServiceRegistry services) {
+        this.services = services;
+        this.spaceController = services.spaceController();
+        this.spaceImageController = services.spaceImageController();
+        this.userController = services.userController();
+        this.reservationController = services.reservationController();
+        this.weatherController = services.weatherController();
+        this.notificationController = services.notificationController();
+        this.paginasReservas = new ReservationPageSource(reservationController,
+                ReservationPageSource.localStandIn(() -> reservasParaPaginar, this::coincideBusquedaReserva));
+    }
+
     @Override
     public void setSessionManager(SessionManager sessionManager) {
         this.sessionManager = sessionManager;
@@ -318,6 +368,11 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         this.flowController = flowController;
     }
 
+    @Override
+    public void setStage(Stage stage) {
+        this.stage = stage;
+    }
+
     @Override
     public void onViewActivated() {
         bootstrap();
@@ -325,6 +380,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
 
     public void bootstrap() {
         cargarUsuarioActual();
+        mostrarSnapshotLocal();
         cargarDatosIniciales(false);
         iniciarActualizacionClima();
         iniciarActualizacionDatos();
@@ -341,7 +397,6 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         listaReservas = FXCollections.observableArrayList();
         listaReservasFiltradas = FXCollections.observableArrayList();
         // estadisticas = new EstadisticasDashboard(); // TODO: Implementar clase de estadísticas
-        datosInicialesCargados = false;
     }
 
     private void inicializarPanelesDeslizables() {
@@ -562,6 +617,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         configurarTablaEspacios();
         configurarTablaUsuarios();
         configurarTablaReservas();
+        configurarTablaDiagnosticoCache();
     }
     
     /**
@@ -954,28 +1010,14 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             Long userId = cellData.getValue().userId();
             if (userId == null) return new SimpleStringProperty("N/A");
             
-            // Buscar el usuario en la lista
-            UserDTO usuario = listaUsuarios.stream()
-                .filter(u -> u.id() != null && u.id().equals(userId))
-                .findFirst()
-                .orElse(null);
-            
-            String nombre = usuario != null && usuario.name() != null ? usuario.name() : "Usuario #" + userId;
-            return new SimpleStringProperty(nombre);
+            return new SimpleStringProperty(directorio.userName(userId, "Usuario #" + userId));
         });
         
         colEspacioReserva.setCellValueFactory(cellData -> {
             Long spaceId = cellData.getValue().spaceId();
             if (spaceId == null) return new SimpleStringProperty("N/A");
             
-            // Buscar el espacio en la lista
-            SpaceDTO espacio = listaEspacios.stream()
-                .filter(e -> e.id() != null && e.id().equals(spaceId))
-                .findFirst()
-                .orElse(null);
-            
-            String nombre = espacio != null && espacio.name() != null ? espacio.name() : "Espacio #" + spaceId;
-            return new SimpleStringProperty(nombre);
+            return new SimpleStringProperty(directorio.spaceName(spaceId, "Espacio #" + spaceId));
         });
         
         colFechaReserva.setCellValueFactory(cellData -> {
@@ -1192,10 +1234,12 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             });
         }
         
-        // Filtro de búsqueda para reservas
+        // Filtro de búsqueda para reservas: se consulta al servidor cuando se deja de escribir
         if (txtBuscarReserva != null) {
+            busquedaReservasPausa = new PauseTransition(BUSQUEDA_RESERVAS_PAUSA);
+            busquedaReservasPausa.setOnFinished(event -> filtrarReservas());
             txtBuscarReserva.textProperty().addListener((obs, oldVal, newVal) -> {
-                filtrarReservas();
+                busquedaReservasPausa.playFromStart();
             });
         }
         
@@ -1205,6 +1249,12 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             });
         }
         
+        if (cmbFilasPorPagina != null) {
+            cmbFilasPorPagina.valueProperty().addListener((obs, oldVal, newVal) -> {
+                filtrarReservas();
+            });
+        }
+        
         // Filtros de fecha para reservas
         if (dpFechaDesdeReservas != null) {
             dpFechaDesdeReservas.valueProperty().addListener((obs, oldVal, newVal) -> {
@@ -1428,206 +1478,203 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         cargarDatosIniciales(false);
     }
 
-    private void cargarDatosIniciales(boolean notifySuccess) {
-        if (sessionManager == null) {
-            mostrarAdvertencia("No hay sesión activa para cargar los datos.");
+    /**
+     * Muestra de inmediato los últimos datos guardados localmente para este
+     * usuario y backend; {@link #cargarDatosIniciales(boolean)} los
+     * reconcilia después con el servidor sin indicador de carga.
+     */
+    private void mostrarSnapshotLocal() {
+        DataSyncEngine motor = obtenerMotorDatos();
+        if (motor == null || !motor.getSnapshot().loaded().isEmpty()) {
             return;
         }
-
-        String token = sessionManager.getAccessToken();
-        if (token == null || token.isBlank()) {
-            mostrarAdvertencia("No se encontró un token de acceso válido.");
+        LocalSnapshotStore store = obtenerSnapshotLocal();
+        if (store == null) {
             return;
         }
+        store.load().ifPresent(snapshot -> {
+            // Las siguientes sincronizaciones solo piden lo que cambió desde el snapshot
+            motor.seed(snapshot.spaces(), snapshot.users(), snapshot.reservations());
+            System.out.println("⚡ Datos mostrados desde snapshot local (guardado " + snapshot.savedAt() + ")");
+        });
+    }
 
-        if (datosCargando) {
-            return;
+    private void guardarSnapshotLocal(DataSyncEngine.Snapshot snapshot) {
+        LocalSnapshotStore store = obtenerSnapshotLocal();
+        if (store != null) {
+            store.saveInBackground(new LocalSnapshotStore.Snapshot(
+                    snapshot.spaces(), snapshot.users(), snapshot.reservations()));
         }
+    }
 
-        datosCargando = true;
-        boolean mostrarCarga = notifySuccess || !datosInicialesCargados;
+    private LocalSnapshotStore obtenerSnapshotLocal() {
+        if (snapshotLocal == null && sessionManager != null) {
+            Long userId = sessionManager.getUserId();
+            String email = sessionManager.getUserEmail();
+            if (userId != null) {
+                snapshotLocal = LocalSnapshotStore.forOwner("user:" + userId);
+            } else if (email != null && !email.isBlank()) {
+                snapshotLocal = LocalSnapshotStore.forOwner(email.toLowerCase(Locale.ROOT));
+            }
+        }
+        return snapshotLocal;
+    }
 
-        Task<DatosIniciales> task = new Task<>() {
-            @Override
-            protected DatosIniciales call() throws Exception {
-                List<String> warnings = new ArrayList<>();
-                
-                // ✅ OPTIMIZACIÓN: Cargar datos en paralelo con timeout de 2 segundos
-                CompletableFuture<List<SpaceDTO>> espaciosFuture = CompletableFuture.supplyAsync(() -> 
-                    cargarEspaciosOptimizado(token, warnings));
-                
-                CompletableFuture<List<UserDTO>> usuariosFuture = CompletableFuture.supplyAsync(() -> 
-                    cargarUsuariosOptimizado(token, warnings));
-                
-                CompletableFuture<List<ReservationDTO>> reservasFuture = CompletableFuture.supplyAsync(() -> 
-                    cargarReservasOptimizado(token, warnings));
-                
-                // Esperar todas las operaciones con timeout de 2 segundos
-                CompletableFuture.allOf(espaciosFuture, usuariosFuture, reservasFuture)
-                    .get(2, TimeUnit.SECONDS);
-                
-                List<SpaceDTO> espacios = espaciosFuture.get();
-                List<UserDTO> usuarios = usuariosFuture.get();
-                List<ReservationDTO> reservas = reservasFuture.get();
-                
-                CurrentWeatherDTO clima = climaActual; // El clima se actualiza por separado
+    /**
+     * Motor de sincronización de la sesión: descarga espacios, usuarios y
+     * reservas una sola vez por actualización y publica snapshots inmutables
+     * a los que se suscribe el panel.
+     */
+    private DataSyncEngine obtenerMotorDatos() {
+        if (motorDatos == null && sessionManager != null) {
+            motorDatos = DataSyncEngine.forSession(sessionManager, DataSyncEngine.Profile.ADMIN, services);
+            suscripcionDatos = motorDatos.subscribe(this::aplicarSnapshot, Platform::runLater);
+        }
+        return motorDatos;
+    }
 
-                return new DatosIniciales(espacios, usuarios, reservas, clima, warnings);
-            }
-        };
+    private boolean sincronizando() {
+        return motorDatos != null && motorDatos.isRefreshing();
+    }
 
-        if (mostrarCarga) {
-            task.setOnRunning(event -> mostrarIndicadorCarga("Cargando datos del sistema..."));
+    private void aplicarSnapshot(DataSyncEngine.Snapshot snapshot) {
+        actualizarEstadoCarga(snapshot);
+        if (!snapshot.hasChanges()) {
+            // Solo cambió el estado de carga de alguna fuente
+            return;
         }
 
-        task.setOnSucceeded(event -> {
-            datosCargando = false;
-            DatosIniciales resultado = task.getValue();
+        // Cada fuente llega por separado: solo se reemplazan las colecciones que cambiaron
+        if (snapshot.hasChanged(DataSyncEngine.Source.SPACES)) {
+            listaEspacios.setAll(snapshot.spaces());
+        }
+        if (snapshot.hasChanged(DataSyncEngine.Source.USERS)) {
+            listaUsuarios.setAll(snapshot.users());
+        }
+        if (snapshot.hasChanged(DataSyncEngine.Source.SPACES) || snapshot.hasChanged(DataSyncEngine.Source.USERS)) {
+            // Igual que las listas: las ediciones locales se reemplazan por lo sincronizado
+            directorio = snapshot.directory();
+        }
+        boolean reservasCambiaron = snapshot.hasChanged(DataSyncEngine.Source.RESERVATIONS);
+        if (reservasCambiaron) {
+            listaReservas.setAll(snapshot.reservations());
+        }
+        actualizarDatosPaginacionReservas();
 
-            datosInicialesCargados = true;
+        actualizarOpcionesFiltros();
 
-            listaEspacios.setAll(resultado.espacios());
-            listaUsuarios.setAll(resultado.usuarios());
-            listaReservas.setAll(resultado.reservas());
+        filtrarEspacios();
+        filtrarUsuarios();
+        // La tabla de reservas solo se vuelve a pedir si algo cambió
+        if (reservasCambiaron || listaReservasFiltradas.isEmpty()) {
+            refrescarPaginaReservas();
+        }
 
-            actualizarOpcionesFiltros();
+        cargarDatosDashboard();
+        cargarClima();
 
-            filtrarEspacios();
-            filtrarUsuarios();
-            filtrarReservas();
+        if (snapshot.hasChanges() && !snapshot.provisional()) {
+            guardarSnapshotLocal(snapshot);
+        }
+    }
 
-            climaActual = resultado.clima();
-            loadWeather();
+    /**
+     * Mientras una tabla espera su primera carga indica que los datos vienen
+     * en camino en lugar de aparecer vacía.
+     */
+    private void actualizarEstadoCarga(DataSyncEngine.Snapshot snapshot) {
+        actualizarPlaceholder(tablaEspacios, snapshot, DataSyncEngine.Source.SPACES,
+                "Cargando espacios…", "No se pudieron cargar los espacios", "No hay espacios registrados");
+        actualizarPlaceholder(tablaUsuarios, snapshot, DataSyncEngine.Source.USERS,
+                "Cargando usuarios…", "No se pudieron cargar los usuarios", "No hay usuarios registrados");
+        actualizarPlaceholderReservas(snapshot);
+    }
 
-            cargarDatosDashboard();
-            cargarClima();
+    private void actualizarPlaceholderReservas(DataSyncEngine.Snapshot snapshot) {
+        actualizarPlaceholder(tablaReservas, snapshot, DataSyncEngine.Source.RESERVATIONS,
+                "Cargando reservas…", "No se pudieron cargar las reservas", "No hay reservas registradas");
+    }
 
-            if (mostrarCarga) {
-                ocultarIndicadorCarga();
+    private void actualizarPlaceholder(TableView<?> tabla, DataSyncEngine.Snapshot snapshot,
+            DataSyncEngine.Source fuente, String cargando, String error, String vacio) {
+        if (tabla == null) {
+            return;
+        }
+        String texto = vacio;
+        if (!snapshot.isLoaded(fuente)) {
+            if (snapshot.isLoading(fuente)) {
+                texto = cargando;
+            } else if (snapshot.failures().containsKey(fuente)) {
+                texto = error;
             }
+        }
+        tabla.setPlaceholder(new Label(texto));
+    }
 
-            if (notifySuccess) {
-                mostrarExito("Datos actualizados exitosamente");
-            }
+    private void cargarDatosIniciales(boolean notifySuccess) {
+        if (sessionManager == null) {
+            mostrarAdvertencia("No hay sesión activa para cargar los datos.");
+            return;
+        }
 
-            if (!resultado.warnings().isEmpty()) {
-                mostrarAdvertencia(String.join("\n", resultado.warnings()));
-            }
-        });
+        String token = sessionManager.getAccessToken();
+        if (token == null || token.isBlank()) {
+            mostrarAdvertencia("No se encontró un token de acceso válido.");
+            return;
+        }
 
-        task.setOnFailed(event -> {
-            datosCargando = false;
+        DataSyncEngine motor = obtenerMotorDatos();
+        boolean mostrarCarga = notifySuccess || motor.getSnapshot().loaded().isEmpty();
+        if (mostrarCarga) {
+            mostrarIndicadorCarga("Cargando datos del sistema...");
+        }
+
+        // Una sola descarga por fuente aunque varias vistas la pidan a la vez. Cada
+        // fuente se muestra al llegar; la que pase su plazo sigue cargando en
+        // segundo plano. La prioridad (interactiva o de auto-refresh) viaja con cada carga
+        motor.refresh().whenComplete((snapshot, error) -> Platform.runLater(() -> {
             if (mostrarCarga) {
                 ocultarIndicadorCarga();
             }
-            Throwable error = task.getException();
-            String message = error != null ? error.getMessage() : "Error desconocido";
-            mostrarError("No se pudieron cargar los datos: " + message);
-        });
+            if (error != null) {
+                mostrarError("No se pudieron cargar los datos: " + construirMensajeError(error));
+                if (refrescoAutomatico != null) {
+                    refrescoAutomatico.refreshFailed();
+                }
+                return;
+            }
 
-        task.setOnCancelled(event -> {
-            datosCargando = false;
-            if (mostrarCarga) {
-                ocultarIndicadorCarga();
+            loadWeather();
+
+            if (!snapshot.loading().isEmpty()) {
+                System.out.println("⏳ Siguen cargando en segundo plano: " + snapshot.loading());
             }
-        });
 
-        Thread thread = new Thread(task);
-        thread.setDaemon(true);
-        thread.start();
-    }
-    
-    /**
-     * Carga espacios usando cache si está disponible y válido (< 2 segundos)
-     */
-    private List<SpaceDTO> cargarEspaciosOptimizado(String token, List<String> warnings) {
-        // Intentar obtener desde cache
-        List<SpaceDTO> cached = DataCache.getCachedSpaces();
-        if (cached != null && !cached.isEmpty()) {
-            System.out.println("✓ Espacios obtenidos desde caché");
-            return cached;
-        }
-        
-        // Si no hay cache válido, cargar desde API
-        try {
-            List<SpaceDTO> espacios = spaceController.loadSpaces(token);
-            if (espacios == null) {
-                return Collections.emptyList();
+            if (notifySuccess) {
+                mostrarExito("Datos actualizados exitosamente");
             }
-            List<SpaceDTO> filtered = espacios.stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            
-            // Almacenar en cache
-            DataCache.cacheSpaces(filtered);
-            System.out.println("✓ " + filtered.size() + " espacios cargados y cacheados");
-            return filtered;
-        } catch (Exception exception) {
-            warnings.add("No se pudieron cargar los espacios: " + construirMensajeError(exception));
-            return Collections.emptyList();
-        }
-    }
-    
-    /**
-     * Carga usuarios usando cache si está disponible y válido (< 2 segundos)
-     */
-    private List<UserDTO> cargarUsuariosOptimizado(String token, List<String> warnings) {
-        // Intentar obtener desde cache
-        List<UserDTO> cached = DataCache.getCachedUsers();
-        if (cached != null && !cached.isEmpty()) {
-            System.out.println("✓ Usuarios obtenidos desde caché");
-            return cached;
-        }
-        
-        // Si no hay cache válido, cargar desde API
-        try {
-            List<UserDTO> usuarios = userController.loadUsers(token);
-            if (usuarios == null) {
-                return Collections.emptyList();
+
+            if (!snapshot.failures().isEmpty()) {
+                mostrarAdvertencia(construirAdvertenciasSincronizacion(snapshot));
             }
-            List<UserDTO> filtered = usuarios.stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            
-            // Almacenar en cache
-            DataCache.cacheUsers(filtered);
-            System.out.println("✓ " + filtered.size() + " usuarios cargados y cacheados");
-            return filtered;
-        } catch (Exception exception) {
-            warnings.add("No se pudieron cargar los usuarios: " + construirMensajeError(exception));
-            return Collections.emptyList();
-        }
-    }
-    
-    /**
-     * Carga reservas usando cache si está disponible y válido (< 2 segundos)
-     */
-    private List<ReservationDTO> cargarReservasOptimizado(String token, List<String> warnings) {
-        // Intentar obtener desde cache
-        List<ReservationDTO> cached = DataCache.getCachedReservations();
-        if (cached != null && !cached.isEmpty()) {
-            System.out.println("✓ Reservas obtenidas desde caché");
-            return cached;
-        }
-        
-        // Si no hay cache válido, cargar desde API
-        try {
-            List<ReservationDTO> reservas = reservationController.loadReservations(token);
-            if (reservas == null) {
-                return Collections.emptyList();
+            if (refrescoAutomatico != null) {
+                if (snapshot.failures().isEmpty() || snapshot.hasChanges()) {
+                    refrescoAutomatico.refreshCompleted(snapshot.hasChanges());
+                } else {
+                    refrescoAutomatico.refreshFailed();
+                }
             }
-            List<ReservationDTO> filtered = reservas.stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            
-            // Almacenar en cache
-            DataCache.cacheReservations(filtered);
-            System.out.println("✓ " + filtered.size() + " reservas cargadas y cacheadas");
-            return filtered;
-        } catch (Exception exception) {
-            warnings.add("No se pudieron cargar las reservas: " + construirMensajeError(exception));
-            return Collections.emptyList();
-        }
+        }));
+    }
+
+    private String construirAdvertenciasSincronizacion(DataSyncEngine.Snapshot snapshot) {
+        return snapshot.failures().entrySet().stream()
+                .map(fallo -> "No se pudieron cargar " + switch (fallo.getKey()) {
+                    case SPACES -> "los espacios";
+                    case USERS -> "los usuarios";
+                    case RESERVATIONS -> "las reservas";
+                } + ": " + construirMensajeError(fallo.getValue()))
+                .collect(Collectors.joining("\n"));
     }
 
     private List<SpaceDTO> cargarEspaciosDesdeApi(String token, List<String> warnings) {
@@ -1881,7 +1928,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
      * Carga las reservas desde la base de datos
      */
     private void cargarReservas() {
-        filtrarReservas();
+        refrescarPaginaReservas();
     }
 
     /**
@@ -1892,23 +1939,71 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     }
 
     /**
-     * Inicia el sistema de auto-refresh cada 5 segundos
+     * Inicia el auto-refresh adaptativo: entre 5 segundos y 2 minutos según
+     * lleguen cambios, y en pausa mientras la ventana está minimizada o sin foco.
      * Solo actualiza si la vista está visible y activa
      */
     private void iniciarActualizacionDatos() {
-        if (autoRefreshTimeline != null) {
-            autoRefreshTimeline.stop();
+        if (refrescoAutomatico != null) {
+            refrescoAutomatico.stop();
         }
-        
-        autoRefreshTimeline = new Timeline(new KeyFrame(AUTO_REFRESH_INTERVAL, event -> {
-            if (!datosCargando && autoRefreshEnabled && contenedorPrincipal != null && contenedorPrincipal.isVisible()) {
-                // Actualización silenciosa en background
-                cargarDatosIniciales(false);
+
+        refrescoAutomatico = new AdaptiveRefreshScheduler("panel de administración",
+                AUTO_REFRESH_MIN_INTERVAL, AUTO_REFRESH_MAX_INTERVAL, () -> {
+            if (sincronizando() || !autoRefreshEnabled || contenedorPrincipal == null
+                    || !contenedorPrincipal.isVisible() || backendEnPausa() || canalEventosConectado()) {
+                return false;
             }
+            // Actualización silenciosa en background: cede el paso a las acciones del usuario
+            RequestScheduler.runInBackground(() -> cargarDatosIniciales(false));
+            return true;
+        });
+        refrescoAutomatico.attachTo(stage);
+        refrescoAutomatico.start();
+        System.out.println("✓ Auto-refresh activado (adaptativo, desde cada 5 segundos)");
+        iniciarCanalEventos();
+    }
+
+    /**
+     * Se suscribe al canal de cambios del backend (SSE). Mientras está
+     * conectado el polling queda en pausa y solo se recarga cuando llega un
+     * cambio; si el canal no está disponible el auto-refresh sigue igual.
+     */
+    private void iniciarCanalEventos() {
+        if (canalEventos != null) {
+            return;
+        }
+        canalEventos = new ChangeEventStream(services.apiClient(),
+                () -> sessionManager != null ? sessionManager.getAccessToken() : null);
+        canalEventos.addListener(this::procesarEventosCambios);
+        canalEventos.start();
+    }
+
+    private boolean canalEventosConectado() {
+        return canalEventos != null && canalEventos.isConnected();
+    }
+
+    /**
+     * Descarga solo las entidades que cambiaron y las aplica en el motor de
+     * datos, que publica el snapshot actualizado a las tablas.
+     */
+    private void procesarEventosCambios(List<ChangeEvent> eventos) {
+        DataSyncEngine motor = motorDatos;
+        if (motor == null || motor.isClosed()) {
+            return;
+        }
+        RequestScheduler.runInBackground(() -> motor.applyChanges(eventos).exceptionally(error -> {
+            System.err.println("⚠️ No se pudieron aplicar los cambios recibidos: " + error.getMessage());
+            return null;
         }));
-        autoRefreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        autoRefreshTimeline.play();
-        System.out.println("✓ Auto-refresh activado (cada 5 segundos)");
+    }
+
+    /**
+     * Indica si algún circuit breaker de los endpoints del panel está abierto;
+     * en ese caso se omite el ciclo de auto-refresh en lugar de insistir.
+     */
+    private boolean backendEnPausa() {
+        return CircuitBreakerRegistry.getDefault().isAnyOpen(ENDPOINTS_AUTO_REFRESH);
     }
 
     private void iniciarActualizacionClima() {
@@ -1922,16 +2017,26 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     }
 
     private void detenerActualizaciones() {
-        if (autoRefreshTimeline != null) {
-            autoRefreshTimeline.stop();
-            autoRefreshTimeline = null;
+        if (refrescoAutomatico != null) {
+            refrescoAutomatico.stop();
+            refrescoAutomatico = null;
             System.out.println("✓ Auto-refresh detenido");
         }
         if (climaTimeline != null) {
             climaTimeline.stop();
             climaTimeline = null;
         }
-        datosInicialesCargados = false;
+        if (busquedaReservasPausa != null) {
+            busquedaReservasPausa.stop();
+        }
+        if (canalEventos != null) {
+            canalEventos.close();
+            canalEventos = null;
+        }
+        if (suscripcionDatos != null) {
+            suscripcionDatos.close();
+            suscripcionDatos = null;
+        }
     }
     
     /**
@@ -2001,10 +2106,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
 
     private HBox crearAlertaDesdeReserva(ReservationDTO reserva) {
         // Buscar el espacio correspondiente
-        SpaceDTO espacio = listaEspacios.stream()
-                .filter(e -> e.id() != null && e.id().equals(reserva.spaceId()))
-                .findFirst()
-                .orElse(null);
+        SpaceDTO espacio = directorio.space(reserva.spaceId());
         
         String titulo = espacio != null && espacio.name() != null && !espacio.name().isBlank()
                 ? espacio.name()
@@ -2533,101 +2635,126 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     }
     
     /**
-     * Filtra las reservas según los criterios seleccionados
+     * Aplica los filtros de reservas: vuelve a la primera página y la pide al
+     * backend con los filtros actuales.
      */
     private void filtrarReservas() {
-        if (tablaReservas == null) return;
-        
-        String busqueda = txtBuscarReserva != null ? txtBuscarReserva.getText().toLowerCase() : "";
-        String estadoSeleccionado = cmbEstadoReserva != null ? cmbEstadoReserva.getValue() : "Todos los estados";
+        if (busquedaReservasPausa != null) {
+            busquedaReservasPausa.stop();
+        }
+        paginaActualReservas = 0;
+        cargarPaginaReservas();
+    }
+
+    /**
+     * Descarta las páginas en caché y vuelve a cargar la página actual,
+     * p. ej. después de que las reservas cambiaron.
+     */
+    private void refrescarPaginaReservas() {
+        if (paginasReservas != null) {
+            paginasReservas.invalidate();
+        }
+        cargarPaginaReservas();
+    }
+
+    /**
+     * Pide la página actual de reservas. Las páginas se filtran y ordenan en
+     * el servidor; si una respuesta llega después de otra solicitud más
+     * reciente se descarta. Si la página no se puede cargar la tabla se vacía
+     * y muestra el error en lugar de seguir mostrando la página anterior.
+     */
+    private void cargarPaginaReservas() {
+        if (tablaReservas == null || paginasReservas == null) return;
+
+        ReservationPageQuery consulta = construirConsultaReservas();
+        int pagina = paginaActualReservas;
+        long solicitud = ++solicitudPaginaReservas;
+        String token = sessionManager != null ? sessionManager.getAccessToken() : null;
+
+        paginasReservas.getPage(consulta, pagina, token).whenComplete((resultado, error) -> Platform.runLater(() -> {
+            if (solicitud != solicitudPaginaReservas) {
+                return;
+            }
+            if (error != null) {
+                Throwable causa = error.getCause() != null ? error.getCause() : error;
+                System.err.println("❌ Error al cargar la página de reservas: " + causa.getMessage());
+                listaReservasFiltradas.clear();
+                tablaReservas.setItems(listaReservasFiltradas);
+                tablaReservas.setPlaceholder(new Label("No se pudo cargar la página de reservas: "
+                        + construirMensajeError(causa)));
+                totalReservasFiltradas = 0;
+                actualizarEstadisticasReservas();
+                return;
+            }
+            // Si la página quedó fuera de rango (p. ej. tras eliminar), ir a la última
+            if (resultado.totalPages() > 0 && pagina >= resultado.totalPages()) {
+                paginaActualReservas = resultado.totalPages() - 1;
+                cargarPaginaReservas();
+                return;
+            }
+            listaReservasFiltradas.setAll(resultado.content());
+            tablaReservas.setItems(listaReservasFiltradas);
+            if (motorDatos != null) {
+                actualizarPlaceholderReservas(motorDatos.getSnapshot());
+            }
+            totalPaginasReservas = Math.max(1, resultado.totalPages());
+            totalReservasFiltradas = resultado.totalElements();
+            actualizarEstadisticasReservas();
+        }));
+    }
+
+    private ReservationPageQuery construirConsultaReservas() {
+        String busqueda = txtBuscarReserva != null ? txtBuscarReserva.getText() : null;
+        String estadoSeleccionado = cmbEstadoReserva != null ? cmbEstadoReserva.getValue() : null;
+        String estado = estadoSeleccionado == null || "Todos los estados".equals(estadoSeleccionado)
+                ? null
+                : codigoEstadoReserva(estadoSeleccionado);
         LocalDate fechaDesde = dpFechaDesdeReservas != null ? dpFechaDesdeReservas.getValue() : null;
         LocalDate fechaHasta = dpFechaHastaReservas != null ? dpFechaHastaReservas.getValue() : null;
-        
-        listaReservasFiltradas.clear();
-        listaReservasFiltradas.addAll(
-            listaReservas.stream()
-                .filter(r -> {
-                    if (busqueda.isEmpty()) return true;
-
-                    // Buscar por ID de usuario o espacio
-                    String nombreUsuario = "";
-                    if (r.userId() != null) {
-                        UserDTO usuario = listaUsuarios.stream()
-                            .filter(u -> u.id() != null && u.id().equals(r.userId()))
-                            .findFirst().orElse(null);
-                        if (usuario != null && usuario.name() != null) {
-                            nombreUsuario = usuario.name().toLowerCase();
-                        }
-                    }
-                    
-                    String nombreEspacio = "";
-                    if (r.spaceId() != null) {
-                        SpaceDTO espacio = listaEspacios.stream()
-                            .filter(e -> e.id() != null && e.id().equals(r.spaceId()))
-                            .findFirst().orElse(null);
-                        if (espacio != null && espacio.name() != null) {
-                            nombreEspacio = espacio.name().toLowerCase();
-                        }
-                    }
-                    
-                    boolean coincideUsuario = nombreUsuario.contains(busqueda);
-                    boolean coincideEspacio = nombreEspacio.contains(busqueda);
-                    boolean coincideId = String.valueOf(r.id()).contains(busqueda);
-
-                    return coincideUsuario || coincideEspacio || coincideId;
-                })
-                .filter(r -> {
-                    if ("Todos los estados".equals(estadoSeleccionado)) {
-                        return true;
-                    }
-                    String estado = mapearEstadoReserva(r.status());
-                    return estado.equalsIgnoreCase(estadoSeleccionado);
-                })
-                .filter(r -> {
-                    // Filtro por rango de fechas
-                    if (fechaDesde == null && fechaHasta == null) return true;
-                    
-                    LocalDate fechaReserva = r.startTime() != null ? r.startTime().toLocalDate() : null;
-                    if (fechaReserva == null) return false;
-                    
-                    if (fechaDesde != null && fechaReserva.isBefore(fechaDesde)) {
-                        return false;
-                    }
-                    if (fechaHasta != null && fechaReserva.isAfter(fechaHasta)) {
-                        return false;
-                    }
-                    return true;
-                })
-                // Ordenar por prioridad de estado: Pendiente -> Confirmada -> Checked In -> No Show -> Cancelada
-                .sorted((r1, r2) -> {
-                    String estado1 = mapearEstadoReserva(r1.status());
-                    String estado2 = mapearEstadoReserva(r2.status());
-                    int prioridad1 = obtenerPrioridadEstado(estado1);
-                    int prioridad2 = obtenerPrioridadEstado(estado2);
-                    return Integer.compare(prioridad1, prioridad2);
-                })
-                .collect(Collectors.toList())
-        );
+        Integer filas = cmbFilasPorPagina != null ? cmbFilasPorPagina.getValue() : null;
+        return new ReservationPageQuery(estado, fechaDesde, fechaHasta, busqueda,
+                ReservationPageQuery.DEFAULT_SORT, filas != null ? filas : 25);
+    }
 
-        tablaReservas.setItems(listaReservasFiltradas);
-        actualizarEstadisticasReservas();
+    /**
+     * Convierte el estado mostrado en el filtro al código del backend.
+     */
+    private String codigoEstadoReserva(String estadoMostrado) {
+        for (String codigo : List.of("PENDING", "CONFIRMED", "CANCELED", "CHECKED_IN", "NO_SHOW")) {
+            if (mapearEstadoReserva(codigo).equalsIgnoreCase(estadoMostrado)) {
+                return codigo;
+            }
+        }
+        return estadoMostrado.toUpperCase(Locale.ROOT);
     }
-    
+
     /**
-     * Define la prioridad de ordenamiento según el estado de la reserva
-     * @param estado Estado de la reserva
-     * @return Prioridad (menor número = mayor prioridad)
+     * Búsqueda por ID, nombre de usuario o nombre de espacio; la usa la
+     * paginación local cuando el backend no pagina.
      */
-    private int obtenerPrioridadEstado(String estado) {
-        if (estado == null) return 999;
-        return switch (estado) {
-            case "Pendiente" -> 1;      // Primero (requiere acción)
-            case "Confirmada" -> 2;     // Segundo (activas)
-            case "Checked In" -> 3;     // Tercero (asistidas)
-            case "No Show" -> 4;        // Cuarto (inasistencias)
-            case "Cancelada" -> 5;      // Último (finalizadas)
-            default -> 999;             // Desconocidos al final
-        };
+    private boolean coincideBusquedaReserva(ReservationDTO reserva, String busqueda) {
+        String texto = busqueda.toLowerCase();
+        String nombreUsuario = reserva.userId() != null
+                ? nombresUsuariosReserva.getOrDefault(reserva.userId(), "")
+                : "";
+        String nombreEspacio = reserva.spaceId() != null
+                ? nombresEspaciosReserva.getOrDefault(reserva.spaceId(), "")
+                : "";
+        return nombreUsuario.contains(texto)
+                || nombreEspacio.contains(texto)
+                || String.valueOf(reserva.id()).contains(texto);
+    }
+
+    private void actualizarDatosPaginacionReservas() {
+        reservasParaPaginar = List.copyOf(listaReservas);
+        nombresUsuariosReserva = listaUsuarios.stream()
+                .filter(u -> u.id() != null && u.name() != null)
+                .collect(Collectors.toUnmodifiableMap(UserDTO::id, u -> u.name().toLowerCase(),
+                        (primero, segundo) -> primero));
+        nombresEspaciosReserva = listaEspacios.stream()
+                .filter(e -> e.id() != null && e.name() != null)
+                .collect(Collectors.toUnmodifiableMap(SpaceDTO::id, e -> e.name().toLowerCase(),
+                        (primero, segundo) -> primero));
     }
     
     // ==================== NUEVOS MÉTODOS DE FILTRADO Y PAGINACIÓN ====================
@@ -2719,9 +2846,10 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
      */
     @FXML
     private void paginaAnteriorReservas() {
-        // Por ahora, solo muestra un mensaje
-        // La paginación completa se implementará en una fase posterior
-        System.out.println("Navegando a página anterior...");
+        if (paginaActualReservas > 0) {
+            paginaActualReservas--;
+            cargarPaginaReservas();
+        }
     }
     
     /**
@@ -2729,9 +2857,10 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
      */
     @FXML
     private void paginaSiguienteReservas() {
-        // Por ahora, solo muestra un mensaje
-        // La paginación completa se implementará en una fase posterior
-        System.out.println("Navegando a página siguiente...");
+        if (paginaActualReservas + 1 < totalPaginasReservas) {
+            paginaActualReservas++;
+            cargarPaginaReservas();
+        }
     }
     
     /**
@@ -2758,7 +2887,10 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             lblTotalReservas.setText(listaReservas.size() + " registros");
         }
         if (lblReservasFiltradas != null) {
-            lblReservasFiltradas.setText(listaReservasFiltradas.size() + " mostrados");
+            lblReservasFiltradas.setText(listaReservasFiltradas.size() + " de " + totalReservasFiltradas + " mostrados");
+        }
+        if (lblPaginaReservas != null) {
+            lblPaginaReservas.setText("Página " + (paginaActualReservas + 1) + " de " + totalPaginasReservas);
         }
     }
     
@@ -2857,8 +2989,6 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         ejecutarOperacionAsync(
                 () -> spaceController.changeStatus(espacio.id(), nuevoEstado, token),
                 dto -> {
-                    // Invalidar caché para que el próximo refresh obtenga datos actualizados
-                    DataCache.invalidateSpaces();
                     // El DTO ya viene del servidor, solo actualizar listas
                     actualizarEspacioEnListas(dto);
                     mostrarAlertaEstilizada(
@@ -2898,6 +3028,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                     return null;
                 },
                 unused -> {
+                    aplicarEdicion(motor -> motor.removeSpace(espacio.id()));
                     listaEspacios.removeIf(item -> Objects.equals(item.id(), espacio.id()));
                     listaEspaciosFiltrados.removeIf(item -> Objects.equals(item.id(), espacio.id()));
                     filtrarEspacios();
@@ -2980,6 +3111,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                                     : descripcionNormalizada,
                             orden, activa, token),
                     nuevaImagen -> {
+                        actualizarImagenesEspacio(espacio.id(), ids -> ids.add(nuevaImagen.id()));
                         imagenes.add(nuevaImagen);
                         ordenarImagenes(imagenes);
                         listView.refresh();
@@ -3105,6 +3237,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                     return imagen;
                 },
                 deleted -> {
+                    ImageCache.getInstance().remove(deleted.id());
+                    actualizarImagenesEspacio(deleted.spaceId(), ids -> ids.remove(deleted.id()));
                     imagenes.removeIf(item -> Objects.equals(item.id(), deleted.id()));
                     ordenarImagenes(imagenes);
                     ordenSpinner.getValueFactory().setValue(Math.max(0, imagenes.size()));
@@ -3396,6 +3530,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             ejecutarOperacionAsync(
                     () -> spaceController.createSpace(input, token),
                     dto -> {
+                        aplicarEdicion(motor -> motor.upsertSpace(dto));
+                        directorio = directorio.withSpace(dto);
                         listaEspacios.add(dto);
                         filtrarEspacios();
                         cargarDatosDashboard();
@@ -3427,33 +3563,33 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
 
         mostrarIndicadorCarga("Subiendo " + imagenes.size() + " imagen(es)...");
 
-        Task<Integer> task = new Task<>() {
+        Task<List<SpaceImageDTO>> task = new Task<>() {
             @Override
-            protected Integer call() throws Exception {
-                int exitosas = 0;
+            protected List<SpaceImageDTO> call() throws Exception {
+                List<SpaceImageDTO> subidas = new ArrayList<>();
                 for (int i = 0; i < imagenes.size(); i++) {
                     Path imagen = imagenes.get(i);
                     try {
-                        spaceImageController.uploadImage(
+                        subidas.add(spaceImageController.uploadImage(
                             spaceId,
                             imagen,
                             "Imagen " + (i + 1),
                             i,
                             true,
                             token
-                        );
-                        exitosas++;
+                        ));
                     } catch (Exception e) {
                         System.err.println("Error subiendo imagen " + imagen.getFileName() + ": " + e.getMessage());
                     }
                 }
-                return exitosas;
+                return subidas;
             }
         };
 
         task.setOnSucceeded(e -> {
             ocultarIndicadorCarga();
-            int exitosas = task.getValue();
+            List<SpaceImageDTO> subidas = task.getValue();
+            int exitosas = subidas.size();
             if (exitosas == imagenes.size()) {
                 mostrarExito(String.format("Espacio creado con %d imagen(es)", exitosas));
             } else if (exitosas > 0) {
@@ -3462,7 +3598,9 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             } else {
                 mostrarAdvertencia("Espacio creado pero no se pudieron subir las imágenes");
             }
-            cargarDatosIniciales(false);
+            if (exitosas > 0) {
+                actualizarImagenesEspacio(spaceId, ids -> subidas.forEach(subida -> ids.add(subida.id())));
+            }
         });
 
         task.setOnFailed(e -> {
@@ -3547,6 +3685,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                     return null;
                 },
                 unused -> {
+                    aplicarEdicion(motor -> motor.removeUser(usuario.id()));
                     listaUsuarios.removeIf(item -> Objects.equals(item.id(), usuario.id()));
                     listaUsuariosFiltrados.removeIf(item -> Objects.equals(item.id(), usuario.id()));
                     filtrarUsuarios();
@@ -3711,6 +3850,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             ejecutarOperacionAsync(
                     () -> userController.createUser(input, token),
                     dto -> {
+                        aplicarEdicion(motor -> motor.upsertUser(dto));
+                        directorio = directorio.withUser(dto);
                         listaUsuarios.add(dto);
                         filtrarUsuarios();
                         cargarDatosDashboard();
@@ -3736,10 +3877,45 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         }
     }
 
+    /**
+     * Aplica al motor de datos lo que devolvió el backend tras una edición: lo
+     * escribe en la caché y publica un snapshot que actualiza tablas y
+     * métricas sin recargar las colecciones.
+     */
+    private void aplicarEdicion(Consumer<DataSyncEngine> edicion) {
+        DataSyncEngine motor = obtenerMotorDatos();
+        if (motor != null) {
+            edicion.accept(motor);
+        }
+    }
+
+    /**
+     * Refleja en el espacio las imágenes subidas o eliminadas, que el backend
+     * no devuelve como espacio actualizado.
+     */
+    private void actualizarImagenesEspacio(Long spaceId, Consumer<List<Long>> cambio) {
+        SpaceDTO espacio = directorio.space(spaceId);
+        if (espacio == null) {
+            // Espacio aún no sincronizado: se obtiene completo en el próximo refresh
+            DataCache.invalidateSpaces();
+            return;
+        }
+        List<Long> imageIds = new ArrayList<>(espacio.imageIds() != null ? espacio.imageIds() : List.of());
+        cambio.accept(imageIds);
+        imageIds.removeIf(Objects::isNull);
+        actualizarEspacioEnListas(new SpaceDTO(espacio.id(), espacio.name(), espacio.type(), espacio.capacity(),
+                espacio.description(), espacio.location(), espacio.active(), espacio.maxReservationDuration(),
+                espacio.requiresApproval(), espacio.averageRating(), espacio.reviewCount(), espacio.createdAt(),
+                espacio.updatedAt(), List.copyOf(imageIds), espacio.scheduleIds(), espacio.reservationIds()));
+    }
+
     private void actualizarEspacioEnListas(SpaceDTO espacioActualizado) {
         if (espacioActualizado == null || espacioActualizado.id() == null) {
             return;
         }
+        // Los espacios se guardan varios minutos: la caché debe quedar con el DTO del servidor
+        aplicarEdicion(motor -> motor.upsertSpace(espacioActualizado));
+        directorio = directorio.withSpace(espacioActualizado);
         // Actualizar en la lista principal
         reemplazarEspacio(listaEspacios, espacioActualizado);
         
@@ -3824,6 +4000,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         if (usuarioActualizado == null || usuarioActualizado.id() == null) {
             return;
         }
+        aplicarEdicion(motor -> motor.upsertUser(usuarioActualizado));
+        directorio = directorio.withUser(usuarioActualizado);
         reemplazarUsuario(listaUsuarios, usuarioActualizado);
         reemplazarUsuario(listaUsuariosFiltrados, usuarioActualizado);
         filtrarUsuarios();
@@ -3875,12 +4053,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         
         // Información de la reserva en formato vertical
         // Buscar usuario y espacio por ID
-        UserDTO usuario = listaUsuarios.stream()
-            .filter(u -> u.id().equals(reserva.userId()))
-            .findFirst().orElse(null);
-        SpaceDTO espacio = listaEspacios.stream()
-            .filter(e -> e.id().equals(reserva.spaceId()))
-            .findFirst().orElse(null);
+        UserDTO usuario = directorio.user(reserva.userId());
+        SpaceDTO espacio = directorio.space(reserva.spaceId());
             
         VBox infoBox = new VBox(6);
         infoBox.getChildren().addAll(
@@ -3965,12 +4139,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         
         // Confirmación
         // Buscar usuario y espacio por ID
-        UserDTO usuario = listaUsuarios.stream()
-            .filter(u -> u.id().equals(reserva.userId()))
-            .findFirst().orElse(null);
-        SpaceDTO espacio = listaEspacios.stream()
-            .filter(e -> e.id().equals(reserva.spaceId()))
-            .findFirst().orElse(null);
+        UserDTO usuario = directorio.user(reserva.userId());
+        SpaceDTO espacio = directorio.space(reserva.spaceId());
             
         Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION);
         confirmacion.setTitle("Aprobar Reserva");
@@ -4013,21 +4183,20 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         task.setOnSucceeded(e -> {
             ReservationDTO approved = task.getValue();
             if (approved != null) {
-                // Nota: ReservationDTO es inmutable (record), el backend ya actualizó el estado
-                // Solo necesitamos recargar los datos
-                tablaReservas.refresh();
+                // El backend devuelve la reserva ya aprobada: se aplica sin recargar
+                aplicarEdicion(motor -> motor.upsertReservation(approved));
                 
                 mostrarExito("✅ Reserva aprobada exitosamente\n\n" +
                            "El código QR ha sido desbloqueado.\n" +
                            "El usuario recibirá una notificación por correo.");
-                
-                // Recargar datos
-                cargarDatosIniciales();
             }
         });
         
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
+            if (informarSiQuedoEnCola(ex)) {
+                return;
+            }
             String errorMsg = ex != null ? ex.getMessage() : "Error desconocido";
             mostrarError("Error al aprobar la reserva:\n" + errorMsg);
             
@@ -4098,11 +4267,18 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                 task.setOnSucceeded(e -> {
                     ReservationDTO cancelada = task.getValue();
                     mostrarExito("✅ ReservationDTO cancelada exitosamente\n\nSe ha enviado un email al UserDTO con el motivo de la cancelación.");
-                    // Recargar datos para mostrar el cambio de estado
-                    cargarDatosIniciales(false);
+                    // Mostrar el cambio de estado con la reserva que devolvió el backend
+                    if (cancelada != null) {
+                        aplicarEdicion(motor -> motor.upsertReservation(cancelada));
+                    } else {
+                        cargarDatosIniciales(false);
+                    }
                 });
                 
                 task.setOnFailed(e -> {
+                    if (informarSiQuedoEnCola(task.getException())) {
+                        return;
+                    }
                     String errorMsg = task.getException() != null ? 
                         task.getException().getMessage() : "Error desconocido";
                     mostrarError("Error al cancelar la reserva: " + errorMsg);
@@ -4118,9 +4294,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
      */
     private void enviarEmailReserva(ReservationDTO reserva) {
         // Buscar usuario por ID
-        UserDTO usuario = listaUsuarios.stream()
-            .filter(u -> u.id().equals(reserva.userId()))
-            .findFirst().orElse(null);
+        UserDTO usuario = directorio.user(reserva.userId());
             
         // Validar que la reserva tenga usuario con email
         if (usuario == null || usuario.email() == null) {
@@ -4215,12 +4389,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         // ✅ Sin validación de estado - ADMIN tiene control total
         
         // Buscar usuario y espacio por ID
-        UserDTO usuario = listaUsuarios.stream()
-            .filter(u -> u.id().equals(reserva.userId()))
-            .findFirst().orElse(null);
-        SpaceDTO espacio = listaEspacios.stream()
-            .filter(e -> e.id().equals(reserva.spaceId()))
-            .findFirst().orElse(null);
+        UserDTO usuario = directorio.user(reserva.userId());
+        SpaceDTO espacio = directorio.space(reserva.spaceId());
             
         // Crear diálogo de confirmación con advertencia fuerte
         Alert confirmacion = new Alert(Alert.AlertType.WARNING);
@@ -4261,9 +4431,8 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
             };
             
             task.setOnSucceeded(e -> {
+                aplicarEdicion(motor -> motor.forgetReservation(reserva.id()));
                 mostrarExito("✅ ReservationDTO eliminada permanentemente de la base de datos");
-                // Recargar datos para reflejar la eliminación
-                cargarDatosIniciales(false);
             });
             
             task.setOnFailed(e -> {
@@ -4380,10 +4549,30 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     }
 
     private void manejarErrorOperacion(Throwable error, String contexto) {
+        if (informarSiQuedoEnCola(error)) {
+            return;
+        }
         // Usar el nuevo método de mostrar errores de API con detalles técnicos
         mostrarErrorAPI(contexto != null ? contexto : "Operación", error);
     }
 
+    /**
+     * Si la operación no llegó al servidor y quedó en la bandeja de salida,
+     * lo informa y devuelve {@code true}.
+     */
+    private boolean informarSiQuedoEnCola(Throwable error) {
+        Throwable causa = error;
+        while (causa != null && !(causa instanceof MutationQueuedException)) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof MutationQueuedException encolada) {
+            mostrarAdvertencia("Sin conexión con el servidor.\n\n\"" + encolada.getDescription()
+                    + "\" se guardó y se enviará automáticamente cuando vuelva la conexión.");
+            return true;
+        }
+        return false;
+    }
+
     private UserDTO encontrarUsuarioActual() {
         if (sessionManager == null) {
             return null;
@@ -4392,10 +4581,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         if (userId == null) {
             return null;
         }
-        return listaUsuarios.stream()
-                .filter(u -> userId.equals(u.id()))
-                .findFirst()
-                .orElse(null);
+        return directorio.user(userId);
     }
 
     private String obtenerToken() {
@@ -4471,9 +4657,7 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         contenedor.getStyleClass().add("notification-item");
 
         // Buscar espacio por ID
-        SpaceDTO espacio = listaEspacios.stream()
-            .filter(e -> e.id().equals(reserva.spaceId()))
-            .findFirst().orElse(null);
+        SpaceDTO espacio = directorio.space(reserva.spaceId());
             
         String titulo = espacio != null ? espacio.name() : "Reserva";
         Label lblTitulo = new Label(titulo);
@@ -4565,11 +4749,19 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     private void cerrarSesion(ActionEvent event) {
         cerrarPanelesDeslizables();
         detenerActualizaciones();
-        if (sessionManager != null) {
-            sessionManager.clear();
+        if (motorDatos != null) {
+            motorDatos.close();
+            motorDatos = null;
+        }
+        if (paginasReservas != null) {
+            paginasReservas.reset();
         }
+        snapshotLocal = null;
         if (flowController != null) {
+            flowController.endSession();
             flowController.showView(LOGIN_VIEW_ID);
+        } else if (sessionManager != null) {
+            sessionManager.clear();
         }
     }
     
@@ -4641,6 +4833,55 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
         mostrarExito("Configuración de seguridad guardada");
     }
     
+    // ==================== DIAGNÓSTICO ====================
+
+    /**
+     * Configura la tabla de métricas de las cachés del cliente
+     */
+    private void configurarTablaDiagnosticoCache() {
+        if (tablaDiagnosticoCache == null) return;
+
+        tablaDiagnosticoCache.getColumns().setAll(List.of(
+            columnaDiagnostico("Caché", CacheMetrics.Stats::name),
+            columnaDiagnostico("Aciertos", stats -> String.valueOf(stats.hits())),
+            columnaDiagnostico("Vencidos", stats -> String.valueOf(stats.staleHits())),
+            columnaDiagnostico("Fallos", stats -> String.valueOf(stats.misses())),
+            columnaDiagnostico("% Aciertos", stats -> String.format("%.1f %%", stats.hitRate() * 100)),
+            columnaDiagnostico("Cargas", stats -> stats.loads() + (stats.loadFailures() > 0
+                    ? " (" + stats.loadFailures() + " fallidas)" : "")),
+            columnaDiagnostico("p50 / p95 (ms)", stats -> String.format("%.1f / %.1f",
+                    stats.loadNanos().p50() / 1e6, stats.loadNanos().p95() / 1e6)),
+            columnaDiagnostico("Expulsiones", AdminDashboardController::describirExpulsiones),
+            columnaDiagnostico("Tamaño", stats -> stats.weight() + " " + stats.weightUnit())
+        ));
+        tablaDiagnosticoCache.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        tablaDiagnosticoCache.setPlaceholder(new Label("Sin cachés registradas"));
+        actualizarDiagnosticoCache();
+    }
+
+    private static TableColumn<CacheMetrics.Stats, String> columnaDiagnostico(
+            String titulo, Function<CacheMetrics.Stats, String> valor) {
+        TableColumn<CacheMetrics.Stats, String> columna = new TableColumn<>(titulo);
+        columna.setCellValueFactory(cellData -> new SimpleStringProperty(valor.apply(cellData.getValue())));
+        return columna;
+    }
+
+    private static String describirExpulsiones(CacheMetrics.Stats stats) {
+        String detalle = stats.evictions().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getKey().name().toLowerCase(Locale.ROOT) + " " + entry.getValue())
+                .collect(Collectors.joining(", "));
+        return detalle.isEmpty() ? "0" : stats.evictionCount() + " (" + detalle + ")";
+    }
+
+    @FXML
+    private void actualizarDiagnosticoCache() {
+        if (tablaDiagnosticoCache == null) return;
+        tablaDiagnosticoCache.setItems(
+            FXCollections.observableArrayList(CacheMetricsRegistry.getDefault().snapshot()));
+    }
+
     // ==================== MÉTODOS AUXILIARES ====================
     
     private void mostrarIndicadorCarga(String mensaje) {
@@ -4816,20 +5057,18 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
                 ImageCache cache = ImageCache.getInstance();
 
                 for (Long imageId : space.imageIds()) {
-                    if (cache.contains(imageId)) {
-                        images.add(cache.get(imageId));
-                    } else {
-                        try {
+                    try {
+                        Image image = cache.getOrLoad(imageId, () -> {
                             byte[] imageData = spaceImageController.downloadImage(imageId, token);
-                            if (imageData != null && imageData.length > 0) {
-                                ByteArrayInputStream bis = new ByteArrayInputStream(imageData);
-                                Image image = new Image(bis);
-                                cache.put(imageId, image);
-                                images.add(image);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("⚠️ Error loading image " + imageId + ": " + e.getMessage());
+                            return imageData != null && imageData.length > 0
+                                    ? new Image(new ByteArrayInputStream(imageData))
+                                    : null;
+                        });
+                        if (image != null) {
+                            images.add(image);
                         }
+                    } catch (Exception e) {
+                        System.err.println("⚠️ Error loading image " + imageId + ": " + e.getMessage());
                     }
                 }
                 return images;
@@ -4854,10 +5093,6 @@ public class AdminDashboardController implements Initializable, SessionAware, Fl
     }
     
     // Records simplificados usando DTOs
-    record DatosIniciales(List<SpaceDTO> espacios, List<UserDTO> usuarios, List<ReservationDTO> reservas,
-            CurrentWeatherDTO clima, List<String> warnings) {
-    }
-
     record ClimaResultado(CurrentWeatherDTO clima, List<String> warnings) {
     }
     
@@ -5,13 +5,18 @@ import com.microsoft.aad.msal4j.MsalClientException;
 import com.microsoft.aad.msal4j.MsalException;
 import com.microsoft.aad.msal4j.MsalInteractionRequiredException;
 import com.microsoft.aad.msal4j.MsalServiceException;
+import com.municipal.ServiceRegistry;
 import com.municipal.auth.AzureAuthService;
 import com.municipal.controllers.AuthController;
 import com.municipal.exceptions.ApiClientException;
 import com.municipal.responses.AuthResponse;
 import com.municipal.session.SessionManager;
+import com.municipal.session.TokenRefresher;
+import com.municipal.sync.LoginPrefetch;
+import com.municipal.sync.MutationOutbox;
 import com.municipal.ui.navigation.FlowAware;
 import com.municipal.ui.navigation.FlowController;
+import com.municipal.ui.navigation.ServiceAware;
 import com.municipal.ui.navigation.SessionAware;
 import com.municipal.ui.navigation.StageAware;
 import javafx.animation.FadeTransition;
@@ -19,6 +24,7 @@ import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
@@ -33,7 +39,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 
-public class LoginController implements FlowAware, SessionAware, StageAware {
+public class LoginController implements FlowAware, ServiceAware, SessionAware, StageAware {
 
     @FXML
     private StackPane root;
@@ -56,7 +62,8 @@ public class LoginController implements FlowAware, SessionAware, StageAware {
     private FlowController flowController;
     private SessionManager sessionManager;
     private final AzureAuthService authService = new AzureAuthService();
-    private final AuthController authController = new AuthController();
+    private ServiceRegistry services;
+    private AuthController authController;
     private static final double COMPACT_BREAKPOINT = 980;
 
     @FXML
@@ -99,6 +106,8 @@ public class LoginController implements FlowAware, SessionAware, StageAware {
                 Platform.runLater(() -> {
                     if (sessionManager != null) {
                         sessionManager.storeAuthResponse(response);
+                        startTokenRenewal();
+                        openMutationOutbox();
                     }
                     String displayName = response.name() != null && !response.name().isBlank()
                             ? response.name()
@@ -108,6 +117,10 @@ public class LoginController implements FlowAware, SessionAware, StageAware {
                     String targetRole = sessionManager != null
                             ? sessionManager.getUserRole()
                             : response.role();
+                    if (sessionManager != null) {
+                        // Los datos del dashboard se piden mientras se construye la escena
+                        LoginPrefetch.start(sessionManager, services, targetRole);
+                    }
                     navigateToRole(targetRole);
                 });
             })
@@ -220,6 +233,56 @@ public class LoginController implements FlowAware, SessionAware, StageAware {
         return builder.toString();
     }
 
+    /**
+     * Programa la renovación silenciosa del token antes de que expire y la
+     * registra en ApiClient para que las peticiones concurrentes la esperen.
+     */
+    private void startTokenRenewal() {
+        // Cada sesión tiene su propio renovador; el de la sesión anterior se detiene
+        TokenRefresher.install(new TokenRefresher(sessionManager, authService, authController));
+    }
+
+    /**
+     * Abre la bandeja de salida del usuario: los cambios que no lleguen al
+     * servidor por falta de conexión se guardan y se reenvían en orden.
+     */
+    private void openMutationOutbox() {
+        MutationOutbox previous = MutationOutbox.getDefault();
+        if (previous != null) {
+            previous.close();
+        }
+        Long userId = sessionManager.getUserId();
+        String email = sessionManager.getUserEmail();
+        String owner = userId != null ? "user:" + userId : email;
+        if (owner == null || owner.isBlank()) {
+            return;
+        }
+        MutationOutbox outbox = MutationOutbox.forOwner(owner, services.apiClient(), sessionManager::getAccessToken);
+        outbox.addListener(new MutationOutbox.Listener() {
+            @Override
+            public void onApplied(MutationOutbox.Entry entry) {
+                System.out.println("📤 Cambio pendiente enviado: " + entry.description());
+            }
+
+            @Override
+            public void onConflict(MutationOutbox.Conflict conflict) {
+                Platform.runLater(() -> showMutationConflict(conflict));
+            }
+        });
+        MutationOutbox.setDefault(outbox);
+    }
+
+    private void showMutationConflict(MutationOutbox.Conflict conflict) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Cambio no aplicado");
+        alert.setHeaderText("El servidor rechazó un cambio realizado sin conexión");
+        String detail = conflict.responseBody() != null && !conflict.responseBody().isBlank()
+                ? conflict.responseBody()
+                : "Código " + conflict.statusCode();
+        alert.setContentText(conflict.entry().description() + "\n\n" + detail);
+        alert.show();
+    }
+
     /**
      * Autentica con el backend de forma asíncrona usando el token de Azure
      */
@@ -255,6 +318,12 @@ public class LoginController implements FlowAware, SessionAware, StageAware {
         }
     }
 
+    @Override
+    public void setServiceRegistry(ServiceRegistry services) {
+        this.services = services;
+        this.authController = services.authController();
+    }
+
     @Override
     public void setSessionManager(SessionManager sessionManager) {
         this.sessionManager = sessionManager;
@@ -1,13 +1,24 @@
 package com.municipal.ui.controllers;
 
+import com.municipal.ServiceRegistry;
 import com.municipal.controllers.ReservationController;
 import com.municipal.controllers.SpaceController;
 import com.municipal.dtos.ReservationDTO;
 import com.municipal.dtos.SpaceDTO;
+import com.municipal.exceptions.MutationQueuedException;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
 import com.municipal.session.SessionManager;
+import com.municipal.sync.ChangeEvent;
+import com.municipal.sync.ChangeEventStream;
+import com.municipal.sync.DataSyncEngine;
+import com.municipal.sync.EntityDirectory;
 import com.municipal.ui.navigation.FlowAware;
 import com.municipal.ui.navigation.FlowController;
+import com.municipal.ui.navigation.ServiceAware;
 import com.municipal.ui.navigation.SessionAware;
+import com.municipal.ui.navigation.StageAware;
+import com.municipal.ui.utils.AdaptiveRefreshScheduler;
 import com.municipal.ui.utils.QRScanner;
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -23,12 +34,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
 import javafx.animation.ScaleTransition;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
@@ -62,6 +69,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
 import javafx.stage.Window;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
@@ -76,7 +84,7 @@ import com.municipal.dtos.ReservationCheckInRequest;
  * Segunda versión del panel de supervisor centrado en reservas confirmadas.
  * Proporciona filtro por lugar, detalle contextual y flujo de validación/registro de QR.
  */
-public class SupervisorDashboardController implements Initializable, SessionAware, FlowAware {
+public class SupervisorDashboardController implements Initializable, ServiceAware, SessionAware, FlowAware, StageAware {
 
     private static final String LOGIN_VIEW_ID = "login";
     private static final Locale LOCALE_ES_CR = new Locale("es", "CR");
@@ -161,8 +169,9 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
     @FXML private Label lblDetalleActualizada;
     @FXML private Button btnValidarQr;
 
-    private final ReservationController reservationController = new ReservationController();
-    private final SpaceController spaceController = new SpaceController();
+    private ServiceRegistry services;
+    private ReservationController reservationController;
+    private SpaceController spaceController;
 
     private final ObservableList<ReservationCard> reservationEntries = FXCollections.observableArrayList();
     private FilteredList<ReservationCard> filteredReservations;
@@ -170,12 +179,15 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
     private SessionManager sessionManager;
     private FlowController flowController;
 
-    private final AtomicBoolean loadingGuard = new AtomicBoolean(false);
+    private DataSyncEngine dataSync;
+    private DataSyncEngine.Subscription dataSubscription;
+    private volatile EntityDirectory directory = EntityDirectory.EMPTY;
     private final BooleanProperty loadingProperty = new SimpleBooleanProperty(false);
     
     private QRScanner qrScanner;
     private volatile boolean isScanningQR = false;
-    private Timeline autoRefreshTimeline;
+    private AdaptiveRefreshScheduler autoRefresh;
+    private ChangeEventStream changeEvents;
     
     // Estado del contador de asistentes
     private int currentAttendeeCount = 0;
@@ -252,22 +264,62 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
     }
     
     private void initializeAutoRefresh() {
-        // Timeline para actualizar datos automáticamente cada 30 segundos
-        autoRefreshTimeline = new Timeline(
-            new KeyFrame(Duration.seconds(30), event -> {
-                if (sessionManager != null && sessionManager.getAccessToken() != null) {
-                    // Actualizar dashboard si está visible
-                    if (dashboardSection != null && dashboardSection.isVisible()) {
-                        refreshDashboard();
-                    }
-                    // Actualizar espacios en uso si está visible
-                    if (controlSection != null && controlSection.isVisible()) {
-                        refreshSpacesInUse();
-                    }
-                }
-            })
-        );
-        autoRefreshTimeline.setCycleCount(Animation.INDEFINITE);
+        // Actualización automática entre 15 segundos y 5 minutos según la actividad;
+        // en pausa mientras la ventana está minimizada o sin foco
+        autoRefresh = new AdaptiveRefreshScheduler("supervisor", Duration.seconds(15), Duration.minutes(5), () -> {
+            // Con el canal de cambios conectado no hace falta consultar periódicamente
+            if (sessionManager == null || sessionManager.getAccessToken() == null
+                    || (changeEvents != null && changeEvents.isConnected())
+                    || CircuitBreakerRegistry.getDefault().isAnyOpen("/api/reservations", "/api/spaces")) {
+                return false;
+            }
+            refreshVisibleSections();
+            return true;
+        });
+    }
+
+    private void refreshVisibleSections() {
+        // Las recargas periódicas ceden el paso a las acciones del usuario
+        RequestScheduler.runInBackground(this::refreshData);
+    }
+
+    private void startChangeEvents() {
+        if (changeEvents != null) {
+            return;
+        }
+        changeEvents = new ChangeEventStream(services.apiClient(),
+                () -> sessionManager != null ? sessionManager.getAccessToken() : null);
+        changeEvents.addListener(this::onChangeEvents);
+        changeEvents.start();
+    }
+
+    /**
+     * Descarga solo las entidades que cambiaron; el motor de datos publica el
+     * snapshot actualizado a las vistas.
+     */
+    private void onChangeEvents(List<ChangeEvent> events) {
+        DataSyncEngine engine = dataSync;
+        if (engine == null || engine.isClosed()) {
+            return;
+        }
+        RequestScheduler.runInBackground(() -> engine.applyChanges(events).exceptionally(error -> {
+            System.err.println("⚠️ No se pudieron aplicar los cambios recibidos: " + error.getMessage());
+            return null;
+        }));
+    }
+
+    private void stopChangeEvents() {
+        if (changeEvents != null) {
+            changeEvents.close();
+            changeEvents = null;
+        }
+    }
+
+    @Override
+    public void setServiceRegistry(ServiceRegistry services) {
+        this.services = services;
+        this.reservationController = services.reservationController();
+        this.spaceController = services.spaceController();
     }
 
     @Override
@@ -275,15 +327,16 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         this.sessionManager = sessionManager;
         updateSupervisorLabels();
         
-        // Cargar datos iniciales
-        loadReservations();
-        refreshDashboard();
-        refreshSpacesInUse();
+        // Cargar datos iniciales: lista, métricas y espacios en uso salen del mismo snapshot
+        dataSync = DataSyncEngine.forSession(sessionManager, DataSyncEngine.Profile.SUPERVISOR, services);
+        dataSubscription = dataSync.subscribe(this::applySnapshot, Platform::runLater);
+        refreshData();
         
         // Iniciar auto-refresh
-        if (autoRefreshTimeline != null) {
-            autoRefreshTimeline.play();
+        if (autoRefresh != null) {
+            autoRefresh.start();
         }
+        startChangeEvents();
     }
 
     @Override
@@ -291,11 +344,27 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         this.flowController = flowController;
     }
 
+    @Override
+    public void setStage(Stage stage) {
+        if (autoRefresh != null) {
+            autoRefresh.attachTo(stage);
+        }
+    }
+
     @FXML
     private void cerrarSesion() {
         // Detener auto-refresh
-        if (autoRefreshTimeline != null) {
-            autoRefreshTimeline.stop();
+        if (autoRefresh != null) {
+            autoRefresh.stop();
+        }
+        stopChangeEvents();
+        if (dataSubscription != null) {
+            dataSubscription.close();
+            dataSubscription = null;
+        }
+        if (dataSync != null) {
+            dataSync.close();
+            dataSync = null;
         }
         
         // Detener escaneo QR si está activo
@@ -303,11 +372,11 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
             stopQRScanning();
         }
         
-        if (sessionManager != null) {
-            sessionManager.clear();
-        }
         if (flowController != null) {
+            flowController.endSession();
             flowController.showView(LOGIN_VIEW_ID);
+        } else if (sessionManager != null) {
+            sessionManager.clear();
         }
     }
     
@@ -606,8 +675,10 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
                 qrCodeField.clear();
             }
             
-            // Recargar reservas
-            loadReservations();
+            // Aplicar la reserva con el ingreso registrado sin recargar
+            if (dataSync != null) {
+                dataSync.upsertReservation(updated);
+            }
             
             // Navegar a la sección del contador con animación suave
             Platform.runLater(() -> {
@@ -622,6 +693,13 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         
         task.setOnFailed(event -> {
             Throwable error = task.getException();
+            if (error instanceof MutationQueuedException) {
+                if (qrCodeField != null) {
+                    qrCodeField.clear();
+                }
+                showValidationMessage("📤 Sin conexión: el check-in se enviará automáticamente", "warning");
+                return;
+            }
             String message = "Error al registrar check-in";
             
             // Extraer mensaje específico de ApiClientException
@@ -659,6 +737,10 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
      * Obtiene el nombre del espacio por ID
      */
     private String getSpaceName(Long spaceId, String token) {
+        SpaceDTO known = directory.space(spaceId);
+        if (known != null) {
+            return known.name();
+        }
         try {
             List<SpaceDTO> spaces = spaceController.loadSpaces(token);
             return spaces.stream()
@@ -712,84 +794,36 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         System.out.println("Reserva seleccionada");
     }
     
-    private void refreshDashboard() {
-        loadReservations();
-        updateDashboardMetrics();
+    /**
+     * Espacios con eventos en curso (o por empezar en 5 minutos) según el
+     * último snapshot.
+     */
+    private void renderSpacesInUse(DataSyncEngine.Snapshot snapshot) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Agrupar por espacio las reservaciones activas
+        Map<Long, List<ReservationDTO>> reservationsBySpace = snapshot.reservations().stream()
+            .filter(r -> isInProgress(r, now))
+            .filter(r -> r.spaceId() != null)
+            .collect(Collectors.groupingBy(ReservationDTO::spaceId));
+
+        List<SpaceInUseData> spaces = reservationsBySpace.entrySet().stream()
+            .map(entry -> {
+                SpaceDTO space = directory.space(entry.getKey());
+                return space != null ? new SpaceInUseData(space, entry.getValue()) : null;
+            })
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(data -> data.space.name()))
+            .collect(Collectors.toList());
+        updateSpacesInUseUI(spaces);
     }
-    
-    private void refreshSpacesInUse() {
-        if (sessionManager == null) {
-            return;
-        }
-        
-        String token = sessionManager.getAccessToken();
-        if (token == null || token.isBlank()) {
-            return;
-        }
-        
-        Task<List<SpaceInUseData>> task = new Task<>() {
-            @Override
-            protected List<SpaceInUseData> call() throws Exception {
-                // Cargar todas las reservaciones
-                List<ReservationDTO> allReservations = reservationController.getAllReservations(token);
-                LocalDateTime now = LocalDateTime.now();
-                
-                // Filtrar solo las reservaciones activas (en curso ahora)
-                List<ReservationDTO> activeReservations = allReservations.stream()
-                    .filter(r -> {
-                        String status = r.status();
-                        return (status != null && 
-                               (status.equalsIgnoreCase("CONFIRMED") || status.equalsIgnoreCase("CHECKED_IN")))
-                            && r.startTime() != null && r.startTime().isBefore(now.plusMinutes(5))
-                            && r.endTime() != null && r.endTime().isAfter(now);
-                    })
-                    .collect(Collectors.toList());
-                
-                // Agrupar por espacio
-                Map<Long, List<ReservationDTO>> reservationsBySpace = activeReservations.stream()
-                    .filter(r -> r.spaceId() != null)
-                    .collect(Collectors.groupingBy(ReservationDTO::spaceId));
-                
-                // Cargar información de espacios
-                List<SpaceDTO> allSpaces = spaceController.loadSpaces(token);
-                Map<Long, SpaceDTO> spacesById = allSpaces.stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toMap(SpaceDTO::id, space -> space));
-                
-                // Crear datos de espacios en uso
-                return reservationsBySpace.entrySet().stream()
-                    .map(entry -> {
-                        Long spaceId = entry.getKey();
-                        List<ReservationDTO> reservations = entry.getValue();
-                        SpaceDTO space = spacesById.get(spaceId);
-                        
-                        if (space == null) {
-                            return null;
-                        }
-                        
-                        return new SpaceInUseData(space, reservations);
-                    })
-                    .filter(Objects::nonNull)
-                    .sorted(Comparator.comparing(data -> data.space.name()))
-                    .collect(Collectors.toList());
-            }
-        };
-        
-        task.setOnSucceeded(e -> {
-            List<SpaceInUseData> spaces = task.getValue();
-            updateSpacesInUseUI(spaces);
-        });
-        
-        task.setOnFailed(e -> {
-            System.err.println("Error al cargar espacios en uso: " + e.getSource().getException().getMessage());
-            if (spacesInUseCountLabel != null) {
-                spacesInUseCountLabel.setText("Error al cargar espacios");
-            }
-        });
-        
-        Thread thread = new Thread(task, "spaces-in-use-loader");
-        thread.setDaemon(true);
-        thread.start();
+
+    private boolean isInProgress(ReservationDTO reservation, LocalDateTime now) {
+        String status = reservation.status();
+        return status != null
+            && (status.equalsIgnoreCase("CONFIRMED") || status.equalsIgnoreCase("CHECKED_IN"))
+            && reservation.startTime() != null && reservation.startTime().isBefore(now.plusMinutes(5))
+            && reservation.endTime() != null && reservation.endTime().isAfter(now);
     }
     
     private void updateSpacesInUseUI(List<SpaceInUseData> spaces) {
@@ -866,88 +900,44 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         return card;
     }
     
-    private void updateDashboardMetrics() {
-        if (sessionManager == null) {
-            return;
-        }
-        
-        String token = sessionManager.getAccessToken();
-        if (token == null || token.isBlank()) {
-            return;
-        }
-        
-        Task<DashboardMetrics> task = new Task<>() {
-            @Override
-            protected DashboardMetrics call() throws Exception {
-                List<ReservationDTO> allReservations = reservationController.getAllReservations(token);
-                LocalDateTime now = LocalDateTime.now();
-                LocalDateTime todayStart = now.toLocalDate().atStartOfDay();
-                LocalDateTime todayEnd = todayStart.plusDays(1);
-                
-                // Eventos activos (en curso ahora)
-                long activeEvents = allReservations.stream()
-                    .filter(r -> {
-                        String status = r.status();
-                        return (status != null && 
-                               (status.equalsIgnoreCase("CONFIRMED") || status.equalsIgnoreCase("CHECKED_IN")))
-                            && r.startTime() != null && r.startTime().isBefore(now.plusMinutes(5))
-                            && r.endTime() != null && r.endTime().isAfter(now);
-                    })
-                    .count();
-                
-                // Check-ins de hoy
-                long todayCheckIns = allReservations.stream()
-                    .filter(r -> {
-                        String status = r.status();
-                        return status != null && status.equalsIgnoreCase("CHECKED_IN")
-                            && r.startTime() != null 
-                            && r.startTime().isAfter(todayStart) 
-                            && r.startTime().isBefore(todayEnd);
-                    })
-                    .count();
-                
-                // Reservaciones pendientes (confirmadas pero no checked in)
-                long pendingReservations = allReservations.stream()
-                    .filter(r -> {
-                        String status = r.status();
-                        return status != null && status.equalsIgnoreCase("CONFIRMED");
-                    })
-                    .count();
-                
-                // Obtener eventos en progreso
-                List<ReservationDTO> inProgressList = allReservations.stream()
-                    .filter(r -> {
-                        String status = r.status();
-                        return (status != null && 
-                               (status.equalsIgnoreCase("CONFIRMED") || status.equalsIgnoreCase("CHECKED_IN")))
-                            && r.startTime() != null && r.startTime().isBefore(now.plusMinutes(5))
-                            && r.endTime() != null && r.endTime().isAfter(now);
-                    })
-                    .limit(6)  // Limitar a 6 eventos
-                    .collect(Collectors.toList());
-                
-                // Cargar espacios
-                List<SpaceDTO> spaces = spaceController.loadSpaces(token);
-                Map<Long, SpaceDTO> spacesById = spaces.stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toMap(SpaceDTO::id, space -> space));
-                
-                return new DashboardMetrics(activeEvents, todayCheckIns, pendingReservations, inProgressList, spacesById);
-            }
-        };
-        
-        task.setOnSucceeded(e -> {
-            DashboardMetrics metrics = task.getValue();
-            updateDashboardUI(metrics);
-        });
-        
-        task.setOnFailed(e -> {
-            System.err.println("Error al cargar métricas del dashboard: " + e.getSource().getException().getMessage());
-        });
-        
-        Thread thread = new Thread(task, "dashboard-metrics-loader");
-        thread.setDaemon(true);
-        thread.start();
+    private void renderDashboardMetrics(DataSyncEngine.Snapshot snapshot) {
+        List<ReservationDTO> allReservations = snapshot.reservations();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime todayStart = now.toLocalDate().atStartOfDay();
+        LocalDateTime todayEnd = todayStart.plusDays(1);
+
+        // Eventos activos (en curso ahora)
+        long activeEvents = allReservations.stream()
+            .filter(r -> isInProgress(r, now))
+            .count();
+
+        // Check-ins de hoy
+        long todayCheckIns = allReservations.stream()
+            .filter(r -> {
+                String status = r.status();
+                return status != null && status.equalsIgnoreCase("CHECKED_IN")
+                    && r.startTime() != null
+                    && r.startTime().isAfter(todayStart)
+                    && r.startTime().isBefore(todayEnd);
+            })
+            .count();
+
+        // Reservaciones pendientes (confirmadas pero no checked in)
+        long pendingReservations = allReservations.stream()
+            .filter(r -> {
+                String status = r.status();
+                return status != null && status.equalsIgnoreCase("CONFIRMED");
+            })
+            .count();
+
+        // Obtener eventos en progreso
+        List<ReservationDTO> inProgressList = allReservations.stream()
+            .filter(r -> isInProgress(r, now))
+            .limit(6)  // Limitar a 6 eventos
+            .collect(Collectors.toList());
+
+        updateDashboardUI(new DashboardMetrics(activeEvents, todayCheckIns, pendingReservations, inProgressList,
+                directory));
     }
     
     private void updateDashboardUI(DashboardMetrics metrics) {
@@ -967,13 +957,13 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
             inProgressEventsPane.getChildren().clear();
             
             for (ReservationDTO reservation : metrics.inProgressEvents) {
-                VBox card = createEventCard(reservation, metrics.spacesById);
+                VBox card = createEventCard(reservation, metrics.directory);
                 inProgressEventsPane.getChildren().add(card);
             }
         }
     }
     
-    private VBox createEventCard(ReservationDTO reservation, Map<Long, SpaceDTO> spacesById) {
+    private VBox createEventCard(ReservationDTO reservation, EntityDirectory directory) {
         VBox card = new VBox(10);
         card.getStyleClass().add("event-card");
         card.setPadding(new Insets(16));
@@ -981,7 +971,7 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         card.setMinWidth(240);
         
         // Nombre del espacio
-        SpaceDTO space = reservation.spaceId() != null ? spacesById.get(reservation.spaceId()) : null;
+        SpaceDTO space = directory.space(reservation.spaceId());
         String spaceName = space != null && space.name() != null ? space.name() : "Espacio sin nombre";
         
         Label nameLabel = new Label(spaceName);
@@ -1036,15 +1026,15 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         final long todayCheckIns;
         final long pendingReservations;
         final List<ReservationDTO> inProgressEvents;
-        final Map<Long, SpaceDTO> spacesById;
+        final EntityDirectory directory;
         
         DashboardMetrics(long activeEvents, long todayCheckIns, long pendingReservations, 
-                        List<ReservationDTO> inProgressEvents, Map<Long, SpaceDTO> spacesById) {
+                        List<ReservationDTO> inProgressEvents, EntityDirectory directory) {
             this.activeEvents = activeEvents;
             this.todayCheckIns = todayCheckIns;
             this.pendingReservations = pendingReservations;
             this.inProgressEvents = inProgressEvents;
-            this.spacesById = spacesById;
+            this.directory = directory;
         }
     }
     
@@ -1089,7 +1079,7 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
 
     @FXML
     private void recargarReservas() {
-        loadReservations();
+        refreshData();
     }
 
     @FXML
@@ -1154,7 +1144,12 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
 
         task.setOnFailed(event -> {
             Throwable cause = task.getException();
-            showError("No se pudo registrar el ingreso de la reserva.", cause);
+            if (cause instanceof MutationQueuedException) {
+                showWarning("Sin conexión con el servidor. El ingreso de " + attendee.fullName()
+                        + " se guardó y se enviará automáticamente cuando vuelva la conexión.");
+            } else {
+                showError("No se pudo registrar el ingreso de la reserva.", cause);
+            }
             if (btnValidarQr != null) {
                 btnValidarQr.setDisable(false);
             }
@@ -1269,87 +1264,92 @@ public class SupervisorDashboardController implements Initializable, SessionAwar
         }
     }
 
-    private void loadReservations() {
-        if (sessionManager == null || loadingGuard.getAndSet(true)) {
+    /**
+     * Pide reservas y espacios al motor de sincronización. Una sola descarga
+     * alimenta la lista de reservas, las métricas y los espacios en uso.
+     */
+    private void refreshData() {
+        if (sessionManager == null || dataSync == null) {
             return;
         }
-        loadingProperty.set(true);
-        updateEmptyStateMessage();
-
         String token = sessionManager.getAccessToken();
         if (token == null || token.isBlank()) {
-            loadingGuard.set(false);
-            loadingProperty.set(false);
-            updateEmptyStateMessage();
             showError("No se encontró el token de autenticación para cargar las reservas.", null);
             return;
         }
+        loadingProperty.set(true);
+        updateEmptyStateMessage();
 
-        Long selectedId = lvReservas != null && lvReservas.getSelectionModel().getSelectedItem() != null
-                ? lvReservas.getSelectionModel().getSelectedItem().id()
-                : null;
-
-        Task<List<ReservationCard>> task = new Task<>() {
-            @Override
-            protected List<ReservationCard> call() throws Exception {
-                List<SpaceDTO> spaces;
-                try {
-                    spaces = spaceController.loadSpaces(token);
-                } catch (RuntimeException exception) {
-                    spaces = List.of();
-                }
-                Map<Long, SpaceDTO> spacesById = spaces.stream()
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toMap(SpaceDTO::id, space -> space));
-
-                List<ReservationDTO> reservations = reservationController.getAllReservations(token);
-                return reservations.stream()
-                        .filter(dto -> isAcceptedStatus(dto.status()))
-                        .map(dto -> mapToCard(dto, spacesById))
-                        .sorted(Comparator.comparing(ReservationCard::startTime,
-                                Comparator.nullsLast(LocalDateTime::compareTo)).reversed())
-                        .collect(Collectors.toList());
-            }
-        };
-
-        task.setOnSucceeded(event -> {
-            loadingGuard.set(false);
-            loadingProperty.set(false);
-            List<ReservationCard> result = task.getValue();
-            reservationEntries.setAll(result);
+        dataSync.refresh().whenComplete((snapshot, error) -> Platform.runLater(() -> {
+            // Si las reservas pasaron su plazo siguen cargando y se muestran al llegar
+            loadingProperty.set(error == null && snapshot.isLoading(DataSyncEngine.Source.RESERVATIONS));
             updateEmptyStateMessage();
-            if (lvReservas != null) {
-                if (selectedId != null) {
-                    result.stream()
-                            .filter(card -> Objects.equals(card.id(), selectedId))
-                            .findFirst()
-                            .ifPresentOrElse(card -> lvReservas.getSelectionModel().select(card),
-                                    () -> lvReservas.getSelectionModel().selectFirst());
-                } else if (!result.isEmpty()) {
-                    lvReservas.getSelectionModel().selectFirst();
-                } else {
-                    resetDetail();
+            Throwable cause = error != null ? error : snapshot.failures().get(DataSyncEngine.Source.RESERVATIONS);
+            if (cause != null) {
+                if (autoRefresh != null) {
+                    autoRefresh.refreshFailed();
                 }
+                showError("No se pudieron cargar las reservas confirmadas.", cause);
+                return;
             }
-        });
+            if (!snapshot.hasChanges()) {
+                // Sin cambios no se publica snapshot, pero los eventos en curso dependen de la hora
+                renderDashboardMetrics(snapshot);
+                renderSpacesInUse(snapshot);
+            }
+            if (autoRefresh != null) {
+                autoRefresh.refreshCompleted(snapshot.hasChanges());
+            }
+        }));
+    }
 
-        task.setOnFailed(event -> {
-            loadingGuard.set(false);
+    private void applySnapshot(DataSyncEngine.Snapshot snapshot) {
+        if (loadingProperty.get() && !snapshot.isLoading(DataSyncEngine.Source.RESERVATIONS)) {
             loadingProperty.set(false);
-            reservationEntries.clear();
             updateEmptyStateMessage();
-            resetDetail();
-            Throwable cause = task.getException();
-            showError("No se pudieron cargar las reservas confirmadas.", cause);
-        });
+        }
+        if (!snapshot.hasChanges()) {
+            return;
+        }
+        directory = snapshot.directory();
+        renderReservations(snapshot);
+        renderDashboardMetrics(snapshot);
+        renderSpacesInUse(snapshot);
+    }
 
-        Thread loader = new Thread(task, "supervisor-reservations-v2");
-        loader.setDaemon(true);
-        loader.start();
+    private void renderReservations(DataSyncEngine.Snapshot snapshot) {
+        Long selectedId = lvReservas != null && lvReservas.getSelectionModel().getSelectedItem() != null
+                ? lvReservas.getSelectionModel().getSelectedItem().id()
+                : null;
+
+        List<ReservationCard> result = snapshot.reservations().stream()
+                .filter(dto -> isAcceptedStatus(dto.status()))
+                .map(dto -> mapToCard(dto, directory))
+                .sorted(Comparator.comparing(ReservationCard::startTime,
+                        Comparator.nullsLast(LocalDateTime::compareTo)).reversed())
+                .collect(Collectors.toList());
+        if (reservationEntries.equals(result)) {
+            return;
+        }
+        reservationEntries.setAll(result);
+        updateEmptyStateMessage();
+        if (lvReservas != null) {
+            if (selectedId != null) {
+                result.stream()
+                        .filter(card -> Objects.equals(card.id(), selectedId))
+                        .findFirst()
+                        .ifPresentOrElse(card -> lvReservas.getSelectionModel().select(card),
+                                () -> lvReservas.getSelectionModel().selectFirst());
+            } else if (!result.isEmpty()) {
+                lvReservas.getSelectionModel().selectFirst();
+            } else {
+                resetDetail();
+            }
+        }
     }
 
-    private ReservationCard mapToCard(ReservationDTO dto, Map<Long, SpaceDTO> spacesById) {
-        SpaceDTO space = dto.spaceId() != null ? spacesById.get(dto.spaceId()) : null;
+    private ReservationCard mapToCard(ReservationDTO dto, EntityDirectory directory) {
+        SpaceDTO space = directory.space(dto.spaceId());
         String spaceName = space != null && space.name() != null && !space.name().isBlank()
                 ? space.name()
                 : dto.id() != null ? "Reserva #" + dto.id() : "Espacio sin nombre";
@@ -1,5 +1,6 @@
 package com.municipal.ui.controllers;
 
+import com.municipal.ServiceRegistry;
 import com.municipal.controllers.ReservationController;
 import com.municipal.controllers.SpaceController;
 import com.municipal.controllers.SpaceImageController;
@@ -7,16 +8,25 @@ import com.municipal.controllers.WeatherController;
 import com.municipal.dtos.ReservationDTO;
 import com.municipal.dtos.SpaceDTO;
 import com.municipal.dtos.weather.CurrentWeatherDTO;
+import com.municipal.exceptions.MutationQueuedException;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
 import com.municipal.responses.BinaryFileResponse;
 import com.municipal.session.SessionManager;
+import com.municipal.sync.ChangeEvent;
+import com.municipal.sync.ChangeEventStream;
+import com.municipal.sync.DataSyncEngine;
+import com.municipal.sync.EntityDirectory;
+import com.municipal.sync.LoginPrefetch;
 import com.municipal.ui.components.ImageCarousel;
 import com.municipal.ui.navigation.FlowAware;
 import com.municipal.ui.navigation.FlowController;
+import com.municipal.ui.navigation.ServiceAware;
 import com.municipal.ui.navigation.SessionAware;
+import com.municipal.ui.navigation.StageAware;
 import com.municipal.ui.navigation.ViewLifecycle;
+import com.municipal.ui.utils.AdaptiveRefreshScheduler;
 import com.municipal.ui.utils.ImageCache;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -43,18 +53,21 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
  * Controlador del Dashboard de Usuario (Ciudadano)
- * Implementa SessionAware, FlowAware y ViewLifecycle para recibir inyección automática de dependencias
+ * Implementa ServiceAware, SessionAware, FlowAware y ViewLifecycle para recibir inyección automática de dependencias
  */
-public class UserDashboardController implements SessionAware, FlowAware, ViewLifecycle {
+public class UserDashboardController implements ServiceAware, SessionAware, FlowAware, StageAware, ViewLifecycle {
 
     // ==================== DEPENDENCIES ====================
     
     private SessionManager sessionManager;
     private FlowController flowController;
+    private ServiceRegistry services;
     private ReservationController reservationController;
     private SpaceController spaceController;
     private SpaceImageController spaceImageController;
@@ -182,9 +195,14 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
     // ==================== AUTO-REFRESH ====================
     
-    private static final Duration DATA_REFRESH_INTERVAL = Duration.seconds(30);
-    private Timeline refreshTimeline;
-    private boolean isLoading = false;
+    private static final Duration DATA_REFRESH_MIN_INTERVAL = Duration.seconds(15);
+    private static final Duration DATA_REFRESH_MAX_INTERVAL = Duration.minutes(5);
+    private AdaptiveRefreshScheduler autoRefresh;
+    private Stage stage;
+    private DataSyncEngine dataSync;
+    private DataSyncEngine.Subscription dataSubscription;
+    private volatile EntityDirectory directory = EntityDirectory.EMPTY;
+    private ChangeEventStream changeEvents;
 
     // ==================== INITIALIZATION ====================
 
@@ -192,11 +210,6 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
     public void initialize() {
         System.out.println("🔄 UserDashboardController - initialize() llamado");
         
-        this.reservationController = new ReservationController();
-        this.spaceController = new SpaceController();
-        this.spaceImageController = new SpaceImageController();
-        this.weatherController = new WeatherController();
-        
         // Configurar UI
         setupUserMenu();
         setupNavigationHandlers();
@@ -208,6 +221,18 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
     // ==================== INTERFACE IMPLEMENTATIONS ====================
 
+    /**
+     * Implementación de ServiceAware - Controladores compartidos por toda la aplicación
+     */
+    @Override
+    public void setServiceRegistry(ServiceRegistry services) {
+        this.services = services;
+        this.reservationController = services.reservationController();
+        this.spaceController = services.spaceController();
+        this.spaceImageController = services.spaceImageController();
+        this.weatherController = services.weatherController();
+    }
+
     /**
      * Implementación de SessionAware - Inyección automática del SessionManager
      */
@@ -232,6 +257,15 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
         this.flowController = flowController;
     }
 
+    /**
+     * Implementación de StageAware - La actualización automática se pausa
+     * mientras la ventana está minimizada o sin foco
+     */
+    @Override
+    public void setStage(Stage stage) {
+        this.stage = stage;
+    }
+
     /**
      * Implementación de ViewLifecycle - Se llama cuando la vista se activa
      */
@@ -279,25 +313,14 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
             return;
         }
         
-        if (isLoading) {
-            System.out.println("⏳ Ya hay una carga en progreso, omitiendo...");
-            return;
-        }
-        
-        isLoading = true;
-        
-        try {
-            loadReservations();
-            loadSpaces();
-            
-            if (includeWeather) {
-                loadWeather();
-            }
-            
-            updateDashboardMetrics();
-        } finally {
-            isLoading = false;
+        // Si ya hay una carga en curso el motor la reutiliza en lugar de repetirla
+        refreshData(EnumSet.allOf(DataSyncEngine.Source.class));
+
+        if (includeWeather) {
+            loadWeather();
         }
+
+        updateDashboardMetrics();
     }
 
     // ==================== USER MENU ====================
@@ -367,15 +390,24 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
     private void performLogout() {
         try {
-            // Limpiar sesión usando el método correcto
-            if (sessionManager != null) {
-                sessionManager.clear();
+            stopAutoRefresh();
+            if (dataSubscription != null) {
+                dataSubscription.close();
+                dataSubscription = null;
+            }
+            if (dataSync != null) {
+                dataSync.close();
+                dataSync = null;
             }
-
             // Navegar al login usando FlowController inyectado
             if (flowController != null) {
+                // Detiene la renovación del token y la bandeja de salida, y limpia la sesión
+                flowController.endSession();
                 flowController.showView("login");
             } else {
+                if (sessionManager != null) {
+                    sessionManager.clear();
+                }
                 showError("Error: No se pudo cerrar sesión correctamente");
             }
         } catch (Exception e) {
@@ -523,114 +555,135 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
     // ==================== DATA LOADING ====================
 
     private void loadReservations() {
-        if (sessionManager == null || reservationController == null) {
-            System.err.println("❌ No se puede cargar reservas: dependencias null");
-            return;
+        refreshData(EnumSet.of(DataSyncEngine.Source.RESERVATIONS));
+    }
+
+    private void loadSpaces() {
+        refreshData(EnumSet.of(DataSyncEngine.Source.SPACES));
+    }
+
+    /**
+     * Motor de sincronización de la sesión (espacios y reservas propias). Las
+     * tablas, tarjetas y métricas se actualizan desde sus snapshots.
+     */
+    private DataSyncEngine dataSync() {
+        if (dataSync == null && sessionManager != null) {
+            dataSync = DataSyncEngine.forSession(sessionManager, DataSyncEngine.Profile.USER, services);
+            dataSubscription = dataSync.subscribe(this::applySnapshot, Platform::runLater);
         }
+        return dataSync;
+    }
 
-        // ✅ Obtener userId del SessionManager correctamente
-        Long userId = sessionManager.getUserId();
-        String token = sessionManager.getAccessToken();
+    private boolean isSyncing() {
+        return dataSync != null && dataSync.isRefreshing();
+    }
 
-        if (userId == null || token == null) {
-            System.err.println("❌ No se puede cargar reservas: userId o token null");
+    private void refreshData(Set<DataSyncEngine.Source> sources) {
+        DataSyncEngine engine = dataSync();
+        if (engine == null || sessionManager.getUserId() == null || sessionManager.getAccessToken() == null) {
+            System.err.println("❌ No se pueden cargar datos: sesión sin usuario o token");
             return;
         }
 
-        showLoadingOverlay(reservationsLoadingOverlay, true);
+        boolean reservations = sources.contains(DataSyncEngine.Source.RESERVATIONS);
+        boolean spaces = sources.contains(DataSyncEngine.Source.SPACES);
+        if (reservations) {
+            showLoadingOverlay(reservationsLoadingOverlay, true);
+        }
+        if (spaces) {
+            showLoadingOverlay(spacesLoadingOverlay, true);
+        }
 
-        Task<List<ReservationDTO>> task = new Task<>() {
-            @Override
-            protected List<ReservationDTO> call() throws Exception {
-                // ✅ Usar el método correcto del ReservationController
-                return reservationController.getReservationsByUserId(userId, token);
+        engine.refresh(sources).whenComplete((snapshot, error) -> Platform.runLater(() -> {
+            // Una fuente que pasó su plazo sigue cargando y se muestra al llegar
+            if (reservations) {
+                showLoadingOverlay(reservationsLoadingOverlay,
+                        error == null && snapshot.isLoading(DataSyncEngine.Source.RESERVATIONS));
             }
-        };
-
-        task.setOnSucceeded(e -> {
-            List<ReservationDTO> data = task.getValue();
-            reservationsList.clear();
-            if (data != null) {
-                // Ordenar reservas por prioridad de estado
-                data.sort((r1, r2) -> {
-                    int priority1 = getStatusPriority(r1.status());
-                    int priority2 = getStatusPriority(r2.status());
-                    return Integer.compare(priority1, priority2);
-                });
-                reservationsList.addAll(data);
-                System.out.println("✅ Cargadas " + data.size() + " reservas (ordenadas por estado)");
-                
-                // 🔍 DEBUG: Mostrar detalles de todas las reservas
-                System.out.println("═══════════════════════════════════════════════════════");
-                System.out.println("📋 DETALLE DE RESERVAS CARGADAS:");
-                for (int i = 0; i < data.size(); i++) {
-                    ReservationDTO r = data.get(i);
-                    System.out.println("  [" + (i+1) + "] ID: " + r.id() + 
-                                     " | SpaceID: " + r.spaceId() + 
-                                     " | Estado: " + r.status() +
-                                     " | Fecha: " + r.startTime() + " - " + r.endTime());
+            if (spaces) {
+                showLoadingOverlay(spacesLoadingOverlay,
+                        error == null && snapshot.isLoading(DataSyncEngine.Source.SPACES));
+            }
+            Throwable reservationsError = error != null ? error
+                    : reservations ? snapshot.failures().get(DataSyncEngine.Source.RESERVATIONS) : null;
+            Throwable spacesError = error == null && spaces
+                    ? snapshot.failures().get(DataSyncEngine.Source.SPACES) : null;
+            if (reservationsError != null) {
+                String errorMsg = reservationsError.getMessage() != null
+                        ? reservationsError.getMessage() : "Error desconocido";
+                System.err.println("❌ Error al cargar reservas: " + errorMsg);
+                showError("Error al cargar reservas: " + errorMsg);
+            }
+            if (spacesError != null) {
+                String errorMsg = spacesError.getMessage() != null ? spacesError.getMessage() : "Error desconocido";
+                System.err.println("❌ Error al cargar espacios: " + errorMsg);
+                showError("Error al cargar espacios: " + errorMsg);
+            }
+            // La cadencia del auto-refresh sigue a las reservas
+            if (reservations && autoRefresh != null) {
+                if (reservationsError != null) {
+                    autoRefresh.refreshFailed();
+                } else {
+                    autoRefresh.refreshCompleted(snapshot.hasChanged(DataSyncEngine.Source.RESERVATIONS));
                 }
-                System.out.println("═══════════════════════════════════════════════════════");
             }
-            reservationsTable.setItems(reservationsList);
-            updateReservationsCount();
-            updateDashboardMetrics();
-            showLoadingOverlay(reservationsLoadingOverlay, false);
-        });
-
-        task.setOnFailed(e -> {
-            String errorMsg = task.getException() != null ? 
-                task.getException().getMessage() : "Error desconocido";
-            System.err.println("❌ Error al cargar reservas: " + errorMsg);
-            showError("Error al cargar reservas: " + errorMsg);
-            showLoadingOverlay(reservationsLoadingOverlay, false);
-        });
-
-        new Thread(task).start();
+        }));
     }
 
-    private void loadSpaces() {
-        if (spaceController == null) {
-            System.err.println("❌ No se puede cargar espacios: spaceController null");
-            return;
+    private void applySnapshot(DataSyncEngine.Snapshot snapshot) {
+        if (!snapshot.isLoading(DataSyncEngine.Source.RESERVATIONS)) {
+            showLoadingOverlay(reservationsLoadingOverlay, false);
         }
-
-        String token = sessionManager != null ? sessionManager.getAccessToken() : null;
-        showLoadingOverlay(spacesLoadingOverlay, true);
-
-        Task<List<SpaceDTO>> task = new Task<>() {
-            @Override
-            protected List<SpaceDTO> call() throws Exception {
-                // ✅ Mostrar todos los espacios activos del sistema
-                // El usuario puede ver todos los espacios y cuando intente reservar
-                // se verificará la disponibilidad para la fecha/hora específica
-                return spaceController.loadSpaces(token);
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            List<SpaceDTO> data = task.getValue();
-            allSpaces.clear();
-            spacesList.clear();
-            if (data != null) {
-                allSpaces.addAll(data);
-                spacesList.addAll(data);
-                System.out.println("✅ Cargados " + data.size() + " espacios");
-            }
-            displaySpaces(spacesList);
-            updateSpacesCount();
+        if (!snapshot.isLoading(DataSyncEngine.Source.SPACES)) {
             showLoadingOverlay(spacesLoadingOverlay, false);
-        });
+        }
+        // Antes de pintar: las tarjetas y gráficos buscan los espacios por id
+        directory = snapshot.directory();
+        if (snapshot.hasChanged(DataSyncEngine.Source.RESERVATIONS)) {
+            applyReservations(snapshot.reservations());
+        }
+        if (snapshot.hasChanged(DataSyncEngine.Source.SPACES)) {
+            applySpaces(snapshot.spaces());
+        }
+    }
 
-        task.setOnFailed(e -> {
-            String errorMsg = task.getException() != null ? 
-                task.getException().getMessage() : "Error desconocido";
-            System.err.println("❌ Error al cargar espacios: " + errorMsg);
-            showError("Error al cargar espacios: " + errorMsg);
-            showLoadingOverlay(spacesLoadingOverlay, false);
+    private void applyReservations(List<ReservationDTO> reservations) {
+        // Ordenar reservas por prioridad de estado
+        List<ReservationDTO> data = new ArrayList<>(reservations);
+        data.sort((r1, r2) -> {
+            int priority1 = getStatusPriority(r1.status());
+            int priority2 = getStatusPriority(r2.status());
+            return Integer.compare(priority1, priority2);
         });
-
-        new Thread(task).start();
+        reservationsList.setAll(data);
+        System.out.println("✅ Cargadas " + data.size() + " reservas (ordenadas por estado)");
+
+        // 🔍 DEBUG: Mostrar detalles de todas las reservas
+        System.out.println("═══════════════════════════════════════════════════════");
+        System.out.println("📋 DETALLE DE RESERVAS CARGADAS:");
+        for (int i = 0; i < data.size(); i++) {
+            ReservationDTO r = data.get(i);
+            System.out.println("  [" + (i+1) + "] ID: " + r.id() + 
+                             " | SpaceID: " + r.spaceId() + 
+                             " | Estado: " + r.status() +
+                             " | Fecha: " + r.startTime() + " - " + r.endTime());
+        }
+        System.out.println("═══════════════════════════════════════════════════════");
+        reservationsTable.setItems(reservationsList);
+        updateReservationsCount();
+        updateDashboardMetrics();
+    }
+
+    private void applySpaces(List<SpaceDTO> data) {
+        // ✅ Mostrar todos los espacios activos del sistema
+        // El usuario puede ver todos los espacios y cuando intente reservar
+        // se verificará la disponibilidad para la fecha/hora específica
+        allSpaces.clear();
+        allSpaces.addAll(data);
+        spacesList.setAll(data);
+        System.out.println("✅ Cargados " + data.size() + " espacios");
+        displaySpaces(spacesList);
+        updateSpacesCount();
     }
 
     private void loadWeather() {
@@ -639,13 +692,22 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
             return;
         }
 
+        // ✅ Reutilizar la consulta iniciada durante el login, si sigue disponible
+        CompletableFuture<CurrentWeatherDTO> prefetched = LoginPrefetch.takeWeather(sessionManager);
         Task<CurrentWeatherDTO> task = new Task<>() {
             @Override
             protected CurrentWeatherDTO call() throws Exception {
-                // ✅ Usar coordenadas configuradas en application.properties
-                // Pérez Zeledón, Costa Rica: 9.3640, -83.7139
+                if (prefetched != null) {
+                    try {
+                        return prefetched.join();
+                    } catch (CompletionException ex) {
+                        System.out.println("⚠️ Falló la precarga del clima, consultando de nuevo");
+                    }
+                }
+                // ✅ Pérez Zeledón, Costa Rica
                 String token = sessionManager != null ? sessionManager.getAccessToken() : null;
-                return weatherController.loadCurrentWeather(9.3640, -83.7139, token);
+                return weatherController.loadCurrentWeather(LoginPrefetch.WEATHER_LATITUDE,
+                        LoginPrefetch.WEATHER_LONGITUDE, token);
             }
         };
 
@@ -1089,20 +1151,18 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
                 ImageCache cache = ImageCache.getInstance();
 
                 for (Long imageId : space.imageIds()) {
-                    if (cache.contains(imageId)) {
-                        images.add(cache.get(imageId));
-                    } else {
-                        try {
+                    try {
+                        Image image = cache.getOrLoad(imageId, () -> {
                             byte[] imageData = spaceImageController.downloadImage(imageId, token);
-                            if (imageData != null && imageData.length > 0) {
-                                ByteArrayInputStream bis = new ByteArrayInputStream(imageData);
-                                Image image = new Image(bis);
-                                cache.put(imageId, image);
-                                images.add(image);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Error loading image " + imageId + ": " + e.getMessage());
+                            return imageData != null && imageData.length > 0
+                                    ? new Image(new ByteArrayInputStream(imageData))
+                                    : null;
+                        });
+                        if (image != null) {
+                            images.add(image);
                         }
+                    } catch (Exception e) {
+                        System.err.println("Error loading image " + imageId + ": " + e.getMessage());
                     }
                 }
                 return images;
@@ -1392,16 +1452,23 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
         task.setOnSucceeded(e -> {
             ReservationDTO created = task.getValue();
-            if (created != null) {
-                reservationsList.add(created);
+            // La reserva devuelta por el backend se muestra sin volver a descargar la lista
+            if (created != null && dataSync() != null) {
+                dataSync().upsertReservation(created);
+            } else {
+                loadInitialData(false);
             }
             showSuccess("Reserva creada exitosamente para: " + space.name());
-            loadInitialData(false);
             navigateToSection(Section.MY_RESERVATIONS);
         });
 
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
+            if (ex instanceof MutationQueuedException) {
+                showWarning("Sin conexión con el servidor. La reserva de " + space.name()
+                        + " se guardó y se enviará automáticamente cuando vuelva la conexión.");
+                return;
+            }
             String errorMsg = ex != null ? ex.getMessage() : "Error desconocido";
             
             // 🔍 DEBUG: Mostrar detalles completos del error
@@ -1492,24 +1559,33 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
         Optional<String> motivoResult = motivoDialog.showAndWait();
         String motivo = motivoResult.orElse("Cancelada por el usuario");
 
-        Task<Void> task = new Task<>() {
+        Task<ReservationDTO> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected ReservationDTO call() throws Exception {
                 // ✅ Usar el método correcto del ReservationController con motivo
-                reservationController.cancelReservation(reservation.id(), motivo, token);
-                return null;
+                return reservationController.cancelReservation(reservation.id(), motivo, token);
             }
         };
 
         task.setOnSucceeded(e -> {
-            reservationsList.remove(reservation);
+            ReservationDTO cancelled = task.getValue();
+            if (cancelled != null && dataSync() != null) {
+                dataSync().upsertReservation(cancelled);
+            } else {
+                reservationsList.remove(reservation);
+                loadInitialData(false);
+            }
             showSuccess("Reserva cancelada exitosamente");
-            loadInitialData(false);
             updateDashboardMetrics();
         });
 
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
+            if (ex instanceof MutationQueuedException) {
+                showWarning("Sin conexión con el servidor. La cancelación se guardó y se enviará "
+                        + "automáticamente cuando vuelva la conexión.");
+                return;
+            }
             String errorMsg = ex != null ? ex.getMessage() : "Error desconocido";
             showError("Error al cancelar: " + errorMsg);
             if (ex != null) ex.printStackTrace();
@@ -1575,8 +1651,10 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
         task.setOnSucceeded(e -> {
             reservationsList.remove(reservation);
+            if (dataSync() != null) {
+                dataSync().forgetReservation(reservation.id());
+            }
             showSuccess("✅ Reserva eliminada permanentemente de la base de datos");
-            loadInitialData(false);
             updateDashboardMetrics();
         });
 
@@ -1688,13 +1766,8 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
 
         ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList();
 
-        spaceFreq.forEach((spaceId, count) -> {
-            List<SpaceDTO> searchList = !spacesList.isEmpty() ? spacesList : allSpaces;
-            SpaceDTO space = searchList.stream()
-                .filter(s -> s.id().equals(spaceId)).findFirst().orElse(null);
-            String name = space != null ? space.name() : "Espacio #" + spaceId;
-            pieData.add(new PieChart.Data(name, count));
-        });
+        spaceFreq.forEach((spaceId, count) ->
+            pieData.add(new PieChart.Data(directory.spaceName(spaceId, "Espacio #" + spaceId), count)));
 
         spacesDistributionChart.setData(pieData);
     }
@@ -1875,9 +1948,7 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
         card.setAlignment(javafx.geometry.Pos.CENTER);
 
         // Buscar información del espacio
-        SpaceDTO space = allSpaces.stream()
-            .filter(s -> s.id().equals(reservation.spaceId()))
-            .findFirst().orElse(null);
+        SpaceDTO space = directory.space(reservation.spaceId());
 
         String spaceName = space != null ? space.name() : "Espacio #" + reservation.spaceId();
 
@@ -1968,29 +2039,76 @@ public class UserDashboardController implements SessionAware, FlowAware, ViewLif
      * Inicia la actualización automática de datos cada 30 segundos
      */
     private void startAutoRefresh() {
-        if (refreshTimeline != null) {
-            refreshTimeline.stop();
+        if (autoRefresh != null) {
+            autoRefresh.stop();
         }
-        
-        refreshTimeline = new Timeline(new KeyFrame(DATA_REFRESH_INTERVAL, event -> {
-            if (!isLoading) {
-                System.out.println("🔄 Actualización automática - Recargando datos del usuario");
-                loadInitialData(false); // false = sin mostrar indicador de carga
+
+        // Entre 15 segundos y 5 minutos según lleguen cambios en las reservas
+        autoRefresh = new AdaptiveRefreshScheduler("usuario", DATA_REFRESH_MIN_INTERVAL, DATA_REFRESH_MAX_INTERVAL,
+                () -> {
+            if (isSyncing() || changeEventsConnected() || CircuitBreakerRegistry.getDefault()
+                    .isAnyOpen("/api/reservations/user/{id}", "/api/spaces")) {
+                return false;
             }
+            System.out.println("🔄 Actualización automática - Recargando datos del usuario");
+            // false = sin mostrar indicador de carga; en segundo plano para no competir con el usuario
+            RequestScheduler.runInBackground(() -> loadInitialData(false));
+            return true;
+        });
+        autoRefresh.attachTo(stage);
+        autoRefresh.start();
+        System.out.println("✅ Actualización automática iniciada (adaptativa, desde cada 15 segundos)");
+        startChangeEvents();
+    }
+
+    /**
+     * Escucha los cambios publicados por el backend (SSE). Mientras el canal
+     * está conectado el polling se omite y solo se recarga lo que cambió.
+     */
+    private void startChangeEvents() {
+        if (changeEvents != null) {
+            return;
+        }
+        changeEvents = new ChangeEventStream(services.apiClient(),
+                () -> sessionManager != null ? sessionManager.getAccessToken() : null);
+        changeEvents.addListener(this::onChangeEvents);
+        changeEvents.start();
+    }
+
+    private void stopChangeEvents() {
+        if (changeEvents != null) {
+            changeEvents.close();
+            changeEvents = null;
+        }
+    }
+
+    private boolean changeEventsConnected() {
+        return changeEvents != null && changeEvents.isConnected();
+    }
+
+    /**
+     * Descarga solo las entidades que cambiaron; el motor de datos publica el
+     * snapshot actualizado a las tablas y tarjetas.
+     */
+    private void onChangeEvents(List<ChangeEvent> events) {
+        DataSyncEngine engine = dataSync;
+        if (engine == null || engine.isClosed()) {
+            return;
+        }
+        RequestScheduler.runInBackground(() -> engine.applyChanges(events).exceptionally(error -> {
+            System.err.println("⚠️ No se pudieron aplicar los cambios recibidos: " + error.getMessage());
+            return null;
         }));
-        
-        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        refreshTimeline.play();
-        System.out.println("✅ Actualización automática iniciada (cada 30 segundos)");
     }
 
     /**
      * Detiene la actualización automática de datos
      */
     private void stopAutoRefresh() {
-        if (refreshTimeline != null) {
-            refreshTimeline.stop();
-            refreshTimeline = null;
+        stopChangeEvents();
+        if (autoRefresh != null) {
+            autoRefresh.stop();
+            autoRefresh = null;
             System.out.println("🛑 Actualización automática detenida");
         }
     }
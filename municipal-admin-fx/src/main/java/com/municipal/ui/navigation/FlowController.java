@@ -1,6 +1,9 @@
 package com.municipal.ui.navigation;
 
+import com.municipal.ServiceRegistry;
 import com.municipal.session.SessionManager;
+import com.municipal.session.TokenRefresher;
+import com.municipal.sync.MutationOutbox;
 import com.municipal.ui.App;
 import io.github.palexdev.materialfx.theming.MaterialFXStylesheets;
 import javafx.animation.FadeTransition;
@@ -26,20 +29,46 @@ public final class FlowController {
 
     private final Stage stage;
     private final SessionManager sessionManager;
+    private final ServiceRegistry services;
     private final Map<String, ViewConfig> viewRegistry = new HashMap<>();
     private final Map<String, String> roleRoutes = new HashMap<>();
     private String defaultRoleViewId;
     private String currentViewId;
 
     public FlowController(Stage stage, SessionManager sessionManager) {
+        this(stage, sessionManager, ServiceRegistry.getDefault());
+    }
+
+    public FlowController(Stage stage, SessionManager sessionManager, ServiceRegistry services) {
         this.stage = Objects.requireNonNull(stage, "stage");
         this.sessionManager = Objects.requireNonNull(sessionManager, "sessionManager");
+        this.services = Objects.requireNonNull(services, "services");
+    }
+
+    /**
+     * Ends the logged-in session: stops the background token renewal, closes
+     * the user's mutation outbox (queued changes stay in its journal for the
+     * next login) and clears the credentials. Views call it on logout, before showing the
+     * login view.
+     */
+    public void endSession() {
+        TokenRefresher.uninstall();
+        MutationOutbox outbox = MutationOutbox.getDefault();
+        if (outbox != null) {
+            outbox.close();
+        }
+        MutationOutbox.setDefault(null);
+        sessionManager.clear();
     }
 
     public SessionManager getSessionManager() {
         return sessionManager;
     }
 
+    public ServiceRegistry getServices() {
+        return services;
+    }
+
     public Stage getStage() {
         return stage;
     }
@@ -107,6 +136,9 @@ public final class FlowController {
     }
 
     private void injectControllerDependencies(Object controller) {
+        if (controller instanceof ServiceAware serviceAware) {
+            serviceAware.setServiceRegistry(services);
+        }
         if (controller instanceof SessionAware sessionAware) {
             sessionAware.setSessionManager(sessionManager);
         }
@@ -0,0 +1,11 @@
+package com.municipal.ui.navigation;
+
+import com.municipal.ServiceRegistry;
+
+/**
+ * Allows controllers to use the application's shared {@link ServiceRegistry}.
+ * It is injected before the {@link com.municipal.session.SessionManager}.
+ */
+public interface ServiceAware {
+    void setServiceRegistry(ServiceRegistry services);
+}
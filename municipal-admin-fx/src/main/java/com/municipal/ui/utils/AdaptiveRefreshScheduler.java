@@ -0,0 +1,190 @@
+package com.municipal.ui.utils;
+
+import com.municipal.config.AppConfig;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Auto-refresh timer whose cadence follows what the refreshes find. Each
+ * refresh that brings changes halves the interval (down to the minimum);
+ * refreshes without changes stretch it by half and slow or failed ones double
+ * it (up to the maximum), so idle desktops poll rarely while busy ones stay
+ * current.
+ * <p>
+ * Ticks are suspended while the attached {@link Stage} is iconified or not
+ * focused. When it comes back a refresh runs right away if one was missed.
+ * <p>
+ * On each tick the refresh action returns whether it actually started a
+ * refresh; the owner then reports its outcome with
+ * {@link #refreshCompleted(boolean)} or {@link #refreshFailed()}, and the next
+ * tick is counted from that report. All methods must be called on the JavaFX
+ * application thread.
+ */
+public final class AdaptiveRefreshScheduler {
+
+    private static final double IDLE_FACTOR = 1.5;
+    private static final double SLOW_FACTOR = 2.0;
+
+    private final String name;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final BooleanSupplier refresh;
+    private final long slowLatencyNanos;
+    private final PauseTransition timer = new PauseTransition();
+    private final ReadOnlyObjectWrapper<Duration> cadence = new ReadOnlyObjectWrapper<>(this, "cadence");
+    private final ReadOnlyBooleanWrapper suspended = new ReadOnlyBooleanWrapper(this, "suspended", false);
+    private final ChangeListener<Boolean> stageListener = (observable, oldValue, newValue) -> updateSuspended();
+
+    private Stage stage;
+    private boolean running;
+    private long tickStartedNanos = -1;
+    private long lastTickNanos;
+
+    public AdaptiveRefreshScheduler(String name, Duration minInterval, Duration maxInterval,
+            BooleanSupplier refresh) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.minInterval = Objects.requireNonNull(minInterval, "minInterval");
+        this.maxInterval = maxInterval.lessThan(minInterval) ? minInterval : maxInterval;
+        this.refresh = Objects.requireNonNull(refresh, "refresh");
+        this.slowLatencyNanos = AppConfig.getLong("ui.refresh.slow-latency-ms", 2000) * 1_000_000L;
+        this.cadence.set(minInterval);
+        this.timer.setOnFinished(event -> tick());
+    }
+
+    /** Suspends ticks while {@code stage} is iconified or unfocused. */
+    public void attachTo(Stage stage) {
+        detach();
+        this.stage = stage;
+        if (stage != null) {
+            stage.iconifiedProperty().addListener(stageListener);
+            stage.focusedProperty().addListener(stageListener);
+        }
+        updateSuspended();
+    }
+
+    public void start() {
+        running = true;
+        lastTickNanos = System.nanoTime();
+        if (!suspended.get()) {
+            schedule(cadence.get());
+        }
+    }
+
+    public void stop() {
+        running = false;
+        timer.stop();
+        detach();
+    }
+
+    /**
+     * Reports the outcome of a refresh. Refreshes started by the owner rather
+     * than by a tick only count for the change rate.
+     */
+    public void refreshCompleted(boolean changed) {
+        boolean slow = tickStartedNanos >= 0 && System.nanoTime() - tickStartedNanos > slowLatencyNanos;
+        tickStartedNanos = -1;
+        if (slow) {
+            adjust(SLOW_FACTOR);
+        } else {
+            adjust(changed ? 0.5 : IDLE_FACTOR);
+        }
+        rescheduleIfIdle();
+    }
+
+    public void refreshFailed() {
+        tickStartedNanos = -1;
+        adjust(SLOW_FACTOR);
+        rescheduleIfIdle();
+    }
+
+    /** Returns to the fastest cadence, e.g. when the user expects fresh data. */
+    public void speedUp() {
+        cadence.set(minInterval);
+        rescheduleIfIdle();
+    }
+
+    public Duration getCadence() {
+        return cadence.get();
+    }
+
+    public ReadOnlyObjectProperty<Duration> cadenceProperty() {
+        return cadence.getReadOnlyProperty();
+    }
+
+    public boolean isSuspended() {
+        return suspended.get();
+    }
+
+    public ReadOnlyBooleanProperty suspendedProperty() {
+        return suspended.getReadOnlyProperty();
+    }
+
+    private void tick() {
+        if (!running || suspended.get()) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastTickNanos = now;
+        tickStartedNanos = refresh.getAsBoolean() ? now : -1;
+        // If the refresh never reports back, keep ticking at the current cadence
+        schedule(cadence.get());
+    }
+
+    private void adjust(double factor) {
+        double millis = cadence.get().toMillis() * factor;
+        millis = Math.max(minInterval.toMillis(), Math.min(maxInterval.toMillis(), millis));
+        Duration next = Duration.millis(Math.round(millis));
+        if (!next.equals(cadence.get())) {
+            cadence.set(next);
+            System.out.printf("🔁 Auto-refresh %s: cada %.0f s%n", name, next.toSeconds());
+        }
+    }
+
+    private void rescheduleIfIdle() {
+        if (running && !suspended.get()) {
+            schedule(cadence.get());
+        }
+    }
+
+    private void schedule(Duration delay) {
+        timer.stop();
+        timer.setDuration(delay);
+        timer.playFromStart();
+    }
+
+    private void updateSuspended() {
+        boolean nowSuspended = stage != null && (stage.isIconified() || !stage.isFocused());
+        if (nowSuspended == suspended.get()) {
+            return;
+        }
+        suspended.set(nowSuspended);
+        if (!running) {
+            return;
+        }
+        if (nowSuspended) {
+            timer.stop();
+            return;
+        }
+        // On return, refresh at once if a tick was due while away
+        double elapsedMillis = (System.nanoTime() - lastTickNanos) / 1_000_000.0;
+        double remaining = cadence.get().toMillis() - elapsedMillis;
+        schedule(remaining <= 0 ? Duration.ZERO : Duration.millis(remaining));
+    }
+
+    private void detach() {
+        if (stage != null) {
+            stage.iconifiedProperty().removeListener(stageListener);
+            stage.focusedProperty().removeListener(stageListener);
+            stage = null;
+        }
+    }
+}
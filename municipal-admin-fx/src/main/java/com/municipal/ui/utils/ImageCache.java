@@ -1,45 +1,100 @@
 package com.municipal.ui.utils;
 
+import com.municipal.utils.CacheMetrics;
+import com.municipal.utils.CacheMetricsRegistry;
+import com.municipal.utils.CacheStatsCounter;
 import javafx.scene.image.Image;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class ImageCache {
-    
+public class ImageCache implements CacheMetrics {
+
     private static final ImageCache INSTANCE = new ImageCache();
     private final Map<Long, Image> cache = new ConcurrentHashMap<>();
+    private final CacheStatsCounter stats = new CacheStatsCounter();
     private static final int MAX_CACHE_SIZE = 100;
-    
-    private ImageCache() {}
-    
+
+    private ImageCache() {
+        CacheMetricsRegistry.getDefault().register(this);
+    }
+
     public static ImageCache getInstance() {
         return INSTANCE;
     }
-    
+
     public void put(Long imageId, Image image) {
         if (imageId == null || image == null) return;
-        
-        if (cache.size() >= MAX_CACHE_SIZE) {
+
+        if (cache.size() >= MAX_CACHE_SIZE && !cache.containsKey(imageId)) {
             Long firstKey = cache.keySet().iterator().next();
-            cache.remove(firstKey);
+            if (cache.remove(firstKey) != null) {
+                stats.recordEvictions(EvictionReason.SIZE, 1);
+            }
         }
-        
+
         cache.put(imageId, image);
     }
-    
+
     public Image get(Long imageId) {
-        return cache.get(imageId);
+        Image image = imageId != null ? cache.get(imageId) : null;
+        if (image != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+        return image;
+    }
+
+    /**
+     * Devuelve la imagen en caché o la obtiene con {@code loader} y la guarda.
+     * El loader puede devolver {@code null} si no hay imagen.
+     */
+    public Image getOrLoad(Long imageId, Callable<Image> loader) throws Exception {
+        Image image = get(imageId);
+        if (image != null) {
+            return image;
+        }
+        long started = System.nanoTime();
+        try {
+            image = loader.call();
+            stats.recordLoad(System.nanoTime() - started, true);
+        } catch (Exception e) {
+            stats.recordLoad(System.nanoTime() - started, false);
+            throw e;
+        }
+        put(imageId, image);
+        return image;
     }
-    
+
     public void remove(Long imageId) {
-        cache.remove(imageId);
+        if (imageId != null && cache.remove(imageId) != null) {
+            stats.recordEvictions(EvictionReason.INVALIDATED, 1);
+        }
     }
-    
+
     public void clear() {
+        int removed = cache.size();
         cache.clear();
+        stats.recordEvictions(EvictionReason.INVALIDATED, removed);
     }
-    
+
     public boolean contains(Long imageId) {
-        return cache.containsKey(imageId);
+        return imageId != null && cache.containsKey(imageId);
+    }
+
+    @Override
+    public String getCacheName() {
+        return "images";
+    }
+
+    /** El peso es la memoria aproximada de las imágenes decodificadas (4 bytes por píxel). */
+    @Override
+    public Stats getStats() {
+        long bytes = 0;
+        for (Image image : cache.values()) {
+            bytes += (long) image.getWidth() * (long) image.getHeight() * 4;
+        }
+        return stats.snapshot(getCacheName(), bytes, "bytes");
     }
 }
@@ -0,0 +1,74 @@
+package com.municipal.utils;
+
+import com.municipal.http.LatencyHistogram;
+
+import java.util.Map;
+
+/**
+ * Uniform statistics of a client-side cache, so TTLs and sizes can be tuned
+ * from real usage. Caches register themselves in the
+ * {@link CacheMetricsRegistry} and usually keep their counters in a
+ * {@link CacheStatsCounter}.
+ */
+public interface CacheMetrics {
+
+    enum EvictionReason {
+        /** Past its lifetime when it was read again. */
+        EXPIRED,
+        /** Dropped to stay within the size limit. */
+        SIZE,
+        /** Removed explicitly, e.g. after a change on the backend. */
+        INVALIDATED,
+        /** Dropped because the session or backend changed. */
+        SCOPE_CHANGED
+    }
+
+    String getCacheName();
+
+    Stats getStats();
+
+    /**
+     * Counters since the cache was created.
+     *
+     * @param hits         reads answered with a fresh value
+     * @param staleHits    reads answered with an expired value while it was
+     *                     being refreshed
+     * @param misses       reads that had to wait for a load
+     * @param loads        loads that completed, successful or not
+     * @param loadFailures loads that failed
+     * @param loadNanos    distribution of load times, in nanoseconds
+     * @param evictions    entries removed, by reason
+     * @param weight       current size, in {@code weightUnit}
+     */
+    record Stats(String name, long hits, long staleHits, long misses, long loads, long loadFailures,
+            LatencyHistogram.Snapshot loadNanos, Map<EvictionReason, Long> evictions, long weight,
+            String weightUnit) {
+
+        public Stats {
+            evictions = Map.copyOf(evictions);
+        }
+
+        public long requests() {
+            return hits + staleHits + misses;
+        }
+
+        /** Share of reads served from the cache, stale ones included. */
+        public double hitRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) (hits + staleHits) / requests;
+        }
+
+        public long evictionCount() {
+            return evictions.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: hits=%d stale=%d misses=%d (%.1f%%) loads=%d failed=%d"
+                            + " load p50/p95/max=%.1f/%.1f/%.1f ms evictions=%d weight=%d %s",
+                    name, hits, staleHits, misses, hitRate() * 100, loads, loadFailures,
+                    loadNanos.p50() / 1e6, loadNanos.p95() / 1e6, loadNanos.max() / 1e6,
+                    evictionCount(), weight, weightUnit);
+        }
+    }
+}
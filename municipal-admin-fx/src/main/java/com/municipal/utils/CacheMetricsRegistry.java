@@ -0,0 +1,44 @@
+package com.municipal.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every client-side cache of the application, by name. The default registry
+ * is process-wide and feeds the diagnostics view of the admin dashboard.
+ */
+public final class CacheMetricsRegistry {
+
+    private static final CacheMetricsRegistry DEFAULT = new CacheMetricsRegistry();
+
+    private final Map<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+
+    public static CacheMetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /** Registers {@code cache}, replacing any earlier cache with its name. */
+    public void register(CacheMetrics cache) {
+        caches.put(cache.getCacheName(), cache);
+    }
+
+    public void unregister(CacheMetrics cache) {
+        caches.remove(cache.getCacheName(), cache);
+    }
+
+    /** Current statistics of every registered cache, sorted by name. */
+    public List<CacheMetrics.Stats> snapshot() {
+        return caches.values().stream()
+                .map(CacheMetrics::getStats)
+                .sorted((first, second) -> first.name().compareTo(second.name()))
+                .toList();
+    }
+
+    /** One line per cache. */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        snapshot().forEach(stats -> report.append(stats).append(System.lineSeparator()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.municipal.utils;
+
+import com.municipal.http.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters behind a {@link CacheMetrics} implementation.
+ */
+public final class CacheStatsCounter {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LatencyHistogram loadNanos = new LatencyHistogram();
+    private final Map<CacheMetrics.EvictionReason, LongAdder> evictions =
+            new EnumMap<>(CacheMetrics.EvictionReason.class);
+
+    public CacheStatsCounter() {
+        for (CacheMetrics.EvictionReason reason : CacheMetrics.EvictionReason.values()) {
+            evictions.put(reason, new LongAdder());
+        }
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoad(long nanos, boolean success) {
+        loadNanos.record(nanos);
+        if (!success) {
+            loadFailures.increment();
+        }
+    }
+
+    public void recordEvictions(CacheMetrics.EvictionReason reason, long count) {
+        if (count > 0) {
+            evictions.get(reason).add(count);
+        }
+    }
+
+    public CacheMetrics.Stats snapshot(String name, long weight, String weightUnit) {
+        Map<CacheMetrics.EvictionReason, Long> evicted = new EnumMap<>(CacheMetrics.EvictionReason.class);
+        evictions.forEach((reason, count) -> evicted.put(reason, count.sum()));
+        return new CacheMetrics.Stats(name, hits.sum(), staleHits.sum(), misses.sum(), loadNanos.getCount(),
+                loadFailures.sum(), loadNanos.snapshot(), evicted, weight, weightUnit);
+    }
+}
@@ -4,134 +4,303 @@ import com.municipal.dtos.ReservationDTO;
 import com.municipal.dtos.SpaceDTO;
 import com.municipal.dtos.UserDTO;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
- * Caché thread-safe para datos del sistema con TTL de 2 segundos
- * Mejora la performance evitando llamadas innecesarias al backend
+ * Caché thread-safe para los datos del sistema, con un {@link EntityCache}
+ * por tipo de entidad. Cada tipo tiene su propio TTL (configurable con
+ * {@code cache.<tipo>.ttl-ms}): los espacios cambian pocas veces al día y se
+ * conservan minutos, las reservas solo unos segundos. Las listas vacías
+ * también se guardan durante {@code cache.<tipo>.negative-ttl-ms}.
+ * <p>
+ * El contenido pertenece al backend y usuario fijados con {@link #setScope};
+ * al cambiar de sesión nunca se comparten datos.
+ * <p>
+ * Cada colección se publica como un {@link Snapshot} inmutable a través de una
+ * referencia atómica: las lecturas no toman bloqueos ni copian la lista, y el
+ * número de versión solo avanza cuando el contenido cambia, así que quien ya
+ * procesó una versión puede saltarse el trabajo comparando un {@code long}.
+ * <p>
+ * Lo que devuelve el backend tras una edición se escribe directamente con
+ * {@code upsert*}/{@code remove*}, sin descartar ni volver a descargar la
+ * colección.
  */
 public class DataCache {
-    
-    private static final long TTL_MILLIS = 2000; // 2 segundos
-    
-    // Cache de usuarios
-    private static volatile List<UserDTO> usersCache = new CopyOnWriteArrayList<>();
-    private static volatile long usersCacheTimestamp = 0;
-    
-    // Cache de reservas
-    private static volatile List<ReservationDTO> reservationsCache = new CopyOnWriteArrayList<>();
-    private static volatile long reservationsCacheTimestamp = 0;
-    
-    // Cache de espacios
-    private static volatile List<SpaceDTO> spacesCache = new CopyOnWriteArrayList<>();
-    private static volatile long spacesCacheTimestamp = 0;
-    
+
+    /**
+     * Contenido inmutable de una colección. {@code version} crece cada vez que
+     * se publica un contenido distinto; si no cambió, se conserva la misma
+     * instancia y la misma versión.
+     */
+    public record Snapshot<T>(long version, List<T> items) {
+
+        public boolean isNewerThan(long seenVersion) {
+            return version > seenVersion;
+        }
+    }
+
+    private static final String ALL = "all";
+
+    private static final Store<UserDTO> USERS = new Store<>("users",
+            Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofSeconds(15));
+    // Las reservas ya se sincronizan por deltas: sin ventana de datos viejos
+    private static final Store<ReservationDTO> RESERVATIONS = new Store<>("reservations",
+            Duration.ofSeconds(2), Duration.ZERO, Duration.ofSeconds(2));
+    private static final Store<SpaceDTO> SPACES = new Store<>("spaces",
+            Duration.ofMinutes(10), Duration.ofHours(1), Duration.ofSeconds(30));
+
     private DataCache() {
         // Singleton - constructor privado
     }
-    
+
+    /**
+     * Asocia la caché al backend y usuario de la sesión; si cambian, se
+     * descarta todo lo guardado.
+     */
+    public static void setScope(String scope) {
+        USERS.setScope(scope);
+        RESERVATIONS.setScope(scope);
+        SPACES.setScope(scope);
+    }
+
     // ==================== USERS ====================
-    
-    public static synchronized void cacheUsers(List<UserDTO> users) {
-        if (users != null) {
-            usersCache = new CopyOnWriteArrayList<>(users);
-            usersCacheTimestamp = System.currentTimeMillis();
-        }
+
+    /**
+     * Devuelve los usuarios en caché o los carga con {@code loader}. Si el dato
+     * venció hace poco se devuelve igual y se revalida en segundo plano. La
+     * lista es inmutable.
+     */
+    public static List<UserDTO> getUsers(Callable<List<UserDTO>> loader) throws Exception {
+        return USERS.get(loader).items();
     }
-    
-    public static synchronized List<UserDTO> getCachedUsers() {
-        if (isUsersCacheValid()) {
-            return new CopyOnWriteArrayList<>(usersCache);
-        }
-        return null;
+
+    public static void cacheUsers(List<UserDTO> users) {
+        USERS.put(users);
     }
-    
-    public static synchronized boolean isUsersCacheValid() {
-        return (System.currentTimeMillis() - usersCacheTimestamp) < TTL_MILLIS && !usersCache.isEmpty();
+
+    public static List<UserDTO> getCachedUsers() {
+        return USERS.fresh();
     }
-    
-    public static synchronized void invalidateUsers() {
-        usersCacheTimestamp = 0;
+
+    /** Última versión publicada de los usuarios, aunque ya no esté vigente. */
+    public static Snapshot<UserDTO> getUsersSnapshot() {
+        return USERS.latest.get();
     }
-    
+
+    public static boolean isUsersCacheValid() {
+        return USERS.fresh() != null;
+    }
+
+    public static void invalidateUsers() {
+        USERS.cache.invalidateAll();
+    }
+
+    /** Escribe el usuario devuelto por el backend tras crearlo o editarlo. */
+    public static void upsertUser(UserDTO user) {
+        USERS.update(items -> EntityLists.upsert(items, user, UserDTO::id));
+    }
+
+    public static void removeUser(Long userId) {
+        USERS.update(items -> EntityLists.remove(items, userId, UserDTO::id));
+    }
+
     // ==================== RESERVATIONS ====================
-    
-    public static synchronized void cacheReservations(List<ReservationDTO> reservations) {
-        if (reservations != null) {
-            reservationsCache = new CopyOnWriteArrayList<>(reservations);
-            reservationsCacheTimestamp = System.currentTimeMillis();
-        }
+
+    public static List<ReservationDTO> getReservations(Callable<List<ReservationDTO>> loader) throws Exception {
+        return RESERVATIONS.get(loader).items();
     }
-    
-    public static synchronized List<ReservationDTO> getCachedReservations() {
-        if (isReservationsCacheValid()) {
-            return new CopyOnWriteArrayList<>(reservationsCache);
-        }
-        return null;
+
+    public static void cacheReservations(List<ReservationDTO> reservations) {
+        RESERVATIONS.put(reservations);
+    }
+
+    public static List<ReservationDTO> getCachedReservations() {
+        return RESERVATIONS.fresh();
     }
-    
-    public static synchronized boolean isReservationsCacheValid() {
-        return (System.currentTimeMillis() - reservationsCacheTimestamp) < TTL_MILLIS && !reservationsCache.isEmpty();
+
+    public static Snapshot<ReservationDTO> getReservationsSnapshot() {
+        return RESERVATIONS.latest.get();
+    }
+
+    public static boolean isReservationsCacheValid() {
+        return RESERVATIONS.fresh() != null;
     }
-    
-    public static synchronized void invalidateReservations() {
-        reservationsCacheTimestamp = 0;
+
+    public static void invalidateReservations() {
+        RESERVATIONS.cache.invalidateAll();
+    }
+
+    public static void upsertReservation(ReservationDTO reservation) {
+        RESERVATIONS.update(items -> EntityLists.upsert(items, reservation, ReservationDTO::id));
+    }
+
+    public static void removeReservation(Long reservationId) {
+        RESERVATIONS.update(items -> EntityLists.remove(items, reservationId, ReservationDTO::id));
     }
-    
+
     // ==================== SPACES ====================
-    
-    public static synchronized void cacheSpaces(List<SpaceDTO> spaces) {
-        if (spaces != null) {
-            spacesCache = new CopyOnWriteArrayList<>(spaces);
-            spacesCacheTimestamp = System.currentTimeMillis();
-        }
+
+    public static List<SpaceDTO> getSpaces(Callable<List<SpaceDTO>> loader) throws Exception {
+        return SPACES.get(loader).items();
     }
-    
-    public static synchronized List<SpaceDTO> getCachedSpaces() {
-        if (isSpacesCacheValid()) {
-            return new CopyOnWriteArrayList<>(spacesCache);
-        }
-        return null;
+
+    public static void cacheSpaces(List<SpaceDTO> spaces) {
+        SPACES.put(spaces);
+    }
+
+    public static List<SpaceDTO> getCachedSpaces() {
+        return SPACES.fresh();
+    }
+
+    public static Snapshot<SpaceDTO> getSpacesSnapshot() {
+        return SPACES.latest.get();
     }
-    
-    public static synchronized boolean isSpacesCacheValid() {
-        return (System.currentTimeMillis() - spacesCacheTimestamp) < TTL_MILLIS && !spacesCache.isEmpty();
+
+    public static boolean isSpacesCacheValid() {
+        return SPACES.fresh() != null;
     }
-    
-    public static synchronized void invalidateSpaces() {
-        spacesCacheTimestamp = 0;
+
+    public static void invalidateSpaces() {
+        SPACES.cache.invalidateAll();
     }
-    
+
+    public static void upsertSpace(SpaceDTO space) {
+        SPACES.update(items -> EntityLists.upsert(items, space, SpaceDTO::id));
+    }
+
+    public static void removeSpace(Long spaceId) {
+        SPACES.update(items -> EntityLists.remove(items, spaceId, SpaceDTO::id));
+    }
+
     // ==================== GLOBAL ====================
-    
-    public static synchronized void invalidateAll() {
-        usersCacheTimestamp = 0;
-        reservationsCacheTimestamp = 0;
-        spacesCacheTimestamp = 0;
-    }
-    
-    public static synchronized void clear() {
-        usersCache.clear();
-        reservationsCache.clear();
-        spacesCache.clear();
+
+    public static void invalidateAll() {
+        invalidateUsers();
+        invalidateReservations();
+        invalidateSpaces();
+    }
+
+    public static void clear() {
         invalidateAll();
     }
-    
+
     /**
-     * Retorna estadísticas del cache para debugging
+     * Retorna estadísticas del cache para debugging. Los contadores de cada
+     * colección también están en {@link CacheMetricsRegistry}.
      */
-    public static synchronized String getCacheStats() {
-        long now = System.currentTimeMillis();
+    public static String getCacheStats() {
         return String.format(
-            "Cache Stats:\n" +
-            "  Users: %d items, age: %dms, valid: %s\n" +
-            "  Reservations: %d items, age: %dms, valid: %s\n" +
-            "  Spaces: %d items, age: %dms, valid: %s",
-            usersCache.size(), now - usersCacheTimestamp, isUsersCacheValid(),
-            reservationsCache.size(), now - reservationsCacheTimestamp, isReservationsCacheValid(),
-            spacesCache.size(), now - spacesCacheTimestamp, isSpacesCacheValid()
+            "Cache Stats (scope %s):\n" +
+            "  Users: %s\n" +
+            "  Reservations: %s\n" +
+            "  Spaces: %s",
+            SPACES.cache.getScope(), USERS.describe(), RESERVATIONS.describe(), SPACES.describe()
         );
     }
+
+    /**
+     * Una colección: la caché con su vigencia y la última versión publicada.
+     */
+    private static final class Store<T> {
+
+        final EntityCache<String, Snapshot<T>> cache;
+        final AtomicReference<Snapshot<T>> latest = new AtomicReference<>(new Snapshot<>(0, List.of()));
+        // Lista recibida en la última publicación y la versión que produjo
+        final AtomicReference<Published<T>> lastPublished = new AtomicReference<>();
+        // Avanza con cada cambio de sesión; se modifica bajo el monitor del Store
+        final AtomicLong scopeEpoch = new AtomicLong();
+
+        Store(String name, Duration ttl, Duration staleTtl, Duration negativeTtl) {
+            this.cache = EntityCache.fromConfig(name, ttl, staleTtl, negativeTtl,
+                    snapshot -> snapshot.items().isEmpty(), snapshot -> snapshot.items().size(), "items");
+            CacheMetricsRegistry.getDefault().register(cache);
+        }
+
+        Snapshot<T> get(Callable<List<T>> loader) throws Exception {
+            long startedEpoch = scopeEpoch.get();
+            return cache.get(ALL, key -> publishInScope(loader.call(), startedEpoch));
+        }
+
+        void put(List<T> items) {
+            if (items != null) {
+                cache.put(ALL, publish(items));
+            }
+        }
+
+        synchronized void setScope(String scope) {
+            if (cache.setScope(scope)) {
+                scopeEpoch.incrementAndGet();
+                // La última versión publicada era de otra sesión
+                latest.updateAndGet(current -> new Snapshot<>(current.version() + 1, List.of()));
+            }
+        }
+
+        /**
+         * Aplica una edición local a la última versión publicada y la
+         * escribe en la caché sin cambiar su vigencia.
+         */
+        void update(UnaryOperator<List<T>> change) {
+            Snapshot<T> previous = latest.getAndUpdate(current -> {
+                List<T> items = change.apply(current.items());
+                return items == current.items() ? current : new Snapshot<>(current.version() + 1, items);
+            });
+            Snapshot<T> updated = latest.get();
+            if (updated != previous) {
+                cache.replace(ALL, updated);
+            }
+        }
+
+        List<T> fresh() {
+            Snapshot<T> snapshot = cache.getIfFresh(ALL);
+            return snapshot != null ? snapshot.items() : null;
+        }
+
+        /**
+         * Publica {@code items} como nueva versión, o devuelve la actual si el
+         * contenido es el mismo. Si el cargador devuelve la misma lista que
+         * la vez anterior y nada cambió desde entonces, no se copia ni se
+         * compara.
+         */
+        Snapshot<T> publish(List<T> items) {
+            Published<T> previous = lastPublished.get();
+            Snapshot<T> current = latest.get();
+            if (previous != null && previous.source() == items && previous.snapshot() == current) {
+                return current;
+            }
+            List<T> copy = items.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableList());
+            Snapshot<T> published = latest.updateAndGet(latestSnapshot -> latestSnapshot.items().equals(copy)
+                    ? latestSnapshot
+                    : new Snapshot<>(latestSnapshot.version() + 1, copy));
+            lastPublished.set(new Published<>(items, published));
+            return published;
+        }
+
+        /**
+         * Publica el resultado de una carga iniciada en la época
+         * {@code startedEpoch}. Si la sesión cambió mientras tanto, los datos
+         * son de la sesión anterior: solo se devuelven a quien los pidió y
+         * nunca pasan a ser la última versión publicada.
+         */
+        synchronized Snapshot<T> publishInScope(List<T> items, long startedEpoch) {
+            if (scopeEpoch.get() != startedEpoch) {
+                return new Snapshot<>(0,
+                        items.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableList()));
+            }
+            return publish(items);
+        }
+
+        String describe() {
+            return String.format("version %d, %s", latest.get().version(), cache.getStats());
+        }
+    }
+
+    private record Published<T>(List<T> source, Snapshot<T> snapshot) {
+    }
 }
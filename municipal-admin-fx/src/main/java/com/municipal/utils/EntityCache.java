@@ -0,0 +1,308 @@
+package com.municipal.utils;
+
+import com.municipal.config.AppConfig;
+import com.municipal.http.RequestScheduler;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read-through cache for one entity type.
+ * <p>
+ * A value is fresh for {@code ttl} after it was stored. After that it is
+ * still served for up to {@code staleTtl} while a single background load
+ * replaces it (stale-while-revalidate); only older values, or missing ones,
+ * make the caller wait for the loader. Concurrent loads of the same key are
+ * shared.
+ * <p>
+ * Empty results (as decided by the {@code isEmpty} predicate) are cached too,
+ * but only for {@code negativeTtl}, so a collection that is legitimately empty
+ * is not requested again on every read.
+ * <p>
+ * Entries belong to a scope, normally the backend and the logged-in user.
+ * Changing the scope with {@link #setScope} drops every entry, and loads that
+ * started under the previous scope are not stored.
+ * <p>
+ * The lifetimes can be configured with {@code cache.<name>.ttl-ms},
+ * {@code cache.<name>.stale-ms} and {@code cache.<name>.negative-ttl-ms}; see
+ * {@link #fromConfig}. Hits, loads and evictions are reported through
+ * {@link CacheMetrics}.
+ */
+public final class EntityCache<K, V> implements CacheMetrics {
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws Exception;
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService REVALIDATORS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "entity-cache-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long negativeTtlNanos;
+    private final Predicate<? super V> isEmpty;
+    private final ToLongFunction<? super V> weigher;
+    private final String weightUnit;
+    private final CacheStatsCounter stats = new CacheStatsCounter();
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    // Bumped by every invalidation so loads that started before it are not stored
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String scope = "";
+
+    public EntityCache(String name, Duration ttl, Duration staleTtl, Duration negativeTtl,
+            Predicate<? super V> isEmpty) {
+        this(name, ttl, staleTtl, negativeTtl, isEmpty, value -> 1, "entries");
+    }
+
+    /**
+     * @param weigher    weight of a value in the {@link CacheMetrics.Stats},
+     *                   e.g. the number of items of a collection
+     * @param weightUnit unit of that weight
+     */
+    public EntityCache(String name, Duration ttl, Duration staleTtl, Duration negativeTtl,
+            Predicate<? super V> isEmpty, ToLongFunction<? super V> weigher, String weightUnit) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.weigher = Objects.requireNonNull(weigher, "weigher");
+        this.weightUnit = Objects.requireNonNull(weightUnit, "weightUnit");
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        this.staleNanos = Math.max(0, staleTtl.toNanos());
+        this.negativeTtlNanos = Math.max(0, negativeTtl.toNanos());
+        this.isEmpty = Objects.requireNonNull(isEmpty, "isEmpty");
+    }
+
+    /**
+     * Cache whose lifetimes come from {@code cache.<name>.*} in the application
+     * configuration, falling back to the given defaults.
+     */
+    public static <K, V> EntityCache<K, V> fromConfig(String name, Duration ttl, Duration staleTtl,
+            Duration negativeTtl, Predicate<? super V> isEmpty) {
+        return fromConfig(name, ttl, staleTtl, negativeTtl, isEmpty, value -> 1, "entries");
+    }
+
+    public static <K, V> EntityCache<K, V> fromConfig(String name, Duration ttl, Duration staleTtl,
+            Duration negativeTtl, Predicate<? super V> isEmpty, ToLongFunction<? super V> weigher,
+            String weightUnit) {
+        String prefix = "cache." + name + ".";
+        return new EntityCache<>(name,
+                Duration.ofMillis(AppConfig.getLong(prefix + "ttl-ms", ttl.toMillis())),
+                Duration.ofMillis(AppConfig.getLong(prefix + "stale-ms", staleTtl.toMillis())),
+                Duration.ofMillis(AppConfig.getLong(prefix + "negative-ttl-ms", negativeTtl.toMillis())),
+                isEmpty, weigher, weightUnit);
+    }
+
+    /**
+     * Returns the cached value of {@code key}, loading it with {@code loader}
+     * when there is none or it is past its stale window. A stale value is
+     * returned as is and refreshed in the background.
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) throws Exception {
+        Objects.requireNonNull(loader, "loader");
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry != null) {
+            long age = now - entry.storedNanos();
+            long lifetime = entry.empty() ? negativeTtlNanos : ttlNanos;
+            if (age < lifetime) {
+                stats.recordHit();
+                return entry.value();
+            }
+            if (age < lifetime + staleNanos) {
+                stats.recordStaleHit();
+                revalidate(key, loader);
+                return entry.value();
+            }
+            // Kept for getIfPresent, but counted as expired only once
+            if (!entry.expired() && entries.replace(key, entry, entry.asExpired())) {
+                stats.recordEvictions(EvictionReason.EXPIRED, 1);
+            }
+        }
+        stats.recordMiss();
+        return load(key, loader);
+    }
+
+    /** Returns the value of {@code key} only while it is fresh. */
+    public V getIfFresh(K key) {
+        Entry<V> entry = entries.get(key);
+        long lifetime = entry == null ? 0 : entry.empty() ? negativeTtlNanos : ttlNanos;
+        if (entry == null || System.nanoTime() - entry.storedNanos() >= lifetime) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return entry.value();
+    }
+
+    /**
+     * Returns the last value stored for {@code key}, however old, e.g. to
+     * fall back on when a load fails. It is not counted as a read.
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    public void put(K key, V value) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime(), isEmpty.test(value), false));
+    }
+
+    /**
+     * Replaces the value of {@code key}, keeping its age, when there is one;
+     * used to write the result of a local mutation through. Loads that were
+     * already running are not stored, since they may predate the change.
+     */
+    public void replace(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        generation.incrementAndGet();
+        entries.computeIfPresent(key,
+                (ignored, entry) -> new Entry<>(value, entry.storedNanos(), isEmpty.test(value), entry.expired()));
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        Entry<V> removed = entries.remove(key);
+        if (removed != null && !removed.expired()) {
+            stats.recordEvictions(EvictionReason.INVALIDATED, 1);
+        }
+    }
+
+    public void invalidateAll() {
+        evictAll(EvictionReason.INVALIDATED);
+    }
+
+    /**
+     * Moves the cache to {@code scope}. Entries of a different scope are
+     * dropped; setting the current scope again keeps them.
+     *
+     * @return whether the scope changed
+     */
+    public synchronized boolean setScope(String scope) {
+        String normalized = scope != null ? scope : "";
+        if (normalized.equals(this.scope)) {
+            return false;
+        }
+        this.scope = normalized;
+        evictAll(EvictionReason.SCOPE_CHANGED);
+        loading.clear();
+        return true;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String getCacheName() {
+        return name;
+    }
+
+    @Override
+    public Stats getStats() {
+        long weight = 0;
+        for (Entry<V> entry : entries.values()) {
+            weight += weigher.applyAsLong(entry.value());
+        }
+        return stats.snapshot(name, weight, weightUnit);
+    }
+
+    private void evictAll(EvictionReason reason) {
+        generation.incrementAndGet();
+        // Entries already counted as expired are not counted again
+        int evicted = (int) entries.values().stream().filter(entry -> !entry.expired()).count();
+        entries.clear();
+        stats.recordEvictions(reason, evicted);
+    }
+
+    private V load(K key, Loader<? super K, ? extends V> loader) throws Exception {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, created);
+        if (running != null) {
+            return await(running);
+        }
+        long startedGeneration = generation.get();
+        long started = System.nanoTime();
+        try {
+            V value = loader.load(key);
+            stats.recordLoad(System.nanoTime() - started, true);
+            store(key, value, startedGeneration);
+            created.complete(value);
+            return value;
+        } catch (Exception | Error exception) {
+            stats.recordLoad(System.nanoTime() - started, false);
+            created.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    private void revalidate(K key, Loader<? super K, ? extends V> loader) {
+        if (loading.containsKey(key)) {
+            return;
+        }
+        REVALIDATORS.execute(() -> RequestScheduler.runInBackground(() -> {
+            try {
+                load(key, loader);
+            } catch (Exception exception) {
+                System.err.printf("⚠️ No se pudo revalidar la caché %s: %s%n", name, exception.getMessage());
+            }
+        }));
+    }
+
+    private void store(K key, V value, long startedGeneration) {
+        if (value == null || generation.get() != startedGeneration) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime(), isEmpty.test(value), false));
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof Exception checked) {
+                throw checked;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * @param expired whether the entry was already counted as an
+     *                {@link EvictionReason#EXPIRED} eviction
+     */
+    private record Entry<V>(V value, long storedNanos, boolean empty, boolean expired) {
+
+        Entry<V> asExpired() {
+            return new Entry<>(value, storedNanos, empty, true);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.municipal.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Copy-on-write edits of entity lists keyed by id, used to apply the result
+ * of a mutation to cached collections without downloading them again.
+ */
+public final class EntityLists {
+
+    private EntityLists() {
+    }
+
+    /**
+     * Returns {@code items} with the element whose id matches {@code item}'s
+     * replaced by it, or with {@code item} appended when there is none. The
+     * result is unmodifiable; {@code items} itself is returned when it
+     * already holds an equal element.
+     */
+    public static <T> List<T> upsert(List<T> items, T item, Function<? super T, Long> idOf) {
+        Objects.requireNonNull(item, "item");
+        Long id = Objects.requireNonNull(idOf.apply(item), "id");
+        List<T> updated = new ArrayList<>(items.size() + 1);
+        boolean found = false;
+        for (T existing : items) {
+            if (!found && existing != null && id.equals(idOf.apply(existing))) {
+                if (existing.equals(item)) {
+                    return items;
+                }
+                updated.add(item);
+                found = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (!found) {
+            updated.add(item);
+        }
+        return Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Returns {@code items} without the elements whose id is {@code id}, or
+     * {@code items} itself when none matches.
+     */
+    public static <T> List<T> remove(List<T> items, Long id, Function<? super T, Long> idOf) {
+        if (id == null) {
+            return items;
+        }
+        List<T> remaining = new ArrayList<>(items.size());
+        for (T existing : items) {
+            if (existing == null || !id.equals(idOf.apply(existing))) {
+                remaining.add(existing);
+            }
+        }
+        return remaining.size() == items.size() ? items : Collections.unmodifiableList(remaining);
+    }
+}
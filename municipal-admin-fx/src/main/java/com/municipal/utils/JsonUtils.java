@@ -1,6 +1,8 @@
 package com.municipal.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,6 +10,10 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.municipal.exceptions.ApiClientException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 /**
  * Utility class that centralizes JSON serialization and deserialization
  * logic using Jackson.
@@ -49,4 +55,47 @@ public final class JsonUtils {
             throw new ApiClientException(500, "Unable to deserialize response body", exception);
         }
     }
+
+    public static <T> T fromJson(InputStream json, Class<T> type) {
+        try {
+            return OBJECT_MAPPER.readValue(json, type);
+        } catch (IOException exception) {
+            throw new ApiClientException(500, "Unable to deserialize response body", exception);
+        }
+    }
+
+    public static <T> T fromJson(InputStream json, TypeReference<T> type) {
+        try {
+            return OBJECT_MAPPER.readValue(json, type);
+        } catch (IOException exception) {
+            throw new ApiClientException(500, "Unable to deserialize response body", exception);
+        }
+    }
+
+    /**
+     * Reads a top-level JSON array element by element, handing each decoded
+     * value to {@code consumer} without materializing the whole document.
+     * A {@code null} document is treated as an empty array.
+     *
+     * @return number of elements delivered to the consumer
+     */
+    public static <T> int readArray(InputStream json, Class<T> elementType, Consumer<? super T> consumer) {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new ApiClientException(500, "Expected a JSON array but found " + token);
+            }
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(OBJECT_MAPPER.readValue(parser, elementType));
+                count++;
+            }
+            return count;
+        } catch (IOException exception) {
+            throw new ApiClientException(500, "Unable to deserialize response body", exception);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package com.municipal.utils;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Map from primitive {@code long} keys to non-null values using open
+ * addressing with linear probing. Lookups neither box the key nor follow
+ * per-entry nodes, which keeps id resolution cheap for large collections.
+ * <p>
+ * The map is not thread-safe. Instances that are fully built before being
+ * published (for example through a final field) and never written again can
+ * be read from any thread.
+ */
+public final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public LongObjectMap() {
+        this(0);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Builds a map of {@code items} keyed by {@code idOf}; items without an
+     * id are skipped and, for repeated ids, the first item wins.
+     */
+    public static <V> LongObjectMap<V> index(Collection<? extends V> items, Function<? super V, Long> idOf) {
+        LongObjectMap<V> map = new LongObjectMap<>(items.size());
+        for (V item : items) {
+            if (item == null) {
+                continue;
+            }
+            Long id = idOf.apply(item);
+            if (id != null && map.get(id) == null) {
+                map.put(id, item);
+            }
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /** Associates {@code value} with {@code key}, returning the previous value. */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+        return null;
+    }
+
+    /** Removes {@code key}, returning its value. */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = null;
+                size--;
+                closeGap(slot);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public LongObjectMap<V> copy() {
+        LongObjectMap<V> copy = new LongObjectMap<>();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.mask = mask;
+        return copy;
+    }
+
+    /** Re-inserts the entries following a freed slot so probe chains stay unbroken. */
+    private void closeGap(int freed) {
+        int slot = (freed + 1) & mask;
+        while (values[slot] != null) {
+            long key = keys[slot];
+            Object value = values[slot];
+            values[slot] = null;
+            int target = slot(key);
+            while (values[target] != null) {
+                target = (target + 1) & mask;
+            }
+            keys[target] = key;
+            values[target] = value;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "LongObjectMap[size=" + size + ", capacity=" + values.length + "]";
+    }
+}
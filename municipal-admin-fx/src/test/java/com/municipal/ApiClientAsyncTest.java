@@ -0,0 +1,93 @@
+package com.municipal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiClientAsyncTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ApiClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS * 2);
+        server.setExecutor(serverExecutor);
+        server.start();
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        client = new ApiClient(httpClient, "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)),
+                new RequestScheduler(CONCURRENT_REQUESTS, 64));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void asyncRequestsAreInFlightTogether() throws Exception {
+        // Every handler waits until all requests have reached the server
+        CountDownLatch arrived = new CountDownLatch(CONCURRENT_REQUESTS);
+        server.createContext("/api/items", exchange -> {
+            arrived.countDown();
+            try {
+                arrived.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            String id = exchange.getRequestURI().getPath().substring("/api/items/".length());
+            respond(exchange, "{\"id\":" + id + "}");
+        });
+
+        List<CompletableFuture<Map<String, Object>>> responses = new ArrayList<>();
+        for (int id = 1; id <= CONCURRENT_REQUESTS; id++) {
+            responses.add(client.getAsync("/api/items/" + id, null, JSON_OBJECT));
+        }
+
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertEquals(0, arrived.getCount(), "requests were not sent concurrently");
+        for (int id = 1; id <= CONCURRENT_REQUESTS; id++) {
+            assertEquals(id, responses.get(id - 1).join().get("id"));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.municipal;
+
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.municipal.http.TransferStats;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiClientCompressionTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ApiClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        client = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void gzipBodiesAreDecodedWhileStreaming() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= 500; id++) {
+            json.append(id > 1 ? "," : "").append("{\"id\":").append(id).append(",\"name\":\"Espacio ").append(id)
+                    .append("\"}");
+        }
+        String body = json.append(']').toString();
+        AtomicInteger requests = new AtomicInteger();
+        AtomicReference<String> acceptEncoding = new AtomicReference<>();
+        server.createContext("/api/spaces", exchange -> {
+            requests.incrementAndGet();
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            byte[] compressed = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, compressed.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(compressed);
+            }
+        });
+
+        AtomicInteger delivered = new AtomicInteger();
+        int count = client.streamAsync("/api/spaces", null, Map.class, item -> delivered.incrementAndGet())
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(500, count);
+        assertEquals(500, delivered.get());
+        assertEquals(1, requests.get());
+        assertEquals("gzip, deflate", acceptEncoding.get());
+        TransferStats stats = client.getTransferStats();
+        assertEquals(1, stats.getCompressedResponses());
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, stats.getDecodedBytes());
+        assertTrue(stats.getWireBytes() < stats.getDecodedBytes(), "body was not transferred compressed");
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}
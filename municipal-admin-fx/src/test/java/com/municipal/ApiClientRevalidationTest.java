@@ -0,0 +1,117 @@
+package com.municipal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ApiClientRevalidationTest {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Sat, 01 Mar 2025 10:00:00 GMT";
+
+    private HttpServer server;
+    private ApiClient client;
+    // One line per request: "<uri> <If-None-Match> <If-Modified-Since> <status>"
+    private final List<String> exchanges = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/spaces", this::serveSpace);
+        server.start();
+        client = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void notModifiedReusesTheDecodedValue() throws Exception {
+        Map<String, Object> first = get("/api/spaces/1", "token");
+        Map<String, Object> second = get("/api/spaces/1", "token");
+
+        assertEquals(List.of("/api/spaces/1 - - 200", "/api/spaces/1 " + ETAG + " " + LAST_MODIFIED + " 304"),
+                exchanges);
+        assertSame(first, second);
+        assertEquals(1, second.get("id"));
+        assertEquals(1, client.getConditionalCache().size());
+    }
+
+    @Test
+    void anotherUriOrAuthorizationMissesTheCache() throws Exception {
+        get("/api/spaces/1", "token");
+        get("/api/spaces/2", "token");
+        get("/api/spaces/1", "other-token");
+        // The other token replaced the entry, so the first token starts over too
+        get("/api/spaces/1", "token");
+
+        assertEquals(List.of("/api/spaces/1 - - 200", "/api/spaces/2 - - 200", "/api/spaces/1 - - 200",
+                "/api/spaces/1 - - 200"), exchanges);
+    }
+
+    @Test
+    void watermarkRequestsAreNeverRevalidated() throws Exception {
+        get("/api/spaces/1?since=2025-03-01T10%3A00%3A00", "token");
+        get("/api/spaces/1?since=2025-03-01T10%3A00%3A00", "token");
+
+        assertEquals(List.of("/api/spaces/1?since=2025-03-01T10%3A00%3A00 - - 200",
+                "/api/spaces/1?since=2025-03-01T10%3A00%3A00 - - 200"), exchanges);
+        assertEquals(0, client.getConditionalCache().size());
+    }
+
+    private Map<String, Object> get(String path, String token) throws Exception {
+        return client.getAsync(path, token, JSON_OBJECT).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Serves {@code {"id":n}} with fixed validators, answering {@code 304}
+     * when the request carries the matching {@code If-None-Match}.
+     */
+    private void serveSpace(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        boolean notModified = ETAG.equals(ifNoneMatch);
+        exchanges.add(exchange.getRequestURI() + " " + (ifNoneMatch != null ? ifNoneMatch : "-") + " "
+                + (ifModifiedSince != null ? ifModifiedSince : "-") + " " + (notModified ? 304 : 200));
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+        if (notModified) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        byte[] body = ("{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
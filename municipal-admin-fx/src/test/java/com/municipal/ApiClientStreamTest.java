@@ -0,0 +1,76 @@
+package com.municipal;
+
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiClientStreamTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ApiClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        client = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void streamDeliversElementsBeforeTheBodyEnds() throws Exception {
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        server.createContext("/api/items", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write("[{\"id\":1},".getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                // The rest is only sent once the client decoded the first element
+                boolean streamed = firstDelivered.await(5, TimeUnit.SECONDS);
+                body.write(("{\"id\":2,\"streamed\":" + streamed + "}]").getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        List<Map<?, ?>> received = new ArrayList<>();
+        int count = client.streamAsync("/api/items", null, Map.class, item -> {
+            received.add(item);
+            firstDelivered.countDown();
+        }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, count);
+        assertEquals(1, received.get(0).get("id"));
+        assertEquals(true, received.get(1).get("streamed"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.municipal.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalCacheTest {
+
+    private static final HttpHeaders VALIDATED = HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (a, b) -> true);
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesByBodySize() {
+        ConditionalCache cache = new ConditionalCache(100);
+        cache.store("a", "token", VALIDATED, "A", 40);
+        cache.store("b", "token", VALIDATED, "B", 40);
+        cache.get("a", "token");
+        cache.store("c", "token", VALIDATED, "C", 40);
+
+        assertNotNull(cache.get("a", "token"));
+        assertNull(cache.get("b", "token"));
+        assertNotNull(cache.get("c", "token"));
+        assertEquals(80, cache.getTotalBytes());
+    }
+
+    @Test
+    void neverKeepsBodiesLargerThanTheCache() {
+        ConditionalCache cache = new ConditionalCache(100);
+        cache.store("a", "token", VALIDATED, "A", 40);
+        cache.store("a", "token", VALIDATED, "huge", 101);
+
+        assertNull(cache.get("a", "token"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void anotherAuthorizationMissesAndReplacesTheEntry() {
+        ConditionalCache cache = new ConditionalCache(100);
+        cache.store("a", "Bearer old", VALIDATED, "A", 40);
+
+        assertNull(cache.get("a", "Bearer new"));
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a", "Bearer old"));
+    }
+
+    @Test
+    void watermarkUrlsAreNotCacheable() {
+        assertTrue(ConditionalCache.isCacheable(URI.create("http://host/api/reservations")));
+        assertTrue(ConditionalCache.isCacheable(URI.create("http://host/api/reservations?page=0&sinceLast=1")));
+        assertFalse(ConditionalCache.isCacheable(URI.create("http://host/api/reservations?since=2025-03-01T10%3A00")));
+        assertFalse(ConditionalCache.isCacheable(URI.create("http://host/api/reservations?size=5&since=x")));
+    }
+}
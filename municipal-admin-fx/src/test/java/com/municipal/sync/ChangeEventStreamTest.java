@@ -0,0 +1,188 @@
+package com.municipal.sync;
+
+import com.municipal.ApiClient;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeEventStreamTest {
+
+    private static final String PATH = "/api/events/stream";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ApiClient client;
+    private ChangeEventStream stream;
+    // Released when the test ends, so connections held open by the server finish
+    private final CountDownLatch finished = new CountDownLatch(1);
+    // Last-Event-ID of every connection, "" when absent
+    private final BlockingQueue<String> connections = new LinkedBlockingQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        client = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (stream != null) {
+            stream.close();
+        }
+        finished.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void deliversEventsInBatchesAndResumesFromTheLastEventId() throws Exception {
+        server.createContext(PATH, exchange -> {
+            int number = connectionCount.incrementAndGet();
+            connections.add(lastEventId(exchange));
+            if (number == 1) {
+                // Two events in one burst, then the server drops the connection
+                send(exchange, "retry: 50\n\n"
+                        + "id: 41\ndata: {\"entityType\":\"SPACE\",\"id\":7,\"version\":3}\n\n"
+                        + ": heartbeat\n\n"
+                        + "id: 42\ndata: {\"entityType\":\"RESERVATION\",\"id\":9,\"version\":12}\n\n", false);
+            } else {
+                send(exchange, "", true);
+            }
+        });
+        BlockingQueue<List<ChangeEvent>> batches = new LinkedBlockingQueue<>();
+        stream = newStream(Duration.ofSeconds(30));
+        stream.addListener(batches::add);
+        stream.start();
+
+        List<ChangeEvent> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch, "no events delivered");
+        assertEquals(List.of(new ChangeEvent("SPACE", 7L, 3L), new ChangeEvent("RESERVATION", 9L, 12L)), batch);
+
+        assertEquals("", connections.poll(5, TimeUnit.SECONDS));
+        assertEquals("42", connections.poll(5, TimeUnit.SECONDS), "reconnect did not resume from the last id");
+        assertEquals("42", stream.getLastEventId());
+    }
+
+    @Test
+    void reportsConnectionChanges() throws Exception {
+        server.createContext(PATH, exchange -> {
+            connections.add(lastEventId(exchange));
+            send(exchange, ": hello\n\n", true);
+        });
+        List<Boolean> states = new CopyOnWriteArrayList<>();
+        CountDownLatch connected = new CountDownLatch(1);
+        stream = newStream(Duration.ofSeconds(30));
+        stream.addConnectionListener(state -> {
+            states.add(state);
+            if (state) {
+                connected.countDown();
+            }
+        });
+        stream.start();
+
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+        assertTrue(stream.isConnected());
+        stream.close();
+        assertEquals(List.of(true, false), states);
+        stream = null;
+    }
+
+    @Test
+    void silentConnectionIsReplacedByTheWatchdog() throws Exception {
+        server.createContext(PATH, exchange -> {
+            connections.add(lastEventId(exchange));
+            // Opens the stream, sends one event and then says nothing more
+            send(exchange, "retry: 50\n\nid: 7\ndata: {\"entityType\":\"USER\",\"id\":1,\"version\":1}\n\n", true);
+        });
+        stream = newStream(Duration.ofMillis(200));
+        stream.start();
+
+        assertEquals("", connections.poll(5, TimeUnit.SECONDS));
+        // The watchdog checks every second at most; the next connection resumes after event 7
+        assertEquals("7", connections.poll(5, TimeUnit.SECONDS), "idle connection was not replaced");
+    }
+
+    @Test
+    void failedConnectionsAreRetried() throws Exception {
+        server.createContext(PATH, exchange -> {
+            int number = connectionCount.incrementAndGet();
+            connections.add(lastEventId(exchange));
+            switch (number) {
+                // Lowers the reconnect delay, then drops the connection
+                case 1 -> send(exchange, "retry: 50\n\n", false);
+                case 2 -> {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                }
+                default -> send(exchange, "", true);
+            }
+        });
+        stream = newStream(Duration.ofSeconds(30));
+        stream.start();
+
+        assertEquals("", connections.poll(5, TimeUnit.SECONDS));
+        assertEquals("", connections.poll(5, TimeUnit.SECONDS));
+        assertEquals("", connections.poll(5, TimeUnit.SECONDS), "stream did not reconnect after a 503");
+        assertNull(stream.getLastEventId());
+    }
+
+    private ChangeEventStream newStream(Duration idleTimeout) {
+        return new ChangeEventStream(client, () -> "token", PATH, Duration.ofMillis(20), idleTimeout);
+    }
+
+    private static String lastEventId(HttpExchange exchange) {
+        String id = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        return id != null ? id : "";
+    }
+
+    /**
+     * Writes {@code events} as an open-ended event stream, then either holds
+     * the connection open until the test ends or closes it.
+     */
+    private void send(HttpExchange exchange, String events, boolean holdOpen) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(events.getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            if (holdOpen) {
+                finished.await(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (IOException closedByClient) {
+            // The client cancelled the exchange
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.municipal.sync;
+
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.dtos.SpaceDTO;
+import com.municipal.utils.JsonUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalSnapshotStoreTest {
+
+    private static final String BACKEND = "http://localhost:8080";
+    private static final String OWNER = "admin@municipal.go.cr";
+    // Magic, version, save time, backend and owner, then the name, count and CRC of the first section
+    private static final int FIRST_SECTION_LENGTH_OFFSET = 4 + 2 + 8 + (2 + BACKEND.length()) + (2 + OWNER.length())
+            + (2 + "spaces".length()) + 4 + 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedSnapshotIsReadBack() throws Exception {
+        LocalSnapshotStore store = new LocalSnapshotStore(directory.resolve("admin.snapshot"), BACKEND, OWNER);
+        LocalSnapshotStore.Snapshot saved = snapshot();
+
+        store.save(saved);
+
+        LocalSnapshotStore.Snapshot loaded = store.load().orElseThrow();
+        assertEquals(saved.savedAt(), loaded.savedAt());
+        assertEquals(saved.spaces().toString(), loaded.spaces().toString());
+        assertEquals(saved.reservations().toString(), loaded.reservations().toString());
+        assertTrue(loaded.users().isEmpty());
+    }
+
+    @Test
+    void snapshotOfAnotherOwnerIsIgnored() throws Exception {
+        Path file = directory.resolve("admin.snapshot");
+        new LocalSnapshotStore(file, BACKEND, OWNER).save(snapshot());
+
+        assertTrue(new LocalSnapshotStore(file, BACKEND, "otro@municipal.go.cr").load().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, Integer.MAX_VALUE, LocalSnapshotStore.MAX_SECTION_BYTES + 1, 4096})
+    void corruptSectionLengthIsDiscardedWithoutAllocatingIt(int length) throws Exception {
+        Path file = directory.resolve("admin.snapshot");
+        LocalSnapshotStore store = new LocalSnapshotStore(file, BACKEND, OWNER);
+        store.save(snapshot());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(FIRST_SECTION_LENGTH_OFFSET, length);
+        Files.write(file, bytes);
+
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    void truncatedFileIsDiscarded() throws Exception {
+        Path file = directory.resolve("admin.snapshot");
+        LocalSnapshotStore store = new LocalSnapshotStore(file, BACKEND, OWNER);
+        store.save(snapshot());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertTrue(store.load().isEmpty());
+    }
+
+    private static LocalSnapshotStore.Snapshot snapshot() {
+        List<SpaceDTO> spaces = List.of(JsonUtils.fromJson("{\"id\":1,\"name\":\"Cancha\"}", SpaceDTO.class));
+        List<ReservationDTO> reservations = List.of(
+                JsonUtils.fromJson("{\"id\":7,\"status\":\"PENDING\"}", ReservationDTO.class));
+        return new LocalSnapshotStore.Snapshot(spaces, List.of(), reservations,
+                Instant.ofEpochMilli(1_740_823_200_000L));
+    }
+}
@@ -0,0 +1,134 @@
+package com.municipal.sync;
+
+import com.municipal.ApiClient;
+import com.municipal.exceptions.MutationQueuedException;
+import com.municipal.http.CircuitBreakerRegistry;
+import com.municipal.http.RequestScheduler;
+import com.municipal.http.RetryPolicy;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MutationOutboxTest {
+
+    private static final RetryPolicy FAST_BACKOFF = new RetryPolicy(Integer.MAX_VALUE, Duration.ofMillis(20),
+            Duration.ofMillis(100));
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ApiClient client;
+    private MutationOutbox outbox;
+    // "<method> <path>" of every mutation the backend received
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final CountDownLatch replayStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseReplay = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/spaces", exchange -> {
+            received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                // The replayed mutation hangs until the test lets it finish
+                replayStarted.countDown();
+                try {
+                    releaseReplay.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        client = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        releaseReplay.countDown();
+        if (outbox != null) {
+            outbox.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void emptyOutboxSendsDirectly() {
+        outbox = new MutationOutbox(client, () -> "token", directory.resolve("direct.outbox"), FAST_BACKOFF);
+
+        outbox.submit(client, "POST", "/api/spaces", Map.of("name", "Cancha"), "token", Void.class, "crear");
+
+        assertEquals(List.of("POST /api/spaces"), received);
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    @Test
+    void mutationsQueueBehindAReplayWithoutWaitingForIt() throws Exception {
+        Path journal = directory.resolve("replay.outbox");
+        Files.writeString(journal, "{\"op\":\"enqueue\",\"id\":\"m1\",\"method\":\"PUT\",\"path\":\"/api/spaces/1\","
+                + "\"body\":\"{}\",\"description\":\"editar\",\"createdAt\":1}\n", StandardCharsets.UTF_8);
+        outbox = new MutationOutbox(client, () -> "token", journal, FAST_BACKOFF);
+        assertTrue(replayStarted.await(5, TimeUnit.SECONDS), "queued mutation was not replayed");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertThrows(MutationQueuedException.class,
+                () -> outbox.submit(client, "POST", "/api/spaces", Map.of("name", "Cancha"), "token", Void.class,
+                        "crear")));
+        assertEquals(2, outbox.getPendingCount());
+
+        releaseReplay.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outbox.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of("PUT /api/spaces/1", "POST /api/spaces"), received);
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    @Test
+    void unreachableBackendQueuesTheMutation() throws Exception {
+        int port = server.getAddress().getPort();
+        server.stop(0);
+        ApiClient offline = new ApiClient(HttpClient.newHttpClient(), "http://127.0.0.1:" + port,
+                new CircuitBreakerRegistry(100, Duration.ofSeconds(1)), new RequestScheduler(4, 16));
+        outbox = new MutationOutbox(offline, () -> "token", directory.resolve("offline.outbox"), FAST_BACKOFF);
+
+        MutationQueuedException queued = assertThrows(MutationQueuedException.class,
+                () -> outbox.submit(offline, "POST", "/api/spaces", Map.of("name", "Cancha"), "token", Void.class,
+                        "crear"));
+
+        assertEquals("crear", queued.getDescription());
+        assertEquals(1, outbox.getPendingCount());
+        assertTrue(Files.readString(directory.resolve("offline.outbox")).contains(queued.getMutationId()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.municipal.sync;
+
+import com.municipal.controllers.ReservationController;
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.utils.JsonUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationDeltaSyncTest {
+
+    private final FakeReservations backend = new FakeReservations();
+    private final ReservationDeltaSync sync = new ReservationDeltaSync(backend, Duration.ofHours(1));
+
+    @Test
+    void firstSyncIsFullAndSetsTheWatermarkFromTheData() throws Exception {
+        ReservationDTO first = reservation(1, "PENDING", "2025-03-01T10:00:00");
+        ReservationDTO second = reservation(2, "CONFIRMED", "2025-03-01T12:00:00");
+        backend.all = List.of(first, second);
+
+        ReservationDeltaSync.SyncResult result = sync.sync("token");
+
+        assertTrue(result.full());
+        assertEquals(List.of(first, second), result.reservations());
+        assertEquals(second.updatedAt(), sync.getWatermark());
+        assertEquals(1, backend.fullCalls);
+    }
+
+    @Test
+    void laterSyncsAskForChangesWithAnOverlapAndMergeThem() throws Exception {
+        ReservationDTO first = reservation(1, "PENDING", "2025-03-01T10:00:00");
+        ReservationDTO second = reservation(2, "CONFIRMED", "2025-03-01T12:00:00");
+        backend.all = List.of(first, second);
+        sync.sync("token");
+
+        ReservationDTO approved = reservation(1, "CONFIRMED", "2025-03-01T13:00:00");
+        ReservationDTO created = reservation(3, "PENDING", "2025-03-01T13:30:00");
+        // The row already seen at the watermark comes back because of the overlap
+        backend.changes = List.of(second, approved, created);
+        ReservationDeltaSync.SyncResult result = sync.sync("token");
+
+        assertFalse(result.full());
+        assertEquals(second.updatedAt().minusSeconds(1), backend.sinceRequested.get(0));
+        assertEquals(2, result.updated());
+        assertEquals(List.of(approved, second, created), result.reservations());
+        assertEquals(created.updatedAt(), sync.getWatermark());
+        assertEquals(1, backend.fullCalls);
+    }
+
+    @Test
+    void tombstonesRemoveReservations() throws Exception {
+        backend.all = List.of(reservation(1, "PENDING", "2025-03-01T10:00:00"),
+                reservation(2, "PENDING", "2025-03-01T11:00:00"));
+        sync.sync("token");
+
+        ReservationDTO deleted = reservation(1, ReservationDeltaSync.TOMBSTONE_STATUS, "2025-03-01T12:00:00");
+        backend.changes = List.of(deleted);
+        ReservationDeltaSync.SyncResult result = sync.sync("token");
+
+        assertEquals(1, result.removed());
+        assertEquals(1, sync.size());
+        assertEquals(2L, result.reservations().get(0).id());
+        // The tombstone still moves the watermark forward
+        assertEquals(deleted.updatedAt(), sync.getWatermark());
+    }
+
+    @Test
+    void emptyCollectionLeavesTheWatermarkUnsetAndKeepsSyncingFully() throws Exception {
+        backend.all = List.of();
+
+        assertTrue(sync.sync("token").full());
+        assertNull(sync.getWatermark());
+
+        backend.all = List.of(reservation(5, "PENDING", "2025-03-02T09:00:00"));
+        ReservationDeltaSync.SyncResult result = sync.sync("token");
+
+        assertTrue(result.full());
+        assertEquals(2, backend.fullCalls);
+        assertTrue(backend.sinceRequested.isEmpty());
+        assertEquals(backend.all.get(0).updatedAt(), sync.getWatermark());
+    }
+
+    @Test
+    void syncWithoutChangesReturnsTheSameList() throws Exception {
+        ReservationDTO first = reservation(1, "PENDING", "2025-03-01T10:00:00");
+        backend.all = List.of(first);
+        List<ReservationDTO> loaded = sync.sync("token").reservations();
+
+        backend.changes = List.of(first);
+        assertSame(loaded, sync.sync("token").reservations());
+
+        backend.changes = List.of(reservation(1, "CONFIRMED", "2025-03-01T11:00:00"));
+        List<ReservationDTO> changed = sync.sync("token").reservations();
+        assertNotSame(loaded, changed);
+        assertEquals("CONFIRMED", changed.get(0).status());
+    }
+
+    @Test
+    void seededStoreOnlyDownloadsChanges() throws Exception {
+        ReservationDTO known = reservation(1, "PENDING", "2025-03-01T10:00:00");
+        sync.seed(List.of(known));
+
+        backend.changes = List.of();
+        ReservationDeltaSync.SyncResult result = sync.sync("token");
+
+        assertFalse(result.full());
+        assertFalse(result.hasChanges());
+        assertEquals(List.of(known), result.reservations());
+        assertEquals(0, backend.fullCalls);
+    }
+
+    @Test
+    void fullResyncRunsOnceTheIntervalHasPassed() throws Exception {
+        ReservationDeltaSync eager = new ReservationDeltaSync(backend, Duration.ZERO);
+        backend.all = List.of(reservation(1, "PENDING", "2025-03-01T10:00:00"));
+        eager.sync("token");
+
+        // Deleted physically: only a full download notices it
+        backend.all = List.of();
+        ReservationDeltaSync.SyncResult result = eager.sync("token");
+
+        assertTrue(result.full());
+        assertEquals(0, eager.size());
+    }
+
+    private static ReservationDTO reservation(long id, String status, String updatedAtUtc) {
+        return JsonUtils.fromJson(String.format("{\"id\":%d,\"status\":\"%s\",\"updatedAt\":\"%s\"}",
+                id, status, updatedAtUtc), ReservationDTO.class);
+    }
+
+    private static final class FakeReservations extends ReservationController {
+
+        private List<ReservationDTO> all = List.of();
+        private List<ReservationDTO> changes = List.of();
+        private final List<LocalDateTime> sinceRequested = new ArrayList<>();
+        private int fullCalls;
+
+        private FakeReservations() {
+            super(null);
+        }
+
+        @Override
+        public List<ReservationDTO> getAllReservations(String token) {
+            fullCalls++;
+            return all;
+        }
+
+        @Override
+        public List<ReservationDTO> getReservationsChangedSince(LocalDateTime since, String token) {
+            sinceRequested.add(since);
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.municipal.sync;
+
+import com.municipal.dtos.ReservationDTO;
+import com.municipal.exceptions.ApiClientException;
+import com.municipal.responses.PageResponse;
+import com.municipal.utils.JsonUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationPageSourceTest {
+
+    private static final List<ReservationDTO> RESERVATIONS = LongStream.rangeClosed(1, 25)
+            .mapToObj(id -> JsonUtils.fromJson("{\"id\":" + id + ",\"status\":\"PENDING\"}", ReservationDTO.class))
+            .toList();
+
+    private final FakeBackend backend = new FakeBackend();
+    private final List<String> standInCalls = new CopyOnWriteArrayList<>();
+    private final ReservationPageSource.PageLoader standIn = (query, page, token) -> {
+        standInCalls.add(query.status() + "#" + page);
+        return CompletableFuture.completedFuture(PageResponse.slice(RESERVATIONS, page, query.size()));
+    };
+
+    @Test
+    void servesRepeatedPagesFromTheCache() {
+        ReservationPageSource source = new ReservationPageSource(backend, standIn, 8);
+        ReservationPageQuery query = query("PENDING", 10);
+
+        PageResponse<ReservationDTO> first = source.getPage(query, 2, "token").join();
+        PageResponse<ReservationDTO> again = source.getPage(query, 2, "token").join();
+
+        assertEquals(first, again);
+        assertEquals(List.of("PENDING#2"), backend.calls);
+    }
+
+    @Test
+    void prefetchesTheNextPageOnlyWhenThereIsOne() {
+        ReservationPageSource source = new ReservationPageSource(backend, standIn, 8);
+        ReservationPageQuery query = query("PENDING", 10);
+
+        source.getPage(query, 0, "token").join();
+        assertEquals(List.of("PENDING#0", "PENDING#1"), backend.calls);
+
+        // Served from the prefetch, which in turn prefetches the last page
+        source.getPage(query, 1, "token").join();
+        assertEquals(List.of("PENDING#0", "PENDING#1", "PENDING#2"), backend.calls);
+
+        source.getPage(query, 2, "token").join();
+        assertEquals(3, backend.calls.size(), "prefetched past the last page");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPage() {
+        ReservationPageSource source = new ReservationPageSource(backend, standIn, 2);
+        // Single-page queries, so nothing is prefetched
+        ReservationPageQuery pending = query("PENDING", 50);
+        ReservationPageQuery confirmed = query("CONFIRMED", 50);
+        ReservationPageQuery cancelled = query("CANCELLED", 50);
+
+        source.getPage(pending, 0, "token").join();
+        source.getPage(confirmed, 0, "token").join();
+        source.getPage(pending, 0, "token").join();
+        source.getPage(cancelled, 0, "token").join();
+        assertEquals(2, source.getCachedPageCount());
+
+        source.getPage(pending, 0, "token").join();
+        source.getPage(confirmed, 0, "token").join();
+        assertEquals(List.of("PENDING#0", "CONFIRMED#0", "CANCELLED#0", "CONFIRMED#0"), backend.calls);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {404, 405, 501})
+    void fallsBackToTheStandInWhenThePagedEndpointIsMissing(int status) {
+        backend.failWith = status;
+        ReservationPageSource source = new ReservationPageSource(backend, standIn, 8);
+        ReservationPageQuery query = query("PENDING", 10);
+
+        PageResponse<ReservationDTO> page = source.getPage(query, 0, "token").join();
+
+        assertTrue(source.isUsingStandIn());
+        assertEquals(RESERVATIONS.subList(0, 10), page.content());
+        // Local pages are not prefetched and the backend is not asked again
+        source.getPage(query, 1, "token").join();
+        assertEquals(List.of("PENDING#0"), backend.calls);
+        assertEquals(List.of("PENDING#0", "PENDING#1"), standInCalls);
+
+        backend.failWith = 0;
+        source.reset();
+        assertFalse(source.isUsingStandIn());
+        source.getPage(query, 1, "token").join();
+        assertEquals("PENDING#1", backend.calls.get(1));
+    }
+
+    @Test
+    void otherFailuresAreReportedAndNotCached() {
+        backend.failWith = 500;
+        ReservationPageSource source = new ReservationPageSource(backend, standIn, 8);
+        ReservationPageQuery query = query("PENDING", 10);
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> source.getPage(query, 0, "token").join());
+        assertInstanceOf(ApiClientException.class, failure.getCause());
+        assertFalse(source.isUsingStandIn());
+        assertTrue(standInCalls.isEmpty());
+        assertEquals(0, source.getCachedPageCount());
+
+        backend.failWith = 0;
+        source.getPage(query, 0, "token").join();
+        assertEquals(List.of("PENDING#0", "PENDING#0", "PENDING#1"), backend.calls);
+    }
+
+    private static ReservationPageQuery query(String status, int size) {
+        return new ReservationPageQuery(status, null, null, null, null, size);
+    }
+
+    /** Paged endpoint over {@link #RESERVATIONS}, or failing with {@code failWith}. */
+    private static final class FakeBackend implements ReservationPageSource.PageLoader {
+
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+        private volatile int failWith;
+
+        @Override
+        public CompletableFuture<PageResponse<ReservationDTO>> load(ReservationPageQuery query, int page,
+                String token) {
+            calls.add(query.status() + "#" + page);
+            if (failWith != 0) {
+                return CompletableFuture.failedFuture(new ApiClientException(failWith, "Request failed"));
+            }
+            return CompletableFuture.completedFuture(PageResponse.slice(new ArrayList<>(RESERVATIONS), page,
+                    query.size()));
+        }
+    }
+}